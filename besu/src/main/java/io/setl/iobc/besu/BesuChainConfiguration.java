@@ -1,15 +1,19 @@
 package io.setl.iobc.besu;
 
+import java.time.Duration;
+
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
-import org.web3j.tx.RawTransactionManager;
+import org.web3j.tx.Contract;
 import org.web3j.tx.TransactionManager;
 
+import io.setl.iobc.besu.TransactionManagerPool.ContractLoader;
 import io.setl.iobc.besu.tx.CommonTransactionReceiptHandler;
 import io.setl.iobc.besu.tx.ReceiptHandlerFactory;
 import io.setl.iobc.besu.tx.SimpleReceiptHandlerFactory;
 import io.setl.iobc.config.ChainConfiguration;
 import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.address.SetlAddress;
 
 /**
  * Configuration for a BESU chain.
@@ -18,10 +22,14 @@ import io.setl.iobc.model.ChainBrand;
  */
 public class BesuChainConfiguration implements ChainConfiguration {
 
+  private final CallBatcher callBatcher;
+
   private final int chainId;
 
   private final String iobcId;
 
+  private final TransactionManagerPool managerPool;
+
   private final CommonTransactionReceiptHandler receiptHandler;
 
   private final ReceiptHandlerFactory receiptHandlerFactory;
@@ -33,20 +41,40 @@ public class BesuChainConfiguration implements ChainConfiguration {
   /**
    * New instance.
    *
-   * @param iobcId the IOBC ID
-   * @param web3j  the Web3J connector
+   * @param iobcId          the IOBC ID
+   * @param chainId         the chain's ID
+   * @param web3j           the Web3J connector
+   * @param receiptHandler  the handler for transaction receipts
+   * @param managerPoolSize the maximum number of pooled transaction managers
+   * @param managerIdleTime the time after which an unused transaction manager is evicted from the pool
+   * @param callBatcher     the batcher for read-only contract calls
    */
   public BesuChainConfiguration(
       String iobcId,
       int chainId,
       Web3j web3j,
-      CommonTransactionReceiptHandler receiptHandler
+      CommonTransactionReceiptHandler receiptHandler,
+      int managerPoolSize,
+      Duration managerIdleTime,
+      CallBatcher callBatcher
   ) {
     this.iobcId = iobcId;
     this.chainId = chainId;
     this.receiptHandler = receiptHandler;
     this.web3j = web3j;
     receiptHandlerFactory = new SimpleReceiptHandlerFactory(receiptHandler);
+    managerPool = new TransactionManagerPool(web3j, chainId, receiptHandler, managerPoolSize, managerIdleTime);
+    this.callBatcher = callBatcher;
+  }
+
+
+  /**
+   * Get the batcher for read-only contract calls. Calls should be made through this rather than through a wrapper, so that they can share JSON-RPC requests.
+   *
+   * @return the batcher
+   */
+  public CallBatcher getCallBatcher() {
+    return callBatcher;
   }
 
 
@@ -55,6 +83,23 @@ public class BesuChainConfiguration implements ChainConfiguration {
   }
 
 
+  /**
+   * Get a pooled contract wrapper which sends transactions from the given address. The address's credentials are taken from the credentials cache whenever a
+   * transaction is signed.
+   *
+   * @param sender          the sender's address
+   * @param type            the wrapper type
+   * @param contractAddress the contract's address
+   * @param loader          the wrapper's static "load" method
+   * @param <T>             the wrapper type
+   *
+   * @return the wrapper
+   */
+  public <T extends Contract> T getContract(SetlAddress sender, Class<T> type, String contractAddress, ContractLoader<T> loader) {
+    return managerPool.getContract(Web3KeyConversion.getAddress(sender), () -> Web3KeyConversion.convert(sender), type, contractAddress, loader);
+  }
+
+
   public DvpManager getDvpManager() {
     return dvpManager;
   }
@@ -71,8 +116,34 @@ public class BesuChainConfiguration implements ChainConfiguration {
   }
 
 
+  /**
+   * Get the pooled transaction manager for the given credentials. The manager tracks the sender's nonce locally. This is for credentials which are not
+   * derived from a SETL address, and so are held for as long as the manager is pooled.
+   *
+   * @param credentials the sender's credentials
+   *
+   * @return the manager
+   */
   public TransactionManager getManager(Credentials credentials) {
-    return new RawTransactionManager(web3j, credentials, chainId, receiptHandler);
+    return managerPool.getManager(credentials.getAddress(), () -> credentials);
+  }
+
+
+  /**
+   * Get the pooled transaction manager for the given address. The manager tracks the sender's nonce locally, and takes the address's credentials from the
+   * credentials cache whenever a transaction is signed.
+   *
+   * @param sender the sender's address
+   *
+   * @return the manager
+   */
+  public TransactionManager getManager(SetlAddress sender) {
+    return managerPool.getManager(Web3KeyConversion.getAddress(sender), () -> Web3KeyConversion.convert(sender));
+  }
+
+
+  public TransactionManagerPool getManagerPool() {
+    return managerPool;
   }
 
 
@@ -1,5 +1,6 @@
 package io.setl.iobc.besu;
 
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -50,6 +51,8 @@ public class BesuChainConfigurationFactory implements ChainConfigurationFactory,
 
   private Object lock = new Object();
 
+  private CopyOnWriteArrayList<TransactionManagerPool> managerPools = new CopyOnWriteArrayList<>();
+
   private CopyOnWriteArrayList<CommonTransactionReceiptHandler> receiptHandlers = new CopyOnWriteArrayList<>();
 
 
@@ -94,7 +97,16 @@ public class BesuChainConfigurationFactory implements ChainConfigurationFactory,
     CommonTransactionReceiptHandler handler = new CommonTransactionReceiptHandler(web3j, service);
     receiptHandlers.add(handler);
 
-    BesuChainConfiguration configuration = new BesuChainConfiguration(iobcId, chainId, web3j, handler);
+    int managerPoolSize = map.getInt("managerPoolSize", 1000);
+    Duration managerIdleTime = Duration.parse(map.getString("managerIdleTime", "PT10M"));
+    CallBatcher callBatcher = new CallBatcher(
+        iobcId,
+        web3j,
+        map.getInt("callBatchSize", 100),
+        Duration.parse(map.getString("callBatchLinger", "PT0.002S"))
+    );
+    BesuChainConfiguration configuration = new BesuChainConfiguration(iobcId, chainId, web3j, handler, managerPoolSize, managerIdleTime, callBatcher);
+    managerPools.add(configuration.getManagerPool());
     DvpManager dvpManager = new DvpManager(configuration, configurationTable, transactionManager, this::applicationAbort);
     configuration.setDvpManager(dvpManager);
 
@@ -110,12 +122,30 @@ public class BesuChainConfigurationFactory implements ChainConfigurationFactory,
   }
 
 
+  /**
+   * Periodic eviction of idle transaction managers, which releases their credentials.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void evictManagers() {
+    managerPools.forEach(TransactionManagerPool::evict);
+  }
+
+
   @Override
   public ChainBrand getIobcBrand() {
     return ChainBrand.BESU;
   }
 
 
+  /**
+   * Periodic reconciliation of locally allocated nonces with the nodes, to find transactions which were dropped.
+   */
+  @Scheduled(fixedDelay = 15_000)
+  public void reconcileNonces() {
+    managerPools.forEach(TransactionManagerPool::reconcile);
+  }
+
+
   @Override
   public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
     this.applicationContext = (ConfigurableApplicationContext) applicationContext;
@@ -123,9 +153,9 @@ public class BesuChainConfigurationFactory implements ChainConfigurationFactory,
 
 
   /**
-   * Periodic update to fetch transactions.
+   * Periodic check for new blocks, which resolves the receipts of transactions mined in them.
    */
-  @Scheduled(fixedRate = 3600)
+  @Scheduled(fixedDelayString = "${setl.iobc.besu.blockPollInterval:PT0.5S}")
   public void updateHandlers() {
     receiptHandlers.forEach(CommonTransactionReceiptHandler::scan);
   }
@@ -1,10 +1,12 @@
 package io.setl.iobc.besu;
 
+import java.time.Duration;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -18,6 +20,27 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableScheduling
 public class BesuConfiguration {
 
+  /**
+   * Cache of the Web3J credentials derived from SETL addresses.
+   *
+   * @param maxSize   the maximum number of addresses to cache
+   * @param idleTime  the time after which an unused address is evicted
+   * @param isOffHeap if true, private keys are held outside the Java heap
+   *
+   * @return the cache
+   */
+  @Bean
+  public CredentialsCache besuCredentialsCache(
+      @Value("${setl.iobc.besu.credentials.maxSize:1000}") int maxSize,
+      @Value("${setl.iobc.besu.credentials.idleTime:PT10M}") Duration idleTime,
+      @Value("${setl.iobc.besu.credentials.offHeap:false}") boolean isOffHeap
+  ) {
+    CredentialsCache cache = new CredentialsCache(maxSize, idleTime, isOffHeap);
+    Web3KeyConversion.setCache(cache);
+    return cache;
+  }
+
+
   @Bean
   public ExecutorService besuExecutorService() {
     return new ThreadPoolExecutor(2, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(100));
@@ -0,0 +1,254 @@
+package io.setl.iobc.besu;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.RemoteFunctionCall;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.tx.Contract;
+import org.web3j.tx.ReadonlyTransactionManager;
+import org.web3j.tx.exceptions.ContractCallException;
+
+import io.setl.iobc.besu.TransactionManagerPool.ContractLoader;
+
+/**
+ * Sends read-only contract calls to a chain in JSON-RPC batches. Calls made at about the same time are queued and sent together, so a request which needs many
+ * calls, such as the balances of every address in a wallet, needs only a few HTTP round trips. A batch is sent when it is full, or when the first call in it
+ * has waited for the linger time.
+ *
+ * <p>Contract wrappers are only used to encode the calls and decode the results, so a single read-only wrapper for each contract is shared.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class CallBatcher {
+
+  /** A call waiting to be sent. */
+  private static class PendingCall {
+
+    final Request<?, EthCall> request;
+
+    final CompletableFuture<String> result = new CompletableFuture<>();
+
+
+    PendingCall(Request<?, EthCall> request) {
+      this.request = request;
+    }
+
+  }
+
+
+
+  /**
+   * Get the value returned by a call, or the reason it failed.
+   *
+   * @param ethCall the response to the call
+   *
+   * @return the encoded value
+   */
+  private static String getValue(EthCall ethCall) {
+    if (ethCall.isReverted()) {
+      throw new ContractCallException("Contract Call has been reverted by the EVM with the reason: '" + ethCall.getRevertReason() + "'.");
+    }
+    if (ethCall.hasError()) {
+      throw new ContractCallException("Contract Call failed: " + ethCall.getError().getMessage());
+    }
+    return ethCall.getValue();
+  }
+
+
+  /**
+   * Get the block parameter for a block number, as used in the IOBC messages.
+   *
+   * @param block the block number, or -1 for the latest block
+   *
+   * @return the block parameter
+   */
+  public static DefaultBlockParameter toBlockParameter(long block) {
+    return (block != -1) ? new DefaultBlockParameterNumber(block) : DefaultBlockParameterName.LATEST;
+  }
+
+
+  private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+
+  /** Time a call may wait for others to join its batch, in nanoseconds. */
+  private final long linger;
+
+  private final int maxBatchSize;
+
+  private final ConcurrentLinkedQueue<PendingCall> queue = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final ReadonlyTransactionManager readOnlyManager;
+
+  /** Read-only wrappers by class name and contract address. */
+  private final ConcurrentHashMap<String, Contract> readers = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Web3j web3j;
+
+
+  /**
+   * New instance.
+   *
+   * @param iobcId       the chain's IOBC ID, used to name the batching thread
+   * @param web3j        the Web3J connector
+   * @param maxBatchSize the maximum number of calls in a batch
+   * @param linger       the time a call may wait for others to join its batch
+   */
+  public CallBatcher(String iobcId, Web3j web3j, int maxBatchSize, Duration linger) {
+    if (maxBatchSize < 1 || linger.isNegative()) {
+      throw new IllegalArgumentException("Call batch size must be positive and linger must not be negative");
+    }
+    this.web3j = web3j;
+    this.maxBatchSize = maxBatchSize;
+    this.linger = linger.toNanos();
+    readOnlyManager = new ReadonlyTransactionManager(web3j, null);
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "iobc-besu-calls-" + iobcId);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+
+  /**
+   * Make a read-only contract call.
+   *
+   * @param from            the address the call is from
+   * @param contractAddress the contract's address
+   * @param function        the function call, created from a read-only wrapper
+   * @param block           the block the call is made against
+   *
+   * @return the decoded results
+   */
+  public CompletableFuture<List<Type>> call(String from, String contractAddress, RemoteFunctionCall<?> function, DefaultBlockParameter block) {
+    Transaction transaction = Transaction.createEthCallTransaction(from, contractAddress, function.encodeFunctionCall());
+    return send(web3j.ethCall(transaction, block)).thenApply(function::decodeFunctionResponse);
+  }
+
+
+  /**
+   * Make a read-only contract call to a function which returns a single value.
+   *
+   * @param from            the address the call is from
+   * @param contractAddress the contract's address
+   * @param function        the function call, created from a read-only wrapper
+   * @param block           the block the call is made against
+   * @param <T>             the returned type
+   *
+   * @return the returned value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> callForValue(String from, String contractAddress, RemoteFunctionCall<T> function, DefaultBlockParameter block) {
+    return call(from, contractAddress, function, block).thenApply(results -> {
+      if (results.isEmpty()) {
+        throw new ContractCallException("Empty value (0x) returned from contract");
+      }
+      return (T) results.get(0).getValue();
+    });
+  }
+
+
+  private void complete(List<PendingCall> calls, BatchResponse batchResponse, Throwable thrown) {
+    if (thrown != null) {
+      log.error("Failed to send batch of {} contract calls", calls.size(), thrown);
+      calls.forEach(c -> c.result.completeExceptionally(thrown));
+      return;
+    }
+
+    Map<Long, PendingCall> byId = new HashMap<>();
+    calls.forEach(c -> byId.put(c.request.getId(), c));
+    for (Response<?> response : batchResponse.getResponses()) {
+      PendingCall call = byId.remove(response.getId());
+      if (call != null) {
+        try {
+          call.result.complete(getValue((EthCall) response));
+        } catch (RuntimeException e) {
+          call.result.completeExceptionally(e);
+        }
+      }
+    }
+    byId.values().forEach(c -> c.result.completeExceptionally(new ContractCallException("No response to contract call " + c.request.getId())));
+  }
+
+
+  private void flush() {
+    int size;
+    do {
+      List<PendingCall> calls = new ArrayList<>(maxBatchSize);
+      PendingCall call;
+      while (calls.size() < maxBatchSize && (call = queue.poll()) != null) {
+        calls.add(call);
+      }
+      size = calls.size();
+      if (size == 0) {
+        return;
+      }
+      queued.addAndGet(-size);
+
+      BatchRequest batch = web3j.newBatch();
+      calls.forEach(c -> batch.add(c.request));
+      batch.sendAsync().whenComplete((r, t) -> complete(calls, r, t));
+    } while (size == maxBatchSize);
+  }
+
+
+  private void flushScheduled() {
+    // Clear the flag first, so that a call queued during the flush schedules another.
+    isScheduled.set(false);
+    flush();
+  }
+
+
+  /**
+   * Get a read-only wrapper for a contract, for creating function calls to pass to this.
+   *
+   * @param type            the wrapper type
+   * @param contractAddress the contract's address
+   * @param loader          the wrapper's static "load" method
+   * @param <T>             the wrapper type
+   *
+   * @return the wrapper
+   */
+  public <T extends Contract> T getReader(Class<T> type, String contractAddress, ContractLoader<T> loader) {
+    String key = type.getName() + ':' + contractAddress;
+    return type.cast(readers.computeIfAbsent(key, k -> loader.load(contractAddress, web3j, readOnlyManager, FreeGasProvider.INSTANCE)));
+  }
+
+
+  private CompletableFuture<String> send(Request<?, EthCall> request) {
+    PendingCall call = new PendingCall(request);
+    queue.add(call);
+    if (queued.incrementAndGet() >= maxBatchSize) {
+      scheduler.execute(this::flush);
+    } else if (isScheduled.compareAndSet(false, true)) {
+      scheduler.schedule(this::flushScheduled, linger, TimeUnit.NANOSECONDS);
+    }
+    return call.result;
+  }
+}
@@ -0,0 +1,226 @@
+package io.setl.iobc.besu;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.utils.Numeric;
+
+/**
+ * Cache of the Web3J key material derived from SETL addresses. Deriving the key pair from the JCE keys requires a key factory translation and a Keccak hash,
+ * which is wasted work when the same addresses sign transaction after transaction.
+ *
+ * <p>The private key is held as bytes, optionally in memory outside the Java heap, and is overwritten with zeros when its entry is evicted. Entries are evicted
+ * when they have not been used for the idle time, or when the cache is full. Each request for credentials creates a new key pair from the cached bytes, as
+ * Web3J holds the private key in an immutable number which cannot be erased.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class CredentialsCache {
+
+  /** Length of a secp256k1 private key. */
+  private static final int KEY_LENGTH = 32;
+
+
+
+  /** Key material for one address. */
+  private static class Entry {
+
+    /** The Ethereum address, which is derived from the public key. */
+    final String address;
+
+    final BigInteger publicKey;
+
+    /** The private key. */
+    final ByteBuffer secret;
+
+    /** True once the secret has been erased. */
+    boolean isErased;
+
+    /** Time this was last used, from System.nanoTime(). */
+    volatile long lastUsed;
+
+
+    Entry(ECKeyPair keyPair, String address, boolean isOffHeap) {
+      this.address = address;
+      publicKey = keyPair.getPublicKey();
+      byte[] bytes = Numeric.toBytesPadded(keyPair.getPrivateKey(), KEY_LENGTH);
+      secret = isOffHeap ? ByteBuffer.allocateDirect(KEY_LENGTH) : ByteBuffer.allocate(KEY_LENGTH);
+      secret.duplicate().put(bytes);
+      Arrays.fill(bytes, (byte) 0);
+      lastUsed = System.nanoTime();
+    }
+
+
+    /** Overwrite the private key. */
+    synchronized void erase() {
+      for (int i = 0; i < KEY_LENGTH; i++) {
+        secret.put(i, (byte) 0);
+      }
+      isErased = true;
+    }
+
+
+    /**
+     * Create credentials from the cached key material.
+     *
+     * @return the credentials, or null if the key has been erased
+     */
+    Credentials toCredentials() {
+      byte[] bytes = new byte[KEY_LENGTH];
+      try {
+        synchronized (this) {
+          if (isErased) {
+            return null;
+          }
+          secret.duplicate().get(bytes);
+        }
+        return Credentials.create(new ECKeyPair(new BigInteger(1, bytes), publicKey));
+      } finally {
+        Arrays.fill(bytes, (byte) 0);
+      }
+    }
+
+  }
+
+
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Maximum idle time of an entry, in nanoseconds. */
+  private final long idleTime;
+
+  /** If true, private keys are held outside the Java heap. */
+  private final boolean isOffHeap;
+
+  private final int maxSize;
+
+
+  /**
+   * New instance.
+   *
+   * @param maxSize   the maximum number of addresses to cache
+   * @param idleTime  the time after which an unused address is evicted
+   * @param isOffHeap if true, private keys are held outside the Java heap
+   */
+  public CredentialsCache(int maxSize, Duration idleTime, boolean isOffHeap) {
+    if (maxSize < 1 || idleTime.isNegative() || idleTime.isZero()) {
+      throw new IllegalArgumentException("Credentials cache size and idle time must be positive");
+    }
+    this.maxSize = maxSize;
+    this.idleTime = idleTime.toNanos();
+    this.isOffHeap = isOffHeap;
+  }
+
+
+  /** Evict and erase every entry. */
+  public void clear() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      iterator.remove();
+      entry.erase();
+    }
+  }
+
+
+  /**
+   * Evict entries which have not been used recently. If the cache is still full, the least recently used tenth is also evicted. When the cache is a bean, this
+   * runs regularly so that idle keys are erased promptly.
+   */
+  @Scheduled(fixedDelayString = "${setl.iobc.besu.credentials.sweepInterval:PT1M}")
+  public void evict() {
+    long now = System.nanoTime();
+    entries.entrySet().removeIf(e -> {
+      if (now - e.getValue().lastUsed > idleTime) {
+        e.getValue().erase();
+        return true;
+      }
+      return false;
+    });
+
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    excess += Math.max(1, maxSize / 10);
+    long[] used = entries.values().stream().mapToLong(e -> e.lastUsed).sorted().toArray();
+    if (used.length == 0) {
+      return;
+    }
+    long threshold = used[Math.min(excess, used.length) - 1];
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && excess > 0) {
+      Entry entry = iterator.next().getValue();
+      if (entry.lastUsed - threshold <= 0) {
+        iterator.remove();
+        entry.erase();
+        excess--;
+      }
+    }
+  }
+
+
+  private Entry get(String setlAddress, Function<String, ECKeyPair> loader) {
+    long now = System.nanoTime();
+    Entry entry = entries.get(setlAddress);
+    if (entry != null && now - entry.lastUsed <= idleTime) {
+      entry.lastUsed = now;
+      return entry;
+    }
+
+    ECKeyPair keyPair = loader.apply(setlAddress);
+    Entry newEntry = new Entry(keyPair, Credentials.create(keyPair).getAddress(), isOffHeap);
+    Entry old = entries.put(setlAddress, newEntry);
+    if (old != null) {
+      old.erase();
+    }
+    if (entries.size() > maxSize) {
+      evict();
+    }
+    return newEntry;
+  }
+
+
+  /**
+   * Get the Ethereum address for a SETL address. This does not require the private key to be read.
+   *
+   * @param setlAddress the SETL address
+   * @param loader      loader of the key pair, if the address is not cached
+   *
+   * @return the Ethereum address
+   */
+  public String getAddress(String setlAddress, Function<String, ECKeyPair> loader) {
+    return get(setlAddress, loader).address;
+  }
+
+
+  /**
+   * Get the credentials for a SETL address.
+   *
+   * @param setlAddress the SETL address
+   * @param loader      loader of the key pair, if the address is not cached
+   *
+   * @return the credentials
+   */
+  public Credentials getCredentials(String setlAddress, Function<String, ECKeyPair> loader) {
+    Credentials credentials = get(setlAddress, loader).toCredentials();
+    if (credentials == null) {
+      // Evicted whilst in use, so derive the key pair directly.
+      log.debug("Credentials for {} were evicted during use", setlAddress);
+      credentials = Credentials.create(loader.apply(setlAddress));
+    }
+    return credentials;
+  }
+
+}
@@ -0,0 +1,239 @@
+package io.setl.iobc.besu;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.tx.Contract;
+import org.web3j.tx.TransactionManager;
+import org.web3j.tx.gas.ContractGasProvider;
+
+import io.setl.iobc.besu.tx.CommonTransactionReceiptHandler;
+import io.setl.iobc.besu.tx.LocalNonceTransactionManager;
+import io.setl.iobc.besu.tx.NonceSequencer;
+
+/**
+ * Pool of the transaction managers for a chain, one per sending address. Each manager allocates its address's nonces from a local sequencer, rather than
+ * fetching them from the node for every transaction. The contract wrappers created for each manager are also re-used.
+ *
+ * <p>The pool is keyed by the Ethereum address, and a pooled manager does not hold its address's credentials. It asks its signer for them each time it signs a
+ * transaction, so that key material can be erased from the credentials cache whilst the manager is pooled. Managers are evicted when they have not been used
+ * for the idle time, or when the pool is full. A manager whose sequencer is still tracking transactions is not evicted.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class TransactionManagerPool {
+
+  /**
+   * Loader of a contract wrapper. The generated wrappers' static "load" methods match this.
+   *
+   * @param <T> the wrapper type
+   */
+  public interface ContractLoader<T extends Contract> {
+
+    /**
+     * Load a contract wrapper.
+     *
+     * @param contractAddress the contract's address
+     * @param web3j           the Web3J connector
+     * @param manager         the transaction manager
+     * @param gasProvider     the gas provider
+     *
+     * @return the wrapper
+     */
+    T load(String contractAddress, Web3j web3j, TransactionManager manager, ContractGasProvider gasProvider);
+
+  }
+
+
+
+  /** A pooled manager and its contract wrappers. */
+  private static class Entry {
+
+    /** Wrappers by class name and contract address. */
+    final ConcurrentHashMap<String, Contract> contracts = new ConcurrentHashMap<>();
+
+    final LocalNonceTransactionManager manager;
+
+    /** Time this was last used, from System.nanoTime(). */
+    volatile long lastUsed;
+
+
+    Entry(LocalNonceTransactionManager manager) {
+      this.manager = manager;
+      lastUsed = System.nanoTime();
+    }
+
+  }
+
+
+
+  private final long chainId;
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Maximum idle time of a manager, in nanoseconds. */
+  private final long idleTime;
+
+  private final int maxSize;
+
+  private final CommonTransactionReceiptHandler receiptHandler;
+
+  private final Web3j web3j;
+
+
+  /**
+   * New instance.
+   *
+   * @param web3j          the Web3J connector
+   * @param chainId        the chain's ID
+   * @param receiptHandler the handler for transaction receipts
+   * @param maxSize        the maximum number of managers to pool
+   * @param idleTime       the time after which an unused manager is evicted
+   */
+  public TransactionManagerPool(Web3j web3j, long chainId, CommonTransactionReceiptHandler receiptHandler, int maxSize, Duration idleTime) {
+    if (maxSize < 1 || idleTime.isNegative() || idleTime.isZero()) {
+      throw new IllegalArgumentException("Transaction manager pool size and idle time must be positive");
+    }
+    this.web3j = web3j;
+    this.chainId = chainId;
+    this.receiptHandler = receiptHandler;
+    this.maxSize = maxSize;
+    this.idleTime = idleTime.toNanos();
+    receiptHandler.addReceiptListener(this::receiptReceived);
+  }
+
+
+  /** Evict every manager. */
+  public void clear() {
+    entries.clear();
+  }
+
+
+  /**
+   * Evict managers which have not been used recently. If the pool is still full, the least recently used tenth is also evicted.
+   */
+  public void evict() {
+    long now = System.nanoTime();
+    entries.values().removeIf(e -> now - e.lastUsed > idleTime && !e.manager.getSequencer().isBusy());
+
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    excess += Math.max(1, maxSize / 10);
+    long[] used = entries.values().stream().mapToLong(e -> e.lastUsed).sorted().toArray();
+    if (used.length == 0) {
+      return;
+    }
+    long threshold = used[Math.min(excess, used.length) - 1];
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && excess > 0) {
+      Entry entry = iterator.next().getValue();
+      if (entry.lastUsed - threshold <= 0 && !entry.manager.getSequencer().isBusy()) {
+        iterator.remove();
+        excess--;
+      }
+    }
+  }
+
+
+  private Entry get(String address, Supplier<Credentials> signer) {
+    long now = System.nanoTime();
+    Entry entry = entries.get(address);
+    if (entry != null && isLive(entry, now)) {
+      entry.lastUsed = now;
+      return entry;
+    }
+
+    NonceSequencer sequencer = new NonceSequencer(web3j, address);
+    Entry newEntry = new Entry(new LocalNonceTransactionManager(web3j, address, signer, chainId, receiptHandler, sequencer));
+    entry = entries.merge(address, newEntry, (o, n) -> isLive(o, now) ? o : n);
+    entry.lastUsed = now;
+    if (entries.size() > maxSize) {
+      evict();
+    }
+    return entry;
+  }
+
+
+  /**
+   * Get a contract wrapper which sends transactions from the given address.
+   *
+   * @param address         the sending address
+   * @param signer          supplier of the address's credentials, used if the address does not have a pooled manager
+   * @param type            the wrapper type
+   * @param contractAddress the contract's address
+   * @param loader          loader for the wrapper, if it is not pooled
+   * @param <T>             the wrapper type
+   *
+   * @return the wrapper
+   */
+  public <T extends Contract> T getContract(String address, Supplier<Credentials> signer, Class<T> type, String contractAddress, ContractLoader<T> loader) {
+    Entry entry = get(address, signer);
+    String key = type.getName() + ':' + contractAddress;
+    Contract contract = entry.contracts.computeIfAbsent(key, k -> loader.load(contractAddress, web3j, entry.manager, FreeGasProvider.INSTANCE));
+    return type.cast(contract);
+  }
+
+
+  /**
+   * Get the transaction manager for the given address.
+   *
+   * @param address the sending address
+   * @param signer  supplier of the address's credentials, used if the address does not have a pooled manager
+   *
+   * @return the manager
+   */
+  public LocalNonceTransactionManager getManager(String address, Supplier<Credentials> signer) {
+    return get(address, signer).manager;
+  }
+
+
+
+  /**
+   * An entry can be re-used if it is not idle, or if its sequencer is tracking transactions. Replacing a busy entry would lose track of its nonces.
+   *
+   * @param entry the entry
+   * @param now   the current time, from System.nanoTime()
+   *
+   * @return true if the entry can be re-used
+   */
+  private boolean isLive(Entry entry, long now) {
+    return now - entry.lastUsed <= idleTime || entry.manager.getSequencer().isBusy();
+  }
+
+
+  private void receiptReceived(TransactionReceipt receipt) {
+    Entry entry = receipt.getFrom() != null ? entries.get(receipt.getFrom()) : null;
+    if (entry != null) {
+      entry.manager.getSequencer().confirmed(receipt.getTransactionHash());
+    }
+  }
+
+
+  /**
+   * Reconcile the nonce sequencers which are tracking transactions with the node. Nonces of transactions the node has dropped are re-used or filled.
+   */
+  public void reconcile() {
+    for (Entry entry : entries.values()) {
+      LocalNonceTransactionManager manager = entry.manager;
+      if (manager.getSequencer().isBusy()) {
+        try {
+          manager.reconcile();
+        } catch (IOException e) {
+          log.error("Failed to reconcile nonces for {}", manager.getFromAddress(), e);
+        }
+      }
+    }
+  }
+
+}
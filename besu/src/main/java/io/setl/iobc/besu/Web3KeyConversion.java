@@ -5,6 +5,7 @@ import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.time.Duration;
 
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPrivateKey;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPublicKey;
@@ -21,6 +22,10 @@ import io.setl.iobc.model.address.SetlAddress;
  */
 public class Web3KeyConversion {
 
+  /** Cache of the key material derived from SETL addresses. */
+  private static volatile CredentialsCache cache = new CredentialsCache(1000, Duration.ofMinutes(10), false);
+
+
   public static Credentials convert(KeyPair keyPair) {
     ECKeyPair ecKeyPair = toEcKeyPair(keyPair);
     return Credentials.create(ecKeyPair);
@@ -28,8 +33,31 @@ public class Web3KeyConversion {
 
 
   public static Credentials convert(SetlAddress address) {
-    ECKeyPair ecKeyPair = toEcKeyPair(address.getKeyPair());
-    return Credentials.create(ecKeyPair);
+    return cache.getCredentials(address.getAddress(), a -> toEcKeyPair(address.getKeyPair()));
+  }
+
+
+  /**
+   * Get the Ethereum address of a SETL address.
+   *
+   * @param address the SETL address
+   *
+   * @return the Ethereum address
+   */
+  public static String getAddress(SetlAddress address) {
+    return cache.getAddress(address.getAddress(), a -> toEcKeyPair(address.getKeyPair()));
+  }
+
+
+  /**
+   * Replace the cache of key material derived from SETL addresses. The old cache is cleared.
+   *
+   * @param newCache the new cache
+   */
+  static void setCache(CredentialsCache newCache) {
+    CredentialsCache old = cache;
+    cache = newCache;
+    old.clear();
   }
 
 
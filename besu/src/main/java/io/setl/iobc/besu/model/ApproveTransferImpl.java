@@ -5,14 +5,11 @@ import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -67,12 +64,11 @@ public class ApproveTransferImpl implements ApproveTransfer {
     log.info("Setting allowance of token {} for {} spent by {}", tokenId, owner, spender);
 
     // Check address exists
-    SetlAddress setlAddress = addressTable.getAddressSafe(owner);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
+    SetlAddress ownerAddress = addressTable.getAddressSafe(owner);
 
     // Get owner's address
-    setlAddress = addressTable.getAddressSafe(spender);
-    String spenderAddress = Web3KeyConversion.convert(setlAddress).getAddress();
+    SetlAddress setlAddress = addressTable.getAddressSafe(spender);
+    String spenderAddress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the token details
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
@@ -82,8 +78,7 @@ public class ApproveTransferImpl implements ApproveTransfer {
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(credentials);
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    IERC20 bnyToken = besu.getContract(ownerAddress, IERC20.class, spec.getContract(), IERC20::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.approve(spenderAddress, amount);
     TransactionReceipt receipt;
     try {
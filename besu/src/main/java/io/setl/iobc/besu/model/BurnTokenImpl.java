@@ -5,14 +5,11 @@ import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -66,7 +63,7 @@ public class BurnTokenImpl implements BurnToken {
 
     // Check address exists
     SetlAddress setlAddress = addressTable.getAddressSafe(fromAddress);
-    String fromBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String fromBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the token specification
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
@@ -75,18 +72,16 @@ public class BurnTokenImpl implements BurnToken {
 
     // Get token owner's address
     setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(ownerCredentials);
     RemoteFunctionCall<TransactionReceipt> call;
     if (input.getFromLocked() == null || !input.getFromLocked()) {
-      IMintable bnyToken = IMintable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      IMintable bnyToken = besu.getContract(setlAddress, IMintable.class, spec.getContract(), IMintable::load);
       call = bnyToken.burn(fromBesuAdress, amount);
     } else {
-      ILockableMintable bnyToken = ILockableMintable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      ILockableMintable bnyToken = besu.getContract(setlAddress, ILockableMintable.class, spec.getContract(), ILockableMintable::load);
       call = bnyToken.burn(fromBesuAdress, amount, true);
     }
     TransactionReceipt receipt;
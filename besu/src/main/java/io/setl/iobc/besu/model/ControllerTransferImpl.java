@@ -5,14 +5,11 @@ import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -65,10 +62,10 @@ public class ControllerTransferImpl implements ControllerTransfer {
 
     // Check addresses exists
     SetlAddress setlAddress = addressTable.getAddressSafe(fromAddress);
-    String fromBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String fromBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     setlAddress = addressTable.getAddressSafe(toAddress);
-    String toBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String toBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the token specification
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
@@ -77,18 +74,16 @@ public class ControllerTransferImpl implements ControllerTransfer {
 
     // Get token owner's address
     setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(ownerCredentials);
     RemoteFunctionCall<TransactionReceipt> call;
     if (input.isLockAfter() || input.isUnlockBefore()) {
-      ILockable bnyToken = ILockable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      ILockable bnyToken = besu.getContract(setlAddress, ILockable.class, spec.getContract(), ILockable::load);
       call = bnyToken.controllerTransfer(fromBesuAdress, input.isUnlockBefore(), toBesuAdress, input.isLockAfter(), amount);
     } else {
-      ITokenExtensions bnyToken = ITokenExtensions.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      ITokenExtensions bnyToken = besu.getContract(setlAddress, ITokenExtensions.class, spec.getContract(), ITokenExtensions::load);
       call = bnyToken.controllerTransfer(fromBesuAdress, toBesuAdress, amount);
     }
 
@@ -9,7 +9,6 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.RemoteCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -19,7 +18,6 @@ import org.web3j.tx.TransactionManager;
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.ContractCreatedHandler;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -73,7 +71,6 @@ public class CreateTokenImpl implements CreateToken {
 
     // Check controller exists
     SetlAddress controller = addressTable.getAddressSafe(input.getController());
-    Credentials credentials = Web3KeyConversion.convert(controller);
 
     // Check the token does not already exist
     TokenSpecification spec = tokenTable.getTokenSpecification(tokenId);
@@ -89,7 +86,7 @@ public class CreateTokenImpl implements CreateToken {
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Deploy the smart contract for the token
-    TransactionManager manager = besu.getManager(credentials);
+    TransactionManager manager = besu.getManager(controller);
     RemoteCall<? extends Contract> call = getContract(besu.getWeb3j(), manager, input);
     Contract bnyToken;
     try {
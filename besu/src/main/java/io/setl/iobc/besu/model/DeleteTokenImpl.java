@@ -6,15 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
 import io.setl.iobc.config.ChainConfiguration;
@@ -68,13 +64,11 @@ public class DeleteTokenImpl implements TerminateToken {
 
     // Get token owner's address
     SetlAddress setlAddress = addressUtility.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(ownerCredentials);
-    ITokenExtensions bnyToken = ITokenExtensions.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ITokenExtensions bnyToken = besu.getContract(setlAddress, ITokenExtensions.class, spec.getContract(), ITokenExtensions::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.deleteToken();
     TransactionReceipt receipt;
     try {
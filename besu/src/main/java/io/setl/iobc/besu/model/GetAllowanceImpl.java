@@ -6,12 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.RemoteFunctionCall;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
+import io.setl.iobc.besu.CallBatcher;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.config.ChainConfiguration;
@@ -21,7 +21,6 @@ import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.model.tokens.GetAllowance;
 import io.setl.iobc.table.AddressTable;
 import io.setl.iobc.table.TokenTable;
-import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.web3j.IERC20;
 
 /**
@@ -60,26 +59,28 @@ public class GetAllowanceImpl implements GetAllowance {
 
     // Check address exists
     SetlAddress setlAddress = addressTable.getAddressSafe(owner);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
+    String ownerAddress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get owner's address
     setlAddress = addressTable.getAddressSafe(spender);
-    String spenderAddress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String spenderAddress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the token specification
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
     TokenSpecification.check(tokenId, token);
     BesuTokenData spec = new BesuTokenData(token.getChainData());
 
-    // Call the contract
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), credentials, FreeGasProvider.INSTANCE);
-    RemoteFunctionCall<BigInteger> call = bnyToken.allowance(credentials.getAddress(), spenderAddress);
-    try {
-      return CompletableFuture.completedFuture(Output.builder().amount(call.send()).build());
-    } catch (Exception e) {
-      log.error("Failed to fetch allowance of {} for {}", tokenId, spender, e);
-      throw ExceptionTranslator.convert(e);
-    }
+    // Call the contract, which may be batched with other calls
+    CallBatcher batcher = besu.getCallBatcher();
+    IERC20 bnyToken = batcher.getReader(IERC20.class, spec.getContract(), IERC20::load);
+    RemoteFunctionCall<BigInteger> call = bnyToken.allowance(ownerAddress, spenderAddress);
+    return batcher.callForValue(ownerAddress, spec.getContract(), call, DefaultBlockParameterName.LATEST)
+        .whenComplete((amount, e) -> {
+          if (e != null) {
+            log.error("Failed to fetch allowance of {} for {}", tokenId, spender, e);
+          }
+        })
+        .thenApply(amount -> Output.builder().amount(amount).build());
   }
 
 
@@ -6,13 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
-import org.web3j.protocol.core.DefaultBlockParameterNumber;
 import org.web3j.protocol.core.RemoteFunctionCall;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
+import io.setl.iobc.besu.CallBatcher;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.config.ChainConfiguration;
@@ -22,7 +20,6 @@ import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.model.tokens.GetBalance;
 import io.setl.iobc.table.AddressTable;
 import io.setl.iobc.table.TokenTable;
-import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.web3j.IERC20;
 
 /**
@@ -60,29 +57,24 @@ public class GetBalanceImpl implements GetBalance {
 
     // Check address exists
     SetlAddress setlAddress = addressTable.getAddressSafe(address);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
+    String besuAddress = Web3KeyConversion.getAddress(setlAddress);
 
     // Check the token does not already exist
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
     TokenSpecification.check(tokenId, token);
     BesuTokenData spec = new BesuTokenData(token.getChainData());
 
-    // Load the contract API
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), credentials, FreeGasProvider.INSTANCE);
-
-    // Are we using a specific block?
-    if (input.getBlock() != -1) {
-      bnyToken.setDefaultBlockParameter(new DefaultBlockParameterNumber(input.getBlock()));
-    }
-
-    // Create the call to Ethereum
-    RemoteFunctionCall<BigInteger> call = bnyToken.balanceOf(credentials.getAddress());
-    try {
-      return CompletableFuture.completedFuture(Output.builder().amount(call.send()).build());
-    } catch (Exception e) {
-      log.error("Failed to fetch balance of {} for {}", tokenId, address, e);
-      throw ExceptionTranslator.convert(e);
-    }
+    // Create the call to Ethereum, which may be batched with others
+    CallBatcher batcher = besu.getCallBatcher();
+    IERC20 bnyToken = batcher.getReader(IERC20.class, spec.getContract(), IERC20::load);
+    RemoteFunctionCall<BigInteger> call = bnyToken.balanceOf(besuAddress);
+    return batcher.callForValue(besuAddress, spec.getContract(), call, CallBatcher.toBlockParameter(input.getBlock()))
+        .whenComplete((amount, e) -> {
+          if (e != null) {
+            log.error("Failed to fetch balance of {} for {}", tokenId, address, e);
+          }
+        })
+        .thenApply(amount -> Output.builder().amount(amount).build());
   }
 
 
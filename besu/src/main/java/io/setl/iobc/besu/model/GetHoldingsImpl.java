@@ -8,15 +8,13 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
-import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.abi.datatypes.Type;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.tuples.generated.Tuple4;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
+import io.setl.iobc.besu.CallBatcher;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.config.ChainConfiguration;
@@ -26,7 +24,6 @@ import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.model.tokens.GetHoldings;
 import io.setl.iobc.table.AddressTable;
 import io.setl.iobc.table.TokenTable;
-import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.web3j.ITokenExtensions;
 import io.setl.iobc.web3j.ITokenExtensions.Balance;
 
@@ -73,39 +70,40 @@ public class GetHoldingsImpl implements GetHoldings {
 
     // Get token owner's address
     SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
+    String ownerAddress = Web3KeyConversion.getAddress(setlAddress);
 
-    // Load the contract
-    TransactionManager manager = besu.getManager(ownerCredentials);
-    ITokenExtensions bnyToken = ITokenExtensions.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    // Call the contract, which may be batched with other calls
+    CallBatcher batcher = besu.getCallBatcher();
+    ITokenExtensions bnyToken = batcher.getReader(ITokenExtensions.class, spec.getContract(), ITokenExtensions::load);
+    RemoteFunctionCall<Tuple4<List<Balance>, BigInteger, BigInteger, BigInteger>> call = bnyToken.holdings(BigInteger.valueOf(start), BigInteger.valueOf(end));
+    return batcher.call(ownerAddress, spec.getContract(), call, CallBatcher.toBlockParameter(blockNumber))
+        .whenComplete((results, e) -> {
+          if (e != null) {
+            log.error("Failed to invoke holdings on smart contract {} for token {}", spec.getContract(), tokenId, e);
+          }
+        })
+        .thenApply(results -> toOutput(besu, token, results));
+  }
 
-    // Are we using a specific block?
-    if (input.getBlock() != -1) {
-      bnyToken.setDefaultBlockParameter(new DefaultBlockParameterNumber(input.getBlock()));
-    }
 
-    // Call the contract
-    RemoteFunctionCall<Tuple4<List<Balance>, BigInteger, BigInteger, BigInteger>> call = bnyToken.holdings(BigInteger.valueOf(start), BigInteger.valueOf(end));
-    Tuple4<List<Balance>, BigInteger, BigInteger, BigInteger> tuple;
-    try {
-      tuple = call.send();
-    } catch (Exception e) {
-      // Failed to send transfer request
-      log.error("Failed to invoke holdings on smart contract {} for token {}",
-          spec.getContract(), tokenId
-      );
-      throw ExceptionTranslator.convert(e);
-    }
+  @Override
+  public ChainBrand getBrandSupported() {
+    return ChainBrand.BESU;
+  }
 
+
+  @SuppressWarnings("unchecked")
+  private Output toOutput(BesuChainConfiguration besu, TokenSpecification token, List<Type> results) {
+    // The results are the holdings, followed by the start, end and size.
     Output.OutputBuilder builder = Output.builder()
         .controller(token.getController())
-        .start(tuple.component2().intValue())
-        .end(tuple.component3().intValue())
-        .size(tuple.component4().intValue());
+        .start(((BigInteger) results.get(1).getValue()).intValue())
+        .end(((BigInteger) results.get(2).getValue()).intValue())
+        .size(((BigInteger) results.get(3).getValue()).intValue());
 
     String dvpId = besu.getDvpManager().getId();
 
-    List<Balance> balances = tuple.component1();
+    List<Balance> balances = (List<Balance>) results.get(0).getValue();
     ArrayList<Holding> holdings = new ArrayList<>(balances.size());
     for (Balance balance : balances) {
       String address = addressTable.lookupAddress(balance._account);
@@ -123,14 +121,7 @@ public class GetHoldingsImpl implements GetHoldings {
     }
     builder.holdings(holdings);
 
-    return CompletableFuture.completedFuture(builder.build());
-  }
-
-
-  @Override
-  public ChainBrand getBrandSupported() {
-    return ChainBrand.BESU;
+    return builder.build();
   }
 
-
 }
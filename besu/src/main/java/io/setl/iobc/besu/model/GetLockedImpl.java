@@ -6,12 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.RemoteFunctionCall;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
+import io.setl.iobc.besu.CallBatcher;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.config.ChainConfiguration;
@@ -21,7 +21,6 @@ import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.model.tokens.GetLocked;
 import io.setl.iobc.table.AddressTable;
 import io.setl.iobc.table.TokenTable;
-import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.web3j.ILockable;
 
 /**
@@ -59,22 +58,24 @@ public class GetLockedImpl implements GetLocked {
 
     // Check address exists
     SetlAddress setlAddress = addressTable.getAddressSafe(address);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
+    String besuAddress = Web3KeyConversion.getAddress(setlAddress);
 
     // Check the token does exist
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
     TokenSpecification.check(tokenId, token);
     BesuTokenData spec = new BesuTokenData(token.getChainData());
 
-    // Call the contract
-    ILockable bnyToken = ILockable.load(spec.getContract(), besu.getWeb3j(), credentials, FreeGasProvider.INSTANCE);
-    RemoteFunctionCall<BigInteger> call = bnyToken.locked(credentials.getAddress());
-    try {
-      return CompletableFuture.completedFuture(Output.builder().amount(call.send()).build());
-    } catch (Exception e) {
-      log.error("Failed to fetch balance of {} for {}", tokenId, address, e);
-      throw ExceptionTranslator.convert(e);
-    }
+    // Call the contract, which may be batched with other calls
+    CallBatcher batcher = besu.getCallBatcher();
+    ILockable bnyToken = batcher.getReader(ILockable.class, spec.getContract(), ILockable::load);
+    RemoteFunctionCall<BigInteger> call = bnyToken.locked(besuAddress);
+    return batcher.callForValue(besuAddress, spec.getContract(), call, DefaultBlockParameterName.LATEST)
+        .whenComplete((amount, e) -> {
+          if (e != null) {
+            log.error("Failed to fetch balance of {} for {}", tokenId, address, e);
+          }
+        })
+        .thenApply(amount -> Output.builder().amount(amount).build());
   }
 
 
@@ -6,13 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
-import org.web3j.protocol.core.DefaultBlockParameterNumber;
 import org.web3j.protocol.core.RemoteFunctionCall;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
+import io.setl.iobc.besu.CallBatcher;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.config.ChainConfiguration;
@@ -22,7 +20,6 @@ import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.model.tokens.GetTotalSupply;
 import io.setl.iobc.table.AddressTable;
 import io.setl.iobc.table.TokenTable;
-import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.web3j.IERC20;
 
 /**
@@ -63,24 +60,19 @@ public class GetTotalSupplyImpl implements GetTotalSupply {
     BesuTokenData spec = new BesuTokenData(token.getChainData());
 
     SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
+    String controllerAddress = Web3KeyConversion.getAddress(setlAddress);
 
-    // Load the contract API
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), credentials, FreeGasProvider.INSTANCE);
-
-    // Are we using a specific block?
-    if (input.getBlock() != -1) {
-      bnyToken.setDefaultBlockParameter(new DefaultBlockParameterNumber(input.getBlock()));
-    }
-
-    // Create the call to Ethereum
+    // Create the call to Ethereum, which may be batched with others
+    CallBatcher batcher = besu.getCallBatcher();
+    IERC20 bnyToken = batcher.getReader(IERC20.class, spec.getContract(), IERC20::load);
     RemoteFunctionCall<BigInteger> call = bnyToken.totalSupply();
-    try {
-      return CompletableFuture.completedFuture(Output.builder().amount(call.send()).build());
-    } catch (Exception e) {
-      log.error("Failed to fetch total supply of {}", tokenId, e);
-      throw ExceptionTranslator.convert(e);
-    }
+    return batcher.callForValue(controllerAddress, spec.getContract(), call, CallBatcher.toBlockParameter(input.getBlock()))
+        .whenComplete((amount, e) -> {
+          if (e != null) {
+            log.error("Failed to fetch total supply of {}", tokenId, e);
+          }
+        })
+        .thenApply(amount -> Output.builder().amount(amount).build());
   }
 
 
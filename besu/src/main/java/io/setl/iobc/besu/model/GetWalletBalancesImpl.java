@@ -0,0 +1,157 @@
+package io.setl.iobc.besu.model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Response;
+
+import io.setl.common.ParameterisedException;
+import io.setl.iobc.besu.BesuChainConfiguration;
+import io.setl.iobc.besu.CallBatcher;
+import io.setl.iobc.besu.Web3KeyConversion;
+import io.setl.iobc.besu.tx.BesuTokenData;
+import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.TokenSpecification;
+import io.setl.iobc.model.address.SetlAddress;
+import io.setl.iobc.model.tokens.GetWalletBalances;
+import io.setl.iobc.table.AddressTable;
+import io.setl.iobc.table.TokenTable;
+import io.setl.iobc.web3j.IERC20;
+import io.setl.iobc.web3j.ILockable;
+import io.setl.json.CJObject;
+
+/**
+ * Get the balances of every address in a wallet. All the calls are made against the same block, so the balances are consistent with each other, and they are
+ * sent together in batches.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service
+@Slf4j
+public class GetWalletBalancesImpl implements GetWalletBalances {
+
+  private final AddressTable addressTable;
+
+  private final TokenTable tokenTable;
+
+
+  /** New instance. */
+  @Autowired
+  public GetWalletBalancesImpl(
+      AddressTable addressTable,
+      TokenTable tokenTable
+  ) {
+    this.addressTable = addressTable;
+    this.tokenTable = tokenTable;
+  }
+
+
+  @Override
+  public CompletableFuture<Output> apply(ChainConfiguration configuration, Input input) throws ParameterisedException {
+    BesuChainConfiguration besu = (BesuChainConfiguration) configuration;
+
+    String tokenId = input.getSymbol();
+    int walletId = input.getWalletId();
+    log.info("Checking balances of token {} for wallet {}", tokenId, walletId);
+
+    // Check the token does exist
+    TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
+    TokenSpecification.check(tokenId, token);
+    BesuTokenData spec = new BesuTokenData(token.getChainData());
+
+    // Only the wallet's addresses on this chain can hold the token
+    Map<String, SetlAddress> addresses = addressTable.getAllAddresses(walletId);
+    Map<String, String> besuAddresses = new TreeMap<>();
+    if (addresses != null) {
+      addresses.forEach((a, s) -> {
+        if (besu.getIobcId().equals(s.getChainId())) {
+          besuAddresses.put(a, Web3KeyConversion.getAddress(s));
+        }
+      });
+    }
+
+    return getBlock(besu, input.getBlock())
+        .thenCompose(block -> getBalances(besu, spec.getContract(), block, besuAddresses)
+            .thenApply(balances -> Output.builder().balances(balances).block(block).walletId(walletId).build())
+        )
+        .whenComplete((output, e) -> {
+          if (e != null) {
+            log.error("Failed to fetch balances of {} for wallet {}", tokenId, walletId, e);
+          }
+        });
+  }
+
+
+  private CompletableFuture<Map<String, Balance>> getBalances(BesuChainConfiguration besu, String contract, long block, Map<String, String> besuAddresses) {
+    CallBatcher batcher = besu.getCallBatcher();
+    IERC20 erc20 = batcher.getReader(IERC20.class, contract, IERC20::load);
+    ILockable lockable = batcher.getReader(ILockable.class, contract, ILockable::load);
+    DefaultBlockParameter blockParameter = new DefaultBlockParameterNumber(block);
+
+    // Queue every call before waiting for any, so they are sent in as few batches as possible.
+    List<String> names = new ArrayList<>(besuAddresses.size());
+    List<CompletableFuture<BigInteger>> balances = new ArrayList<>(besuAddresses.size());
+    List<CompletableFuture<BigInteger>> locks = new ArrayList<>(besuAddresses.size());
+    besuAddresses.forEach((name, address) -> {
+      names.add(name);
+      balances.add(batcher.callForValue(address, contract, erc20.balanceOf(address), blockParameter));
+      locks.add(batcher.callForValue(address, contract, lockable.locked(address), blockParameter));
+    });
+
+    List<CompletableFuture<BigInteger>> all = new ArrayList<>(balances);
+    all.addAll(locks);
+    return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+      TreeMap<String, Balance> map = new TreeMap<>();
+      for (int i = 0; i < names.size(); i++) {
+        map.put(names.get(i), Balance.builder().balance(balances.get(i).join()).locked(locks.get(i).join()).build());
+      }
+      return map;
+    });
+  }
+
+
+  /**
+   * Get the block to query. If no block was requested, the latest block is fixed by its number, so every call sees the same state even if a new block arrives
+   * while they are being made.
+   *
+   * @param besu  the chain
+   * @param block the requested block, or -1 for the latest
+   *
+   * @return the block number
+   */
+  private CompletableFuture<Long> getBlock(BesuChainConfiguration besu, long block) {
+    if (block != -1) {
+      return CompletableFuture.completedFuture(block);
+    }
+    return besu.getWeb3j().ethBlockNumber().sendAsync().thenApply(response -> {
+      if (response.hasError()) {
+        Response.Error error = response.getError();
+        CJObject cjObject = new CJObject();
+        cjObject.put("operation", "ethBlockNumber");
+        cjObject.put("code", error.getCode());
+        cjObject.put("message", error.getMessage());
+        cjObject.put("data", error.getData());
+        throw new CompletionException(new ParameterisedException("Web3J JSON-RPC failure: " + error.getMessage(), "iobc:besu-web3j-rpc", cjObject));
+      }
+      return response.getBlockNumber().longValue();
+    });
+  }
+
+
+  @Override
+  public ChainBrand getBrandSupported() {
+    return ChainBrand.BESU;
+  }
+
+}
@@ -9,11 +9,9 @@ import org.springframework.stereotype.Service;
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -75,13 +73,11 @@ public class LockTokenImpl implements LockToken {
 
     // Get token owner's address
     setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(ownerCredentials);
-    ILockable bnyToken = ILockable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ILockable bnyToken = besu.getContract(setlAddress, ILockable.class, spec.getContract(), ILockable::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.lock(besuAdress, amount);
     TransactionReceipt receipt;
     try {
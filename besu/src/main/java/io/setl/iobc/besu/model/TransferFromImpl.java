@@ -6,14 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -67,14 +64,13 @@ public class TransferFromImpl implements TransferFrom {
 
     // Check addresses exists
     SetlAddress setlAddress = addressTable.getAddressSafe(fromAddress);
-    String fromBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String fromBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     setlAddress = addressTable.getAddressSafe(toAddress);
-    String toBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String toBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the acting address
     setlAddress = addressTable.getAddressSafe(address);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
 
     // Get the token specification
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
@@ -84,8 +80,7 @@ public class TransferFromImpl implements TransferFrom {
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(credentials);
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    IERC20 bnyToken = besu.getContract(setlAddress, IERC20.class, spec.getContract(), IERC20::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.transferFrom(fromBesuAdress, toBesuAdress, amount);
     TransactionReceipt receipt;
     try {
@@ -6,14 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -65,11 +62,10 @@ public class TransferTokenImpl implements TransferToken {
     log.info("Transfer {} of token \"{}\" from \"{}\" to \"{}\"", amount, tokenId, fromAddress, toAddress);
 
     // Check addresses exists
-    SetlAddress setlAddress = addressTable.getAddressSafe(fromAddress);
-    Credentials fromCredentials = Web3KeyConversion.convert(setlAddress);
+    SetlAddress fromSetlAddress = addressTable.getAddressSafe(fromAddress);
 
-    setlAddress = addressTable.getAddressSafe(toAddress);
-    String toBesuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    SetlAddress setlAddress = addressTable.getAddressSafe(toAddress);
+    String toBesuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     // Get the token specification
     TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
@@ -79,8 +75,7 @@ public class TransferTokenImpl implements TransferToken {
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
 
     // Call the contract
-    TransactionManager manager = besu.getManager(fromCredentials);
-    IERC20 bnyToken = IERC20.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    IERC20 bnyToken = besu.getContract(fromSetlAddress, IERC20.class, spec.getContract(), IERC20::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.transfer(toBesuAdress, amount);
     TransactionReceipt receipt;
     try {
@@ -6,16 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
 import io.setl.iobc.config.ChainConfiguration;
@@ -72,16 +68,12 @@ public class DvpCancelImpl implements DvpCancel {
       TokenSpecification.check(tokenId, token);
       BesuTokenData spec = new BesuTokenData(token.getChainData());
       SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-      Credentials credentials = Web3KeyConversion.convert(setlAddress);
-      TransactionManager manager = besu.getManager(credentials);
-      ITokenExtensions contract = ITokenExtensions.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      ITokenExtensions contract = besu.getContract(setlAddress, ITokenExtensions.class, spec.getContract(), ITokenExtensions::load);
       call = contract.controllerDVPCancel(dvpContract, dvpId);
     } else if (input.getAddress() != null) {
       // Regular cancel
       SetlAddress setlAddress = addressTable.getAddressSafe(input.getAddress());
-      Credentials credentials = Web3KeyConversion.convert(setlAddress);
-      TransactionManager manager = besu.getManager(credentials);
-      DVP dvpInstance = DVP.load(dvpContract, besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+      DVP dvpInstance = besu.getContract(setlAddress, DVP.class, dvpContract, DVP::load);
       call = dvpInstance.cancel(dvpId);
     } else {
       // Bad input
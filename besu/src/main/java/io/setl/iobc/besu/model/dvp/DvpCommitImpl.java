@@ -6,16 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
 import io.setl.iobc.config.ChainConfiguration;
 import io.setl.iobc.model.ChainBrand;
@@ -58,12 +54,10 @@ public class DvpCommitImpl implements DvpCommit {
 
     // Get user's address
     SetlAddress setlAddress = addressTable.getAddressSafe(input.getAddress());
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
-    TransactionManager manager = besu.getManager(credentials);
 
     // Find out the details of the trade party
     DVP.Party dvpParty;
-    DVP dvp = DVP.load(dvpContract, besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    DVP dvp = besu.getContract(setlAddress, DVP.class, dvpContract, DVP::load);
     RemoteFunctionCall<DVP.Party> getPartyCall = dvp.party(dvpId);
     try {
       dvpParty = getPartyCall.send();
@@ -74,7 +68,7 @@ public class DvpCommitImpl implements DvpCommit {
     }
 
     // Load the token contract
-    ITokenExtensions bnyToken = ITokenExtensions.load(dvpParty.token, besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ITokenExtensions bnyToken = besu.getContract(setlAddress, ITokenExtensions.class, dvpParty.token, ITokenExtensions::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.dvpCommit(dvpContract, dvpId);
 
     BigInteger recentBlock = GetBlockNumberImpl.getRecentBlock(besu.getWeb3j(), input.getTxProcessingMode());
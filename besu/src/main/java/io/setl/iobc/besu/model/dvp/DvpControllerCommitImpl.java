@@ -6,16 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
 import io.setl.iobc.config.ChainConfiguration;
@@ -71,11 +67,9 @@ public class DvpControllerCommitImpl implements DvpControllerCommit {
 
     // Get token owner's address
     SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     // Call the contract. Note: This assumes the contract supports ISetlLockable.
-    TransactionManager manager = besu.getManager(ownerCredentials);
-    ILockable bnyToken = ILockable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ILockable bnyToken = besu.getContract(setlAddress, ILockable.class, spec.getContract(), ILockable::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.controllerDVPCommit(
         dvpContract, dvpId, input.isFromLocked()
     );
@@ -6,15 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -76,11 +73,9 @@ public class DvpControllerCreateImpl implements DvpControllerCreate {
 
     // Get token owner's address
     SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-    Credentials ownerCredentials = Web3KeyConversion.convert(setlAddress);
 
     // Call the contract. Note: This assumes the contract supports ISetlLockable.
-    TransactionManager manager = besu.getManager(ownerCredentials);
-    ILockable bnyToken = ILockable.load(spec.getContract(), besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ILockable bnyToken = besu.getContract(setlAddress, ILockable.class, spec.getContract(), ILockable::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.controllerDVPCreate(
         dvpContract, dvpId,
         localDvpParty, remoteDvpParty,
@@ -112,7 +107,7 @@ public class DvpControllerCreateImpl implements DvpControllerCreate {
     String tokenContract = spec.getContract();
 
     SetlAddress setlAddress = addressTable.getAddressSafe(party.getAddress());
-    String besuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String besuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     return new ILockable.Party(besuAdress, party.getAddress(), tokenContract, party.getAmount());
   }
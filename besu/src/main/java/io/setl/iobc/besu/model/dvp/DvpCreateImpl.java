@@ -6,15 +6,12 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
 import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.besu.tx.BesuTokenData;
 import io.setl.iobc.besu.tx.GetBlockNumberImpl;
@@ -72,11 +69,9 @@ public class DvpCreateImpl implements DvpCreate {
 
     // Get user's address
     SetlAddress setlAddress = addressTable.getAddressSafe(address);
-    Credentials credentials = Web3KeyConversion.convert(setlAddress);
 
     // Call the contract. Note: This assumes the contract supports ISetlLockable.
-    TransactionManager manager = besu.getManager(credentials);
-    ITokenExtensions bnyToken = ITokenExtensions.load(myDvpParty.token, besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    ITokenExtensions bnyToken = besu.getContract(setlAddress, ITokenExtensions.class, myDvpParty.token, ITokenExtensions::load);
     RemoteFunctionCall<TransactionReceipt> call = bnyToken.dvpCreate(
         dvpContract, dvpId,
         myDvpParty, otherDvpParty,
@@ -106,7 +101,7 @@ public class DvpCreateImpl implements DvpCreate {
     String tokenContract = spec.getContract();
 
     SetlAddress setlAddress = addressTable.getAddressSafe(party.getAddress());
-    String besuAdress = Web3KeyConversion.convert(setlAddress).getAddress();
+    String besuAdress = Web3KeyConversion.getAddress(setlAddress);
 
     return new ITokenExtensions.Party(besuAdress, party.getAddress(), tokenContract, party.getAmount());
   }
@@ -6,15 +6,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.core.RemoteFunctionCall;
-import org.web3j.tx.TransactionManager;
 
 import io.setl.common.ParameterisedException;
 import io.setl.iobc.besu.BesuChainConfiguration;
 import io.setl.iobc.besu.DvpManager;
-import io.setl.iobc.besu.FreeGasProvider;
-import io.setl.iobc.besu.Web3KeyConversion;
 import io.setl.iobc.config.ChainConfiguration;
 import io.setl.iobc.model.ChainBrand;
 import io.setl.iobc.model.TokenSpecification;
@@ -65,23 +61,20 @@ public class GetDvpTradeImpl implements GetDvpTrade {
 
     log.info("Fetching details of DVP trade {}", input.getDvpId());
 
-    Credentials credentials;
+    SetlAddress setlAddress;
     if (input.getSymbol() != null) {
       String tokenId = input.getSymbol();
       TokenSpecification token = tokenTable.getTokenSpecification(tokenId);
       TokenSpecification.check(tokenId, token);
-      SetlAddress setlAddress = addressTable.getAddressSafe(token.getController());
-      credentials = Web3KeyConversion.convert(setlAddress);
+      setlAddress = addressTable.getAddressSafe(token.getController());
     } else if (input.getAddress() != null) {
-      SetlAddress setlAddress = addressTable.getAddressSafe(input.getAddress());
-      credentials = Web3KeyConversion.convert(setlAddress);
+      setlAddress = addressTable.getAddressSafe(input.getAddress());
     } else {
       throw new IllegalArgumentException("Input must specify token or address");
     }
 
     // Call the contract.
-    TransactionManager manager = besu.getManager(credentials);
-    DVP dvp = DVP.load(dvpContract, besu.getWeb3j(), manager, FreeGasProvider.INSTANCE);
+    DVP dvp = besu.getContract(setlAddress, DVP.class, dvpContract, DVP::load);
 
     // Workaround for https://github.com/web3j/web3j/issues/1503
     RemoteFunctionCall<DVP.TradeDetailsWorkaround> call = dvp.getTradeWorkaround(dvpId);
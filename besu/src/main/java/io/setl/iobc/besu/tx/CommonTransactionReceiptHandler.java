@@ -2,10 +2,13 @@ package io.setl.iobc.besu.tx;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -18,13 +21,15 @@ import org.web3j.abi.datatypes.Type;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
 import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
 import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.tx.response.EmptyTransactionReceipt;
 import org.web3j.tx.response.TransactionReceiptProcessor;
 
-import io.setl.common.MutableInt;
 
 /**
  * Transaction handler that invokes a callback when the transaction receipt becomes available.
@@ -40,6 +45,9 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
   /** The prefix used to mark panic reasons in Besu. This is first 32 bits of the Keccak-256 of "Panic(uint256)". */
   private static final String REVERT_PANIC_METHOD_ID = "0x4e487b71";
 
+  /** Maximum number of receipts requested in one JSON-RPC batch. */
+  private static final int BATCH_SIZE = 200;
+
   private static final List<TypeReference<Type>> REVERT_PANIC_TYPES;
 
   private static final List<TypeReference<Type>> REVERT_REASON_TYPES;
@@ -149,11 +157,18 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
 
   private final Map<String, Consumer<TransactionReceipt>> callbacks = new ConcurrentHashMap<>();
 
+  /** Transactions registered since the last look up. */
+  private final Set<String> fresh = ConcurrentHashMap.newKeySet();
+
   private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
   private final Object lock = new Object();
 
-  private final Map<String, MutableInt> pending = new ConcurrentHashMap<>();
+  /** Transactions awaiting a receipt. */
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+  /** Listeners which are told of every receipt received. */
+  private final List<Consumer<TransactionReceipt>> receiptListeners = new CopyOnWriteArrayList<>();
 
   private final ExecutorService service;
 
@@ -161,6 +176,9 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
 
   private final Web3j web3j;
 
+  /** The highest block seen by a scan. */
+  private BigInteger lastBlock = BigInteger.valueOf(-1);
+
 
   /**
    * New instance.
@@ -172,6 +190,71 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
   }
 
 
+  /**
+   * Add a listener which is told of every receipt as it is received, whether or not a callback is registered for it.
+   *
+   * @param listener the listener
+   */
+  public void addReceiptListener(Consumer<TransactionReceipt> listener) {
+    receiptListeners.add(listener);
+  }
+
+
+  /**
+   * Look up a batch of transaction receipts, and handle those which are available.
+   *
+   * @param hashes the transaction hashes
+   */
+  private void lookUp(List<String> hashes) {
+    BatchRequest batch = web3j.newBatch();
+    for (String txHash : hashes) {
+      batch.add(web3j.ethGetTransactionReceipt(txHash));
+    }
+
+    BatchResponse batchResponse;
+    try {
+      batchResponse = batch.send();
+    } catch (IOException exception) {
+      log.error("Failed to fetch {} transaction receipts", hashes.size(), exception);
+      return;
+    }
+
+    for (Response<?> response : batchResponse.getResponses()) {
+      // Check the JSON-RPC call was OK
+      if (response.hasError()) {
+        Response.Error error = response.getError();
+        log.error("Remote server reports JSON-RPC error code {}:\nMessage: {}\nData: {}",
+            error.getCode(), error.getMessage(), error.getData()
+        );
+        continue;
+      }
+
+      // Did we get a receipt? If not, it will be looked up again when the next block arrives.
+      Optional<? extends TransactionReceipt> optionalReceipt = ((EthGetTransactionReceipt) response).getTransactionReceipt();
+      optionalReceipt.ifPresent(this::received);
+    }
+  }
+
+
+  private void received(TransactionReceipt receipt) {
+    String txHash = receipt.getTransactionHash();
+    log.info("Received transaction receipt for transaction {}", txHash);
+
+    // we have a receipt so invoke callback
+    pending.remove(txHash);
+    decodeRevertReason(receipt);
+    receiptListeners.forEach(l -> l.accept(receipt));
+    synchronized (lock) {
+      Consumer<TransactionReceipt> callback = callbacks.remove(txHash);
+      if (callback != null) {
+        service.submit(() -> callback.accept(receipt));
+      } else {
+        unclaimed.put(txHash, receipt);
+      }
+    }
+  }
+
+
   /**
    * Register a callback to handle the receipt of a transaction.
    *
@@ -197,55 +280,45 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
 
 
   /**
-   * Scan periodically to check if transactions have completed.
+   * Check for a new block. Receipts only appear when a block is added to the chain, so every pending transaction is looked up when a new block is seen. A
+   * transaction registered since the last look up may have been mined in a block that has already been seen, so such transactions are also looked up once
+   * without waiting for the next block. Look ups are made in JSON-RPC batches.
    */
   public void scan() {
-    if (!isRunning.compareAndSet(false, true)) {
+    if (pending.isEmpty() || !isRunning.compareAndSet(false, true)) {
       return;
     }
     try {
-      for (var e : pending.entrySet()) {
-        String txHash = e.getKey();
-        int count = e.getValue().increment();
-        log.info("Checking transaction {}. Attempt {}", txHash, count);
-
-        EthGetTransactionReceipt transactionReceipt;
-        try {
-          transactionReceipt = web3j.ethGetTransactionReceipt(txHash).send();
-        } catch (IOException exception) {
-          log.error("Failed to fetch transaction details {}", txHash, exception);
-          continue;
-        }
-
-        // Check the JSON-RPC call was OK
-        if (transactionReceipt.hasError()) {
-          Response.Error error = transactionReceipt.getError();
-          log.error("Remote server reports JSON-RPC error code {}:\nMessage: {}\nData: {}",
-              error.getCode(), error.getMessage(), error.getData()
-          );
-          continue;
-        }
+      EthBlockNumber blockNumber;
+      try {
+        blockNumber = web3j.ethBlockNumber().send();
+      } catch (IOException exception) {
+        log.error("Failed to fetch current block number", exception);
+        return;
+      }
+      if (blockNumber.hasError()) {
+        Response.Error error = blockNumber.getError();
+        log.error("Remote server reports JSON-RPC error code {}:\nMessage: {}", error.getCode(), error.getMessage());
+        return;
+      }
 
-        // Did we get a receipt?
-        Optional<? extends TransactionReceipt> optionalReceipt = transactionReceipt.getTransactionReceipt();
-        if (optionalReceipt.isPresent()) {
-          log.info("Received transaction receipt for transaction {}", txHash);
-
-          // we have a receipt so invoke callback
-          pending.remove(txHash);
-          TransactionReceipt receipt = optionalReceipt.get();
-          decodeRevertReason(receipt);
-          synchronized (lock) {
-            Consumer<TransactionReceipt> callback = callbacks.remove(txHash);
-            if (callback != null) {
-              service.submit(() -> callback.accept(receipt));
-            } else {
-              unclaimed.put(txHash, receipt);
-            }
-          }
-        }
+      List<String> toCheck;
+      BigInteger block = blockNumber.getBlockNumber();
+      if (block.compareTo(lastBlock) > 0) {
+        // Clear the fresh set first, so anything registered after this is looked up next time.
+        lastBlock = block;
+        fresh.clear();
+        toCheck = new ArrayList<>(pending);
+      } else if (!fresh.isEmpty()) {
+        toCheck = new ArrayList<>(fresh);
+        fresh.removeAll(toCheck);
+      } else {
+        return;
+      }
 
-        // no receipt, so keep trying
+      log.debug("Checking {} transactions at block {}", toCheck.size(), block);
+      for (int i = 0; i < toCheck.size(); i += BATCH_SIZE) {
+        lookUp(toCheck.subList(i, Math.min(toCheck.size(), i + BATCH_SIZE)));
       }
     } finally {
       isRunning.set(false);
@@ -255,7 +328,8 @@ public class CommonTransactionReceiptHandler extends TransactionReceiptProcessor
 
   @Override
   public TransactionReceipt waitForTransactionReceipt(String transactionHash) {
-    pending.put(transactionHash, new MutableInt(0));
+    pending.add(transactionHash);
+    fresh.add(transactionHash);
     return new MyEmptyReceipt(transactionHash);
   }
 
@@ -0,0 +1,187 @@
+package io.setl.iobc.besu.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response.Error;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.ChainIdLong;
+import org.web3j.tx.RawTransactionManager;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+import org.web3j.utils.Numeric;
+
+/**
+ * A transaction manager which takes the nonces of its address from a local sequencer, so that only the first transaction it sends needs to ask the node for the
+ * transaction count, and concurrent transactions from the address do not race for the same nonce. If the node rejects a transaction, its nonce is returned to
+ * the sequencer. If the rejection was because the nonce had already been used, the sequencer is reset from the node and the transaction is sent once more.
+ *
+ * <p>The manager does not hold the credentials of its address. They are requested from the signer for each transaction and dropped once it is signed, so a
+ * long-lived manager does not keep key material that the credentials cache would otherwise erase.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class LocalNonceTransactionManager extends RawTransactionManager {
+
+  /** Gas limit of a transaction which only fills a nonce. */
+  private static final BigInteger FILLER_GAS_LIMIT = BigInteger.valueOf(21_000);
+
+  /** Rejection messages, in lower case, which indicate the nonce was already used. Besu and Geth report these with differing case. */
+  private static final String[] NONCE_USED = {"nonce too low", "replacement transaction underpriced"};
+
+  /**
+   * The superclass requires credentials, but only uses them to sign, which is overridden here. It is given credentials that hold no key, and the address is
+   * provided by this class.
+   */
+  private static final Credentials NO_KEY = Credentials.create(new ECKeyPair(BigInteger.ZERO, BigInteger.ZERO));
+
+
+  /**
+   * Does an error indicate the transaction's nonce had already been used?
+   *
+   * @param error the error
+   *
+   * @return true if the nonce was already used
+   */
+  static boolean isNonceUsed(Error error) {
+    if (error == null || error.getMessage() == null) {
+      return false;
+    }
+    String message = error.getMessage().toLowerCase(Locale.ROOT);
+    for (String s : NONCE_USED) {
+      if (message.contains(s)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  private final String address;
+
+  private final long chainId;
+
+  private final NonceSequencer sequencer;
+
+  /** Supplier of the credentials which sign the transactions. */
+  private final Supplier<Credentials> signer;
+
+
+  /**
+   * New instance.
+   *
+   * @param web3j            the Web3J connector
+   * @param address          the sending address
+   * @param signer           supplier of the credentials which sign the transactions
+   * @param chainId          the chain's ID
+   * @param receiptProcessor processor for the transaction receipts
+   * @param sequencer        the nonce sequencer for the address
+   */
+  public LocalNonceTransactionManager(
+      Web3j web3j,
+      String address,
+      Supplier<Credentials> signer,
+      long chainId,
+      TransactionReceiptProcessor receiptProcessor,
+      NonceSequencer sequencer
+  ) {
+    super(web3j, NO_KEY, chainId, receiptProcessor);
+    this.address = address;
+    this.signer = signer;
+    this.chainId = chainId;
+    this.sequencer = sequencer;
+  }
+
+
+  @Override
+  public String getFromAddress() {
+    return address;
+  }
+
+
+  public NonceSequencer getSequencer() {
+    return sequencer;
+  }
+
+
+  /**
+   * Reconcile the sequencer with the node, and send a transaction to fill any nonce that was freed and not re-used. A filler is a transfer of nothing to
+   * ourselves. If a filler cannot be sent, the nonces after it are returned to the sequencer.
+   *
+   * @throws IOException if the node could not be contacted
+   */
+  public void reconcile() throws IOException {
+    Iterator<BigInteger> toFill = sequencer.reconcile().iterator();
+    try {
+      while (toFill.hasNext()) {
+        BigInteger nonce = toFill.next();
+        log.info("Filling nonce {} for {}", nonce, getFromAddress());
+        RawTransaction transaction = RawTransaction.createEtherTransaction(nonce, BigInteger.ZERO, FILLER_GAS_LIMIT, getFromAddress(), BigInteger.ZERO);
+        send(nonce, transaction);
+      }
+    } finally {
+      // The nonces not yet tried are still in flight, and would block every later transaction if they were never sent or released.
+      toFill.forEachRemaining(sequencer::released);
+    }
+  }
+
+
+  private EthSendTransaction send(BigInteger nonce, RawTransaction transaction) throws IOException {
+    EthSendTransaction response;
+    try {
+      response = signAndSend(transaction);
+    } catch (IOException | RuntimeException e) {
+      // We cannot tell if the node accepted the transaction, so treat it as pending until the sequencer is reconciled.
+      sequencer.sent(nonce, null);
+      throw e;
+    }
+    if (response.hasError()) {
+      sequencer.released(nonce);
+    } else {
+      sequencer.sent(nonce, response.getTransactionHash());
+    }
+    return response;
+  }
+
+
+  @Override
+  public EthSendTransaction sendTransaction(
+      BigInteger gasPrice, BigInteger gasLimit, String to, String data, BigInteger value, boolean constructor
+  ) throws IOException {
+    BigInteger nonce = sequencer.allocate();
+    EthSendTransaction response = send(nonce, RawTransaction.createTransaction(nonce, gasPrice, gasLimit, to, value, data));
+    if (response.hasError() && isNonceUsed(response.getError())) {
+      log.info("Nonce for {} was out of step with the node: {}. Retrying with the node's nonce.", getFromAddress(), response.getError().getMessage());
+      sequencer.reset();
+      nonce = sequencer.allocate();
+      response = send(nonce, RawTransaction.createTransaction(nonce, gasPrice, gasLimit, to, value, data));
+    }
+    return response;
+  }
+
+
+  @Override
+  public String sign(RawTransaction rawTransaction) {
+    Credentials credentials = signer.get();
+    if (!address.equalsIgnoreCase(credentials.getAddress())) {
+      throw new IllegalStateException("Credentials for " + credentials.getAddress() + " cannot sign for " + address);
+    }
+    byte[] signed;
+    if (chainId > ChainIdLong.NONE) {
+      signed = TransactionEncoder.signMessage(rawTransaction, chainId, credentials);
+    } else {
+      signed = TransactionEncoder.signMessage(rawTransaction, credentials);
+    }
+    return Numeric.toHexString(signed);
+  }
+
+}
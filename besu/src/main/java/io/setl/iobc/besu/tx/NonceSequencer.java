@@ -0,0 +1,247 @@
+package io.setl.iobc.besu.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+/**
+ * Allocator of the nonces for one sending address. Nonces are handed out in increasing order without asking the node, so many transactions from one address can
+ * be pending at once.
+ *
+ * <p>A nonce is "in flight" from when it is allocated until its transaction is sent, and is then "pending" until its receipt is seen. If the node rejects a
+ * transaction, its nonce is freed and given to the next transaction, so that no gap is left to block the later transactions. Transactions which the node
+ * accepted may still be dropped from its pool. These are found by comparing the node's pending transaction count with the nonces allocated here, and the nonce
+ * is freed in the same way. A freed nonce which is not quickly re-used has to be filled with a transaction of its own.</p>
+ *
+ * <p>The first nonce is taken from the node's pending transaction count, so the allocator picks up where it left off after a restart.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class NonceSequencer {
+
+  private final String address;
+
+  /** Nonces by transaction hash, for the pending transactions whose hash is known. */
+  private final Map<String, BigInteger> byHash = new HashMap<>();
+
+  /** Nonces below "next" which were freed and must be re-used. */
+  private final TreeSet<BigInteger> free = new TreeSet<>();
+
+  /** Nonces which have been allocated, but whose transactions have not been sent. */
+  private final Set<BigInteger> inFlight = new HashSet<>();
+
+  /** Transaction hashes by nonce, for transactions which have been sent but whose receipts have not been seen. The hash is empty if it is not known. */
+  private final TreeMap<BigInteger, String> pending = new TreeMap<>();
+
+  private final Web3j web3j;
+
+  /** The nonces which were free at the end of the last reconciliation. */
+  private Set<BigInteger> lastFree = Set.of();
+
+  /** The next new nonce, or null if it must be fetched from the node. */
+  private BigInteger next;
+
+
+  /**
+   * New instance.
+   *
+   * @param web3j   the Web3J connector
+   * @param address the sending address
+   */
+  public NonceSequencer(Web3j web3j, String address) {
+    this.web3j = web3j;
+    this.address = address;
+  }
+
+
+  /**
+   * Allocate a nonce for a new transaction. The caller must report the outcome with either {@link #sent} or {@link #released}.
+   *
+   * @return the nonce
+   *
+   * @throws IOException if the first nonce could not be fetched from the node
+   */
+  public synchronized BigInteger allocate() throws IOException {
+    if (next == null) {
+      next = fetch(DefaultBlockParameterName.PENDING);
+      free.clear();
+    }
+    BigInteger nonce = free.pollFirst();
+    if (nonce == null) {
+      nonce = next;
+      next = next.add(BigInteger.ONE);
+    }
+    inFlight.add(nonce);
+    return nonce;
+  }
+
+
+  /**
+   * Note that the receipt for a transaction has been seen.
+   *
+   * @param transactionHash the transaction's hash
+   */
+  public synchronized void confirmed(String transactionHash) {
+    BigInteger nonce = byHash.remove(transactionHash);
+    if (nonce != null) {
+      pending.remove(nonce);
+    }
+  }
+
+
+  private BigInteger fetch(DefaultBlockParameterName block) throws IOException {
+    EthGetTransactionCount count = web3j.ethGetTransactionCount(address, block).send();
+    if (count.hasError()) {
+      throw new IOException("Failed to get transaction count for " + address + ": " + count.getError().getMessage());
+    }
+    return count.getTransactionCount();
+  }
+
+
+  public String getAddress() {
+    return address;
+  }
+
+
+  /**
+   * Is this allocator tracking any transactions? An allocator which is not busy can be discarded, as a new one will fetch the correct nonce from the node.
+   *
+   * @return true if there are transactions in flight or pending, or nonces waiting to be re-used
+   */
+  public synchronized boolean isBusy() {
+    return !(inFlight.isEmpty() && pending.isEmpty() && free.isEmpty());
+  }
+
+
+  /**
+   * Compare the allocated nonces with the node's transaction counts. Pending transactions which have been mined are forgotten. If a transaction has been
+   * dropped from the node's pool its nonce is freed. Nonces which were freed and have not been re-used since the last reconciliation are returned, as the
+   * caller must send a transaction to fill each of them. The returned nonces are in flight.
+   *
+   * <p>Transactions may be sent whilst the node is being queried, and the node's counts may not include them. Only a transaction which was already pending
+   * before the node was queried, with a nonce below the next nonce at that time, can be judged to have been dropped.</p>
+   *
+   * @return the nonces which must be filled, in increasing order
+   *
+   * @throws IOException if the node could not be queried
+   */
+  public List<BigInteger> reconcile() throws IOException {
+    BigInteger allocated;
+    Map<BigInteger, String> wasPending;
+    synchronized (this) {
+      allocated = next;
+      wasPending = new HashMap<>(pending);
+    }
+
+    BigInteger mined = fetch(DefaultBlockParameterName.LATEST);
+    BigInteger nodePending = fetch(DefaultBlockParameterName.PENDING);
+
+    synchronized (this) {
+      // Everything below the mined count is finished with, even if we have not seen its receipt.
+      Map<BigInteger, String> done = pending.headMap(mined);
+      done.values().forEach(byHash::remove);
+      done.clear();
+      free.headSet(mined).clear();
+
+      if (allocated == null || next == null) {
+        return List.of();
+      }
+
+      if (nodePending.compareTo(allocated) >= 0) {
+        // Every nonce allocated before the node was queried is known to it. If the node's count is higher still, another sender is using this address.
+        if (nodePending.compareTo(next) > 0) {
+          log.warn("Nonce for {} was advanced by another sender from {} to {}", address, next, nodePending);
+          next = nodePending;
+        }
+        free.headSet(nodePending).clear();
+        lastFree = new HashSet<>(free);
+        return List.of();
+      }
+
+      // The node's pending count stops at the first nonce it does not have. If that transaction was pending before the node was queried, and is still the
+      // same pending transaction now, it was dropped.
+      String hash = wasPending.get(nodePending);
+      if (hash != null && hash.equals(pending.get(nodePending))) {
+        pending.remove(nodePending);
+        byHash.remove(hash);
+        log.warn("Transaction {} with nonce {} from {} was dropped by the node", hash, nodePending, address);
+        free.add(nodePending);
+        trim();
+      }
+
+      // Fill the nonces which were already free at the last reconciliation and have not been re-used since.
+      List<BigInteger> toFill = new ArrayList<>();
+      for (BigInteger nonce : free) {
+        if (lastFree.contains(nonce)) {
+          toFill.add(nonce);
+        }
+      }
+      free.removeAll(toFill);
+      inFlight.addAll(toFill);
+      lastFree = new HashSet<>(free);
+      return toFill;
+    }
+  }
+
+
+  /**
+   * Note that a transaction was not accepted by the node, so its nonce was not used.
+   *
+   * @param nonce the transaction's nonce
+   */
+  public synchronized void released(BigInteger nonce) {
+    inFlight.remove(nonce);
+    if (next != null && nonce.compareTo(next) < 0) {
+      free.add(nonce);
+      trim();
+    }
+  }
+
+
+  /**
+   * Discard the allocator's view of the next nonce, so that it is fetched from the node again. This is necessary if the node reports that a nonce has already
+   * been used.
+   */
+  public synchronized void reset() {
+    next = null;
+    free.clear();
+  }
+
+
+  /**
+   * Note that a transaction has been sent. If it is not known whether the node accepted the transaction, it is treated as pending until reconciliation shows
+   * otherwise.
+   *
+   * @param nonce           the transaction's nonce
+   * @param transactionHash the transaction's hash, or null if not known
+   */
+  public synchronized void sent(BigInteger nonce, String transactionHash) {
+    inFlight.remove(nonce);
+    pending.put(nonce, transactionHash != null ? transactionHash : "");
+    if (transactionHash != null) {
+      byHash.put(transactionHash, nonce);
+    }
+  }
+
+
+  /** Freed nonces at the top of the allocated range block nothing, so they can simply be handed out again as new nonces. */
+  private void trim() {
+    while (!free.isEmpty() && free.last().add(BigInteger.ONE).equals(next)) {
+      next = free.pollLast();
+    }
+  }
+
+}
@@ -1,14 +1,39 @@
 package io.setl.iobc;
 
+import java.util.Set;
+
 import io.setl.iobc.authenticate.AuthenticatedMessage;
 
 /**
  * A listener for IOBC responses.
  *
+ * <p>A listener may restrict the responses it receives by message type and by user. Responses which no listener or pending request is interested in are
+ * discarded without being deserialized or verified.</p>
+ *
  * @author Simon Greatrix on 24/11/2021.
  */
 public interface IobcListener {
 
   void accept(AuthenticatedMessage message);
 
+
+  /**
+   * Get the message types this listener receives.
+   *
+   * @return the message types, or null to receive all types
+   */
+  default Set<String> getMessageTypes() {
+    return null;
+  }
+
+
+  /**
+   * Get the users whose responses this listener receives. A response's user is the user who sent the message it is in reply to.
+   *
+   * @return the user IDs, or null to receive responses for all users
+   */
+  default Set<String> getUserIds() {
+    return null;
+  }
+
 }
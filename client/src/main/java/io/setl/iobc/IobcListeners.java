@@ -1,12 +1,15 @@
 package io.setl.iobc;
 
 import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.model.Response;
 
 /**
  * Bean for tracking message listeners. Note that listeners should support sufficient equality semantics to identify duplicates during add, and identify correct
@@ -41,7 +44,44 @@ public class IobcListeners {
 
 
   /**
-   * Notify all listeners of the message.
+   * Test if a listener is subscribed to a message.
+   *
+   * @param listener the listener
+   * @param type     the message type
+   * @param userId   the user the message is in reply to
+   *
+   * @return true if subscribed
+   */
+  private static boolean isSubscribed(IobcListener listener, String type, String userId) {
+    Set<String> types = listener.getMessageTypes();
+    if (types != null && !types.contains(type)) {
+      return false;
+    }
+    Set<String> userIds = listener.getUserIds();
+    return userIds == null || userIds.contains(userId);
+  }
+
+
+  /**
+   * Test if any listener is subscribed to a message.
+   *
+   * @param type   the message type
+   * @param userId the user the message is in reply to
+   *
+   * @return true if at least one listener is subscribed
+   */
+  public boolean isInterested(String type, String userId) {
+    for (IobcListener listener : listeners) {
+      if (isSubscribed(listener, type, userId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Notify all subscribed listeners of the message.
    *
    * @param message the message
    */
@@ -49,9 +89,14 @@ public class IobcListeners {
     if (log.isDebugEnabled()) {
       log.debug("Relaying message {} / {} of type {} to listeners", message.getUserId(), message.getMessageId(), message.getType());
     }
+    MessageContent content = message.getContent();
+    String userId = (content instanceof Response) ? ((Response) content).getInReplyTo().getUserId() : null;
     Iterator<IobcListener> iterator = listeners.iterator();
     while (iterator.hasNext()) {
       IobcListener listener = iterator.next();
+      if (!isSubscribed(listener, message.getType(), userId)) {
+        continue;
+      }
       try {
         listener.accept(message);
       } catch (Exception e) {
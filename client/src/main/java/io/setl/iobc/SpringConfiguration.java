@@ -1,6 +1,7 @@
 package io.setl.iobc;
 
 import java.util.Map;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -27,11 +28,12 @@ import org.springframework.kafka.annotation.EnableKafkaStreams;
 import org.springframework.kafka.core.KafkaTemplate;
 
 import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.authenticate.AuthenticatedMessageSerde;
 import io.setl.iobc.authenticate.KeyProvider;
 import io.setl.iobc.authenticate.SimpleKeyProvider;
 import io.setl.iobc.config.TopicConfiguration;
+import io.setl.iobc.outbound.MessageCorrelator;
 import io.setl.iobc.outbound.OutboundProcessor;
-import io.setl.iobc.util.SerdeSupport;
 import io.setl.json.jackson.JsonModule;
 
 /**
@@ -57,18 +59,28 @@ class SpringConfiguration {
 
   @Bean
   public KafkaTemplate<String, AuthenticatedMessage> iobcInboundTemplate(KafkaProperties kafkaProperties) {
-    Serializer<AuthenticatedMessage> serializer = SerdeSupport.newSerializer(AuthenticatedMessage.class);
+    Serializer<AuthenticatedMessage> serializer = new AuthenticatedMessageSerde.MessageSerializer();
     return TopicConfiguration.makeTemplate(kafkaProperties, TopicConfiguration.INBOUND, new StringSerializer(), serializer);
   }
 
 
   @Bean
-  public KStream<String, AuthenticatedMessage> iobcOutboundStream(StreamsBuilder builder, IobcListeners iobcListeners, KeyProvider keyProvider) {
-    KStream<String, AuthenticatedMessage> stream = builder.stream(
-        TopicConfiguration.OUTBOUND,
-        Consumed.with(Serdes.String(), SerdeSupport.newSerde(AuthenticatedMessage.class))
+  public KStream<String, byte[]> iobcOutboundStream(
+      StreamsBuilder builder,
+      IobcListeners iobcListeners,
+      KeyProvider keyProvider,
+      MessageCorrelator correlator,
+      @Value("${setl.iobc.replyTo:}") String replyTo
+  ) {
+    // Without a reply-to name, every client reads the shared outbound topic and sees every other client's replies. With one, the shared topic is still read,
+    // as the server rejects messages on it, including those whose reply-to it does not accept.
+    // Records are deserialized by the processor, so that it can skip the ones it does not want.
+    String replyTopic = TopicConfiguration.getReplyTopic(replyTo);
+    KStream<String, byte[]> stream = builder.stream(
+        TopicConfiguration.OUTBOUND.equals(replyTopic) ? Set.of(replyTopic) : Set.of(TopicConfiguration.OUTBOUND, replyTopic),
+        Consumed.with(Serdes.String(), Serdes.ByteArray())
     );
-    stream.process(() -> new OutboundProcessor(iobcListeners, keyProvider));
+    stream.process(() -> new OutboundProcessor(iobcListeners, keyProvider, correlator));
     return stream;
   }
 
@@ -20,6 +20,7 @@ import io.setl.iobc.model.tokens.GetHoldings;
 import io.setl.iobc.model.tokens.GetLocked;
 import io.setl.iobc.model.tokens.GetName;
 import io.setl.iobc.model.tokens.GetTotalSupply;
+import io.setl.iobc.model.tokens.GetWalletBalances;
 import io.setl.iobc.model.tokens.LockToken;
 import io.setl.iobc.model.tokens.MintToken;
 import io.setl.iobc.model.tokens.TerminateToken;
@@ -248,6 +249,19 @@ public class TokenManagedApi {
   }
 
 
+  /**
+   * Get the balance and locked amount of a token for every address in a wallet, all taken from the same block.
+   *
+   * @param userId the requesting user
+   * @param input  the details of the request
+   *
+   * @return the message ID
+   */
+  public InReplyTo getWalletBalances(String userId, GetWalletBalances.Input input) {
+    return producer.sendMessage(userId, GetWalletBalances.NAME, input);
+  }
+
+
   /**
    * Lock a number of tokens to prevent them being transferred. Note: only the token owner can do this.
    *
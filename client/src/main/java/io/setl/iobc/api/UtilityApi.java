@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import io.setl.iobc.inbound.InboundProducer;
+import io.setl.iobc.model.Bulk;
 import io.setl.iobc.model.TransactionResult;
 import io.setl.iobc.model.tx.GetBlockForTime;
 import io.setl.iobc.model.tx.GetBlockNumber;
@@ -29,6 +30,19 @@ public class UtilityApi {
   }
 
 
+  /**
+   * Perform many operations of the same type in one message.
+   *
+   * @param userId the requesting user
+   * @param input  the operations
+   *
+   * @return the result of each operation
+   */
+  public CompletableFuture<Bulk.Output> bulk(String userId, Bulk.Input input) {
+    return producer.send(userId, Bulk.NAME, input, Bulk.Output.class);
+  }
+
+
   /**
    * Get the current block number.
    *
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import io.setl.iobc.inbound.InboundProducer;
+import io.setl.iobc.model.Bulk;
 import io.setl.iobc.model.Response.InReplyTo;
 import io.setl.iobc.model.tx.GetBlockForTime;
 import io.setl.iobc.model.tx.GetBlockNumber;
@@ -27,6 +28,19 @@ public class UtilityManagedApi {
   }
 
 
+  /**
+   * Perform many operations of the same type in one message.
+   *
+   * @param userId the requesting user
+   * @param input  the operations
+   *
+   * @return the message ID
+   */
+  public InReplyTo bulk(String userId, Bulk.Input input) {
+    return producer.sendMessage(userId, Bulk.NAME, input);
+  }
+
+
   /**
    * Get the current block number.
    *
@@ -3,25 +3,31 @@ package io.setl.iobc.inbound;
 import java.security.InvalidKeyException;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import io.setl.http.signatures.KeySpecification;
 import io.setl.http.signatures.error.UnsupportedAlgorithmException;
 import io.setl.iobc.authenticate.AuthenticatedMessage;
 import io.setl.iobc.authenticate.KeyProvider;
 import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.authenticate.SignaturePool;
+import io.setl.iobc.authenticate.WireFormat;
 import io.setl.iobc.config.TopicConfiguration;
 import io.setl.iobc.model.Response.InReplyTo;
 import io.setl.iobc.outbound.MessageCorrelator;
 import io.setl.iobc.outbound.TypedFuture;
 
 /**
- * Produce messages that are inbound to the IOBC server (not inbound to this client).
+ * Produce messages that are inbound to the IOBC server (not inbound to this client). If "setl.iobc.replyTo" is set, every message asks for its replies to be
+ * sent to this client's own reply topic. The server must list the name as a reply topic, or it rejects the messages with an "iobc:invalid-reply-to" error on
+ * the shared outbound topic.
  *
  * @author Simon Greatrix on 17/11/2021.
  */
@@ -29,18 +35,41 @@ import io.setl.iobc.outbound.TypedFuture;
 @Slf4j
 public class InboundProducer {
 
+  /** Correlator of requests and replies. */
+  private final MessageCorrelator correlator;
+
   private final KeyProvider keyProvider;
 
+  /** The client's reply-to name, or null if replies are on the shared outbound topic. */
+  private final String replyTo;
+
   private final KafkaTemplate<String, AuthenticatedMessage> template;
 
+  /** The format messages are sent in. */
+  private final WireFormat wireFormat;
+
 
+  /** New instance. */
   @Autowired
   public InboundProducer(
       @Qualifier("iobcInboundTemplate") KafkaTemplate<String, AuthenticatedMessage> kafkaTemplate,
-      KeyProvider keyProvider
+      KeyProvider keyProvider,
+      MessageCorrelator correlator,
+      @Value("${setl.iobc.wireFormat:JSON}") WireFormat wireFormat,
+      @Value("${setl.iobc.replyTo:}") String replyTo
   ) {
     template = kafkaTemplate;
+    this.correlator = correlator;
     this.keyProvider = keyProvider;
+    this.wireFormat = wireFormat;
+    if (replyTo.isEmpty()) {
+      this.replyTo = null;
+    } else {
+      if (!TopicConfiguration.isValidReplyTo(replyTo)) {
+        throw new IllegalArgumentException("Invalid reply-to name: \"" + replyTo + "\"");
+      }
+      this.replyTo = replyTo;
+    }
   }
 
 
@@ -53,15 +82,27 @@ public class InboundProducer {
    * @param replyType the expected reply type
    * @param <T>       the expected reply type
    *
-   * @return a future that will complete when a reply is received.
+   * @return a future that will complete when a reply is received, or fail if no reply is received in time or too many requests are awaiting replies.
    */
   public <T> CompletableFuture<T> send(String userId, String type, MessageContent content, Class<T> replyType) {
-    AuthenticatedMessage message = new AuthenticatedMessage(userId, type, content);
+    AuthenticatedMessage message = new AuthenticatedMessage(userId, type, content, replyTo);
     InReplyTo inReplyTo = message.buildInReplyTo();
     sign(userId, message);
     TypedFuture<T> typedFuture = new TypedFuture<>(replyType);
-    MessageCorrelator.register(inReplyTo, typedFuture);
-    template.executeInTransaction(operations -> operations.send(TopicConfiguration.INBOUND, message));
+    try {
+      // This waits if too many requests are awaiting replies.
+      correlator.register(inReplyTo, typedFuture);
+    } catch (RejectedExecutionException e) {
+      typedFuture.fail(e);
+      return typedFuture.getFuture();
+    }
+    try {
+      template.executeInTransaction(operations -> operations.send(toRecord(message)));
+    } catch (RuntimeException e) {
+      // No reply will come, so release the request's place in the correlator rather than wait for it to time out.
+      correlator.cancel(inReplyTo);
+      throw e;
+    }
     return typedFuture.getFuture();
   }
 
@@ -76,22 +117,29 @@ public class InboundProducer {
    * @return the message ID.
    */
   public InReplyTo sendMessage(String userId, String type, MessageContent content) {
-    AuthenticatedMessage message = new AuthenticatedMessage(userId, type, content);
+    AuthenticatedMessage message = new AuthenticatedMessage(userId, type, content, replyTo);
     InReplyTo inReplyTo = message.buildInReplyTo();
     sign(userId, message);
-    template.executeInTransaction(operations -> operations.send(TopicConfiguration.INBOUND, message));
+    template.executeInTransaction(operations -> operations.send(toRecord(message)));
     return inReplyTo;
   }
 
 
   protected void sign(String userId, AuthenticatedMessage message) {
-    KeySpecification keySpecification = keyProvider.getSigningKey(userId);
-    Objects.requireNonNull(keySpecification, "No signing key available for " + userId);
+    SignaturePool signers = keyProvider.getSigningPool(userId);
+    Objects.requireNonNull(signers, "No signing key available for " + userId);
     try {
-      message.sign(keySpecification);
+      message.sign(signers, wireFormat);
     } catch (UnsupportedAlgorithmException | InvalidKeyException e) {
-      throw new IllegalArgumentException("Invalid key specification: " + keySpecification);
+      throw new IllegalArgumentException("Invalid key specification: " + signers.getKeySpecification());
     }
   }
 
+
+
+  private ProducerRecord<String, AuthenticatedMessage> toRecord(AuthenticatedMessage message) {
+    // The server partitions messages by user, so keying the record by its user saves the server re-keying it.
+    return new ProducerRecord<>(TopicConfiguration.INBOUND, message.getUserId(), message);
+  }
+
 }
@@ -0,0 +1,157 @@
+package io.setl.iobc.outbound;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A timer for large numbers of timeouts which are usually cancelled before they expire. Timeouts are placed in a wheel of buckets by the tick in which they
+ * expire, so scheduling and cancelling are constant time and the timer thread only examines the bucket for the current tick. Timeouts fire up to one tick late.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+class HashedWheelTimer implements AutoCloseable {
+
+  /** A scheduled timeout. */
+  static class Timeout {
+
+    /** The tick in which this expires. */
+    private final long deadline;
+
+    private final Runnable task;
+
+    private volatile boolean isCancelled;
+
+
+    Timeout(long deadline, Runnable task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+
+
+    /** Cancel this timeout. The task will not be run if it has not already started. */
+    void cancel() {
+      isCancelled = true;
+    }
+
+  }
+
+
+
+  /** Timeouts waiting to be placed in the wheel. */
+  private final ConcurrentLinkedQueue<Timeout> added = new ConcurrentLinkedQueue<>();
+
+  /** Bit mask for a wheel index. */
+  private final int mask;
+
+  /** Time at which the timer started, in nanoseconds. */
+  private final long startTime;
+
+  private final Thread thread;
+
+  /** Duration of a tick in nanoseconds. */
+  private final long tickDuration;
+
+  /** The buckets. Only accessed by the timer thread. */
+  private final List<Timeout>[] wheel;
+
+  private volatile boolean isRunning = true;
+
+
+  /**
+   * New instance.
+   *
+   * @param name      the name of the timer thread
+   * @param tick      the duration of one tick
+   * @param wheelSize the number of buckets in the wheel, which will be rounded up to a power of two
+   */
+  @SuppressWarnings("unchecked")
+  HashedWheelTimer(String name, Duration tick, int wheelSize) {
+    tickDuration = Math.max(1, tick.toNanos());
+    int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    mask = size - 1;
+    wheel = new List[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new ArrayList<>();
+    }
+    startTime = System.nanoTime();
+    thread = new Thread(this::run, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
+  @Override
+  public void close() throws InterruptedException {
+    isRunning = false;
+    thread.interrupt();
+    thread.join();
+  }
+
+
+  private void expire(long tick) {
+    Iterator<Timeout> iterator = wheel[(int) (tick & mask)].iterator();
+    while (iterator.hasNext()) {
+      Timeout timeout = iterator.next();
+      if (timeout.isCancelled) {
+        iterator.remove();
+      } else if (timeout.deadline <= tick) {
+        iterator.remove();
+        try {
+          timeout.task.run();
+        } catch (RuntimeException e) {
+          log.error("Timeout task failed", e);
+        }
+      }
+    }
+  }
+
+
+  private void run() {
+    long tick = 0;
+    while (isRunning) {
+      long sleep = startTime + (tick + 1) * tickDuration - System.nanoTime();
+      if (sleep > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(sleep);
+        } catch (InterruptedException e) {
+          // we are closing
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      tick++;
+
+      Timeout timeout;
+      while ((timeout = added.poll()) != null) {
+        if (!timeout.isCancelled) {
+          wheel[(int) (Math.max(timeout.deadline, tick) & mask)].add(timeout);
+        }
+      }
+      expire(tick);
+    }
+  }
+
+
+  /**
+   * Schedule a task.
+   *
+   * @param task  the task, which should be quick as it runs on the timer thread
+   * @param delay the delay before the task runs
+   *
+   * @return the timeout, which may be cancelled
+   */
+  Timeout schedule(Runnable task, Duration delay) {
+    long deadline = (System.nanoTime() - startTime + delay.toNanos() + tickDuration - 1) / tickDuration;
+    Timeout timeout = new Timeout(deadline, task);
+    added.add(timeout);
+    return timeout;
+  }
+
+}
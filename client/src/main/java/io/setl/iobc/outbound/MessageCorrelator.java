@@ -1,8 +1,23 @@
 package io.setl.iobc.outbound;
 
+import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import io.setl.iobc.model.ErrorDetails;
 import io.setl.iobc.model.Response.InReplyTo;
@@ -10,12 +25,136 @@ import io.setl.iobc.model.Response.InReplyTo;
 /**
  * A correlator of inbound and outbound messages.
  *
+ * <p>Every registered request has a deadline. If no reply arrives in time, the request's future fails with a {@link TimeoutException}. The number of requests
+ * awaiting a reply is capped, and registering a request waits for space when the cap is reached.</p>
+ *
  * @author Simon Greatrix on 19/11/2021.
  */
+@Component
 @Slf4j
-public class MessageCorrelator {
+public class MessageCorrelator implements DisposableBean {
+
+  /** A request awaiting a reply. */
+  private class Pending {
+
+    final TypedFuture<?> future;
+
+    final InReplyTo inReplyTo;
+
+    final AtomicBoolean isReleased = new AtomicBoolean(false);
+
+    HashedWheelTimer.Timeout timeout;
+
+
+    Pending(InReplyTo inReplyTo, TypedFuture<?> future) {
+      this.inReplyTo = inReplyTo;
+      this.future = future;
+    }
+
+
+    /** Release the resources held for this request. Called exactly once when its future completes for any reason. */
+    void release() {
+      if (isReleased.compareAndSet(false, true)) {
+        callbacks.remove(inReplyTo, this);
+        timeout.cancel();
+        permits.release();
+      }
+    }
+
+  }
 
-  private static final ConcurrentHashMap<InReplyTo, TypedFuture<?>> callbacks = new ConcurrentHashMap<>();
+
+
+  private final ConcurrentHashMap<InReplyTo, Pending> callbacks = new ConcurrentHashMap<>();
+
+  /** Maximum time to wait for space when the in-flight cap is reached. */
+  private final Duration maxWait;
+
+  /** Permits for requests awaiting a reply. */
+  private final Semaphore permits;
+
+  /** Time to wait for a reply. */
+  private final Duration replyTimeout;
+
+  /** Number of requests which timed out. */
+  private final AtomicLong timedOut = new AtomicLong();
+
+  private final HashedWheelTimer timer;
+
+
+  /**
+   * New instance.
+   *
+   * @param replyTimeout  time to wait for a reply
+   * @param maxInFlight   maximum number of requests awaiting a reply
+   * @param maxWait       maximum time to wait for space when the in-flight cap is reached
+   * @param meterRegistry the registry for the correlator's metrics, if there is one
+   */
+  @Autowired
+  public MessageCorrelator(
+      @Value("${setl.iobc.correlator.replyTimeout:PT30S}") Duration replyTimeout,
+      @Value("${setl.iobc.correlator.maxInFlight:10000}") int maxInFlight,
+      @Value("${setl.iobc.correlator.maxWait:PT10S}") Duration maxWait,
+      ObjectProvider<MeterRegistry> meterRegistry
+  ) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("Maximum in-flight requests must be positive, not " + maxInFlight);
+    }
+    this.replyTimeout = replyTimeout;
+    this.maxWait = maxWait;
+    permits = new Semaphore(maxInFlight);
+    timer = new HashedWheelTimer("iobc-correlator-timer", Duration.ofMillis(100), 512);
+
+    meterRegistry.ifAvailable(registry -> {
+      Gauge.builder("iobc.client.inflight", callbacks, ConcurrentHashMap::size)
+          .description("Requests awaiting a reply from the IOBC server")
+          .register(registry);
+      FunctionCounter.builder("iobc.client.timeouts", timedOut, AtomicLong::get)
+          .description("Requests which received no reply from the IOBC server in time")
+          .register(registry);
+    });
+  }
+
+
+  /**
+   * Cancel a request. Its future is cancelled and any later reply is ignored.
+   *
+   * @param inReplyTo the request's in-reply-to
+   *
+   * @return true if the request was awaiting a reply
+   */
+  public boolean cancel(InReplyTo inReplyTo) {
+    Pending pending = callbacks.get(inReplyTo);
+    return pending != null && pending.future.getFuture().cancel(false);
+  }
+
+
+  @Override
+  public void destroy() throws InterruptedException {
+    timer.close();
+  }
+
+
+  public int getInFlight() {
+    return callbacks.size();
+  }
+
+
+  public long getTimedOut() {
+    return timedOut.get();
+  }
+
+
+  /**
+   * Test if a request is awaiting a reply.
+   *
+   * @param inReplyTo the request's in-reply-to
+   *
+   * @return true if a reply is awaited
+   */
+  public boolean isPending(InReplyTo inReplyTo) {
+    return callbacks.containsKey(inReplyTo);
+  }
 
 
   /**
@@ -24,14 +163,14 @@ public class MessageCorrelator {
    * @param inReplyTo the message this is in reply to
    * @param result    the result of the handling
    */
-  public static void notify(InReplyTo inReplyTo, Object result) {
-    TypedFuture<?> future = callbacks.remove(inReplyTo);
-    if (future != null) {
-      future.set(result);
+  public void notify(InReplyTo inReplyTo, Object result) {
+    Pending pending = callbacks.remove(inReplyTo);
+    if (pending != null) {
+      pending.future.set(result);
       return;
     }
 
-    // We see everything on the Kafka topic, so we see replies to other systems to that have nothing to do with us.
+    // Unless we have our own reply topic, we see everything on the shared Kafka topic, so we see replies to other systems that have nothing to do with us.
     log.trace("Received irrelevant message in reply to: {}", inReplyTo);
   }
 
@@ -42,14 +181,14 @@ public class MessageCorrelator {
    * @param inReplyTo    the message this is in reply to
    * @param errorDetails the details of the error.
    */
-  public static void notify(InReplyTo inReplyTo, ErrorDetails errorDetails) {
-    TypedFuture<?> future = callbacks.remove(inReplyTo);
-    if (future != null) {
-      future.fail(new RemoteIobcException(errorDetails));
+  public void notify(InReplyTo inReplyTo, ErrorDetails errorDetails) {
+    Pending pending = callbacks.remove(inReplyTo);
+    if (pending != null) {
+      pending.future.fail(new RemoteIobcException(errorDetails));
       return;
     }
 
-    // We see everything on the Kafka topic, so we see replies to other systems to that have nothing to do with us.
+    // Unless we have our own reply topic, we see everything on the shared Kafka topic, so we see replies to other systems that have nothing to do with us.
     log.debug("An irrelevant message {} failed: {}", inReplyTo, errorDetails);
   }
 
@@ -60,10 +199,10 @@ public class MessageCorrelator {
    * @param inReplyTo the message it was in-reply-to
    * @param thrown    the exception thrown
    */
-  public static void notify(InReplyTo inReplyTo, Throwable thrown) {
-    TypedFuture<?> future = callbacks.remove(inReplyTo);
-    if (future != null) {
-      future.fail(thrown);
+  public void notify(InReplyTo inReplyTo, Throwable thrown) {
+    Pending pending = callbacks.remove(inReplyTo);
+    if (pending != null) {
+      pending.future.fail(thrown);
       return;
     }
 
@@ -73,13 +212,36 @@ public class MessageCorrelator {
 
 
   /**
-   * Register a future to receive a reply. Futures should be registered <strong>before</strong> the message is sent.
+   * Register a future to receive a reply. Futures should be registered <strong>before</strong> the message is sent. If the maximum number of requests are
+   * awaiting replies, this waits for one to complete.
    *
    * @param inReplyTo the expected in-reply-to
    * @param future    the future
+   *
+   * @throws RejectedExecutionException if there was no space for the request within the maximum wait
    */
-  public static void register(InReplyTo inReplyTo, TypedFuture<?> future) {
-    callbacks.put(inReplyTo, future);
+  public void register(InReplyTo inReplyTo, TypedFuture<?> future) {
+    try {
+      if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new RejectedExecutionException("Too many requests are awaiting a reply from the IOBC server");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted whilst waiting to send a request to the IOBC server", e);
+    }
+
+    Pending pending = new Pending(inReplyTo, future);
+    pending.timeout = timer.schedule(() -> timeout(pending), replyTimeout);
+    callbacks.put(inReplyTo, pending);
+    future.getFuture().whenComplete((r, t) -> pending.release());
+  }
+
+
+  private void timeout(Pending pending) {
+    if (callbacks.remove(pending.inReplyTo, pending)) {
+      timedOut.incrementAndGet();
+      pending.future.fail(new TimeoutException("No reply to " + pending.inReplyTo + " within " + replyTimeout));
+    }
   }
 
 }
@@ -4,68 +4,128 @@ import java.util.concurrent.atomic.AtomicInteger;
 import javax.json.JsonValue;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.streams.processor.Processor;
 import org.apache.kafka.streams.processor.ProcessorContext;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.setl.http.signatures.KeySpecification;
 import io.setl.iobc.IobcListeners;
 import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.authenticate.AuthenticatedMessageSerde.MessageDeserializer;
 import io.setl.iobc.authenticate.KeyProvider;
+import io.setl.iobc.authenticate.MessagePeek;
+import io.setl.iobc.authenticate.SignaturePool;
 import io.setl.iobc.model.ErrorDetails;
 import io.setl.iobc.model.Response;
+import io.setl.iobc.model.Response.InReplyTo;
 
 /**
  * Process messages received on the IOBC "Outbound" topic, which is outbound from the IOBC server and inbound to this.
  *
+ * <p>Records are received as bytes. The routing fields of each record are read first, and a record is only deserialized and verified if a pending request or a
+ * listener wants it.</p>
+ *
  * @author Simon Greatrix on 16/11/2021.
  */
 @Slf4j
-public class OutboundProcessor implements Processor<String, AuthenticatedMessage> {
+public class OutboundProcessor implements Processor<String, byte[]> {
 
   private static final AtomicInteger inputCount = new AtomicInteger();
 
+  private static final AtomicInteger skippedCount = new AtomicInteger();
+
+  private final MessageCorrelator correlator;
+
+  private final MessageDeserializer deserializer = new MessageDeserializer();
+
   private final KeyProvider keyProvider;
 
   private final IobcListeners listeners;
 
+  private ProcessorContext context;
+
 
+  /** New instance. */
   public OutboundProcessor(
       IobcListeners listeners,
-      KeyProvider keyProvider
+      KeyProvider keyProvider,
+      MessageCorrelator correlator
   ) {
     this.listeners = listeners;
     this.keyProvider = keyProvider;
+    this.correlator = correlator;
   }
 
 
   @Override
   public void close() {
-    // nothing to do
+    deserializer.close();
   }
 
 
   @Override
   public void init(ProcessorContext context) {
-    // nothing to do
+    this.context = context;
   }
 
 
   protected boolean isSignatureInvalid(AuthenticatedMessage message) {
-    KeySpecification keySpecification = keyProvider.getVerifyingKey(message.getUserId());
-    if (keySpecification == null) {
+    SignaturePool verifiers = keyProvider.getVerifyingPool(message.getUserId());
+    if (verifiers == null) {
       log.error("No verification key available for user {}", message.getUserId());
       return true;
     }
-    return !message.isValidSignature(keySpecification);
+    return !message.isValidSignature(verifiers);
+  }
+
+
+  /**
+   * Test if a record is wanted, using only its routing fields. A reply is wanted if a request is waiting for it, or a listener is subscribed to it.
+   *
+   * @param peek the record's routing fields
+   *
+   * @return true if the record should be deserialized and verified
+   */
+  protected boolean isWanted(MessagePeek peek) {
+    InReplyTo inReplyTo = peek.getInReplyTo();
+    if (inReplyTo == null) {
+      // Not a response, so let the full processing report it.
+      return true;
+    }
+    return correlator.isPending(inReplyTo) || listeners.isInterested(peek.getType(), inReplyTo.getUserId());
   }
 
 
   @Override
   @Transactional
-  public void process(String key, AuthenticatedMessage message) {
-    log.debug("Received message from server: {}", message);
+  public void process(String key, byte[] data) {
     inputCount.incrementAndGet();
+    if (data == null) {
+      return;
+    }
+
+    // Discard records we have no interest in before doing the expensive deserialization and signature verification.
+    Headers headers = context.headers();
+    MessagePeek peek = MessagePeek.peek(headers, data);
+    if (peek != null && !isWanted(peek)) {
+      skippedCount.incrementAndGet();
+      log.trace("Skipping irrelevant message of type {} in reply to: {}", peek.getType(), peek.getInReplyTo());
+      return;
+    }
+
+    AuthenticatedMessage message;
+    try {
+      message = deserializer.deserialize(context.topic(), headers, data);
+    } catch (SerializationException e) {
+      log.error("Received message could not be read", e);
+      return;
+    }
+    if (message == null) {
+      return;
+    }
+
+    log.debug("Received message from server: {}", message);
     if (isSignatureInvalid(message)) {
       log.error("Received message does not contain a valid signature: {}", message);
       return;
@@ -83,7 +143,7 @@ public class OutboundProcessor implements Processor<String, AuthenticatedMessage
     Response response = (Response) message.getContent();
     if (response.isPass()) {
       // Correctly handled, but that does not mean (for example) that a transaction succeeded.
-      MessageCorrelator.notify(response.getInReplyTo(), response.getResult());
+      correlator.notify(response.getInReplyTo(), response.getResult());
       return;
     }
 
@@ -92,7 +152,7 @@ public class OutboundProcessor implements Processor<String, AuthenticatedMessage
     if (errorDetails == null) {
       errorDetails = ErrorDetails.builder().message("N/A").code("iobc/unknown").parameters(JsonValue.EMPTY_JSON_OBJECT).build();
     }
-    MessageCorrelator.notify(response.getInReplyTo(), errorDetails);
+    correlator.notify(response.getInReplyTo(), errorDetails);
   }
 
 }
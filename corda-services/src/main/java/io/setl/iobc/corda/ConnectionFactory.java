@@ -8,6 +8,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import io.setl.common.TypeSafeMap;
@@ -39,6 +40,15 @@ public class ConnectionFactory implements ChainConfigurationFactory, DisposableB
   private final CopyOnWriteMap<String, NodeConnection> instances = new CopyOnWriteMap<>();
 
 
+  /**
+   * Periodic health check of the RPC connections, which replaces failed connections.
+   */
+  @Scheduled(fixedDelayString = "${setl.iobc.corda.healthCheckInterval:PT10S}")
+  public void checkConnections() {
+    instances.values().forEach(NodeConnection::checkConnections);
+  }
+
+
   @Override
   public NodeConnection create(String iobcId, Map<String, Object> properties) {
     return instances.computeIfAbsent(
@@ -53,7 +63,9 @@ public class ConnectionFactory implements ChainConfigurationFactory, DisposableB
               require(map, "locality"),
               require(map, "orgName"),
               require(map, "username"),
-              require(map, "password")
+              require(map, "password"),
+              map.getBoolean("useVaultProjections", true),
+              map.getInt("rpcPoolSize", 4)
           );
         }
     );
@@ -71,4 +83,13 @@ public class ConnectionFactory implements ChainConfigurationFactory, DisposableB
     return ChainBrand.CORDA;
   }
 
+
+  /**
+   * Periodic reload of the local copies of the nodes' vaults.
+   */
+  @Scheduled(fixedDelayString = "${setl.iobc.corda.reconcileInterval:PT10M}")
+  public void reconcile() {
+    instances.values().forEach(NodeConnection::reconcile);
+  }
+
 }
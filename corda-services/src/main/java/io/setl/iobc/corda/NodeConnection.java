@@ -1,26 +1,41 @@
 package io.setl.iobc.corda;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 
 import lombok.extern.slf4j.Slf4j;
 import net.corda.client.rpc.CordaRPCClient;
-import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.client.rpc.RPCException;
 import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.LinearState;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.contracts.TransactionState;
 import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
 import net.corda.core.identity.CordaX500Name;
 import net.corda.core.identity.Party;
 import net.corda.core.messaging.CordaRPCOps;
 import net.corda.core.messaging.FlowProgressHandle;
 import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
 import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.QueryCriteriaUtils;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.utilities.NetworkHostAndPort;
 import rx.Observable;
 
 import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.corda.RpcConnectionPool.PooledConnection;
+import io.setl.iobc.corda.states.AllowanceState;
+import io.setl.iobc.corda.states.HoldingState;
+import io.setl.iobc.corda.states.TokenState;
 import io.setl.iobc.model.ChainBrand;
 import io.setl.iobc.model.TransactionInput.TxProcessingMode;
 import io.setl.iobc.model.TransactionResult;
@@ -30,11 +45,54 @@ import io.setl.iobc.model.TransactionResult.TxStatus;
  * Wraps an RPC connection to a Corda node.
  *
  * <p>The RPC connection is configured using command line arguments.
+ *
+ * <p>Holdings, allowances and tokens may be read from local copies of the vault, which follow the vault's update feed and so may lag behind it. When a flow
+ * started here completes, the states it produced and consumed are noted before its result is completed. Reads of those states query the vault until the
+ * local copy has caught up, so a read which follows a RETURN_RESULT flow sees the flow's changes. States changed by flows started elsewhere may be read stale
+ * for as long as the feed lags.</p>
  */
 @Slf4j
 public class NodeConnection implements ChainConfiguration {
 
+  /**
+   * Create the result of a flow which failed. If the connection to the node failed, as when the pool closes an unhealthy connection, the flow may still
+   * complete on the node, so its outcome is unknown.
+   *
+   * @param trxnId the flow's ID
+   * @param thrown the error
+   *
+   * @return the result
+   */
+  private static TransactionResult toFailure(String trxnId, Throwable thrown) {
+    for (Throwable cause = thrown; cause != null; cause = cause.getCause()) {
+      if (cause instanceof RPCException) {
+        return TransactionResult.builder().transactionId(trxnId)
+            .txStatus(TxStatus.UNKNOWN)
+            .message("Connection to the node failed before the flow completed: " + thrown.getMessage())
+            .build();
+      }
+    }
+    return TransactionResult.builder().transactionId(trxnId)
+        .txStatus(TxStatus.FAILURE)
+        .message("Flow failed: " + thrown.getMessage())
+        .build();
+  }
+
   public static CompletableFuture<TransactionResult> toFuture(FlowProgressHandle<SignedTransaction> flow, TxProcessingMode mode) {
+    return toFuture(flow, mode, () -> {
+      // do nothing
+    }, transaction -> {
+      // do nothing
+    });
+  }
+
+
+  private static CompletableFuture<TransactionResult> toFuture(
+      FlowProgressHandle<SignedTransaction> flow,
+      TxProcessingMode mode,
+      Runnable onDone,
+      Consumer<SignedTransaction> onSuccess
+  ) {
     final String trxnId = flow.getId().getUuid().toString();
     CompletableFuture<TransactionResult> result = new CompletableFuture<>();
     CompletableFuture<TransactionResult> output;
@@ -55,17 +113,37 @@ public class NodeConnection implements ChainConfiguration {
         s -> log.debug("Corda flow {} has reached state {}", trxnId, s),
         e -> {
           log.debug("Corda flow {} has failed with error", trxnId, e);
-          result.complete(TransactionResult.builder().transactionId(trxnId)
-              .txStatus(TxStatus.FAILURE)
-              .message("Flow failed: " + e.getMessage())
-              .build());
+          onDone.run();
+          result.complete(toFailure(trxnId, e));
         },
         () -> {
           log.debug("Corda flow {} has completed successfully", trxnId);
-          result.complete(TransactionResult.builder().transactionId(trxnId)
-              .txStatus(TransactionResult.TxStatus.SUCCESS)
-              .message("Transaction successful")
-              .build());
+          onDone.run();
+          // The transaction is handled before the result is completed, so that anything which follows the result can rely on it.
+          flow.getReturnValue().toCompletableFuture().whenComplete((transaction, thrown) -> {
+            if (thrown != null) {
+              Throwable cause = (thrown instanceof CompletionException && thrown.getCause() != null) ? thrown.getCause() : thrown;
+              log.debug("Corda flow {} did not return its transaction", trxnId, cause);
+              result.complete(toFailure(trxnId, cause));
+              return;
+            }
+            if (transaction == null) {
+              result.complete(TransactionResult.builder().transactionId(trxnId)
+                  .txStatus(TxStatus.FAILURE)
+                  .message("Flow failed: no transaction was returned")
+                  .build());
+              return;
+            }
+            try {
+              onSuccess.accept(transaction);
+            } catch (RuntimeException e) {
+              log.error("Failed to handle the transaction of Corda flow {}", trxnId, e);
+            }
+            result.complete(TransactionResult.builder().transactionId(trxnId)
+                .txStatus(TransactionResult.TxStatus.SUCCESS)
+                .message("Transaction successful")
+                .build());
+          });
         }
     );
 
@@ -79,9 +157,11 @@ public class NodeConnection implements ChainConfiguration {
 
   private final Party party;
 
-  private final CordaRPCOps proxy;
+  /** The RPC connections to the node. */
+  private final RpcConnectionPool pool;
 
-  private final CordaRPCConnection rpcConnection;
+  /** Local copies of the vault, by state type. Empty if the vault is always queried. */
+  private final Map<Class<?>, VaultProjection<?>> projections;
 
 
   /**
@@ -95,6 +175,8 @@ public class NodeConnection implements ChainConfiguration {
    * @param orgName  the organisation's name
    * @param username the username for the connection
    * @param password the password for the connection
+   * @param useProjections if true, holdings, allowances and tokens are read from local copies of the vault
+   * @param poolSize the number of RPC connections to open
    */
   public NodeConnection(
       String iobcId,
@@ -104,20 +186,72 @@ public class NodeConnection implements ChainConfiguration {
       String locality,
       String orgName,
       String username,
-      String password
+      String password,
+      boolean useProjections,
+      int poolSize
   ) {
     this.iobcId = iobcId;
     NetworkHostAndPort rpcAddress = new NetworkHostAndPort(rpcHost, rpcPort);
     CordaRPCClient rpcClient = new CordaRPCClient(rpcAddress);
-    rpcConnection = rpcClient.start(username, password);
-    proxy = rpcConnection.getProxy();
+    pool = new RpcConnectionPool(rpcClient, username, password, poolSize);
     legalName = String.format("O=%s,L=%s,C=%s", orgName, locality, country);
-    party = proxy.wellKnownPartyFromX500Name(CordaX500Name.parse(legalName));
+    party = pool.getProxy().wellKnownPartyFromX500Name(CordaX500Name.parse(legalName));
+
+    if (useProjections) {
+      projections = Map.of(
+          AllowanceState.class, new VaultProjection<>(pool::getProxy, party, AllowanceState.class),
+          HoldingState.class, new VaultProjection<>(pool::getProxy, party, HoldingState.class),
+          TokenState.class, new VaultProjection<>(pool::getProxy, party, TokenState.class)
+      );
+      // Until the projections are loaded, the vault is queried
+      ConnectionFactory.executorService.execute(this::reconcile);
+    } else {
+      projections = Map.of();
+    }
   }
 
 
   public void close() {
-    rpcConnection.notifyServerAndClose();
+    projections.values().forEach(VaultProjection::close);
+    pool.close();
+  }
+
+
+  /** Check the RPC connections, replacing any which have failed. Projections whose update feed was on a failed connection are reloaded. */
+  public void checkConnections() {
+    pool.check();
+    projections.values().stream().filter(VaultProjection::isFailed).forEach(VaultProjection::reload);
+  }
+
+
+  /**
+   * Note the states produced and consumed by a flow's transaction, so that they are read from the vault until the local copies have caught up with them.
+   *
+   * @param transaction the transaction
+   */
+  private void awaitWrites(SignedTransaction transaction) {
+    // The inputs are only known by reference, so every projection is told of them
+    for (StateRef input : transaction.getTx().getInputs()) {
+      projections.values().forEach(p -> p.awaitConsumed(input));
+    }
+    for (TransactionState<ContractState> output : transaction.getTx().getOutputs()) {
+      ContractState data = output.getData();
+      VaultProjection<?> projection = projections.get(data.getClass());
+      if (projection != null && data instanceof LinearState) {
+        String externalId = ((LinearState) data).getLinearId().getExternalId();
+        if (externalId != null) {
+          projection.awaitWrite(externalId, transaction.getId());
+        }
+      }
+    }
+  }
+
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  private <T extends ContractState> List<T> fromProjection(List<String> externalIds, Class<T> type) {
+    VaultProjection<?> projection = projections.get(type);
+    return projection != null ? (List<T>) projection.get(externalIds) : null;
   }
 
 
@@ -142,20 +276,32 @@ public class NodeConnection implements ChainConfiguration {
   }
 
 
+  /**
+   * Get a proxy for the node. Flows should be started with {@link #startFlow}, so they are spread across the connections.
+   *
+   * @return a proxy on a healthy connection
+   */
   public CordaRPCOps getProxy() {
-    return proxy;
+    return pool.getProxy();
   }
 
 
   public <T extends ContractState> Optional<T> getStateOptional(String externalId, Class<T> type) throws FlowException {
-    QueryCriteria criteria =
-        new QueryCriteria.LinearStateQueryCriteria().withParticipants(List.of(party))
-            .withExternalId(List.of(externalId))
-            .withStatus(Vault.StateStatus.UNCONSUMED);
-
-    List<StateAndRef<T>> stateAndRefs = getProxy().vaultQueryByCriteria(criteria, type).getStates();
+    List<T> states = fromProjection(List.of(externalId), type);
+    if (states == null) {
+      QueryCriteria criteria =
+          new QueryCriteria.LinearStateQueryCriteria().withParticipants(List.of(party))
+              .withExternalId(List.of(externalId))
+              .withStatus(Vault.StateStatus.UNCONSUMED);
+
+      List<StateAndRef<T>> stateAndRefs = getProxy().vaultQueryByCriteria(criteria, type).getStates();
+      states = new ArrayList<>(stateAndRefs.size());
+      for (StateAndRef<T> stateAndRef : stateAndRefs) {
+        states.add(stateAndRef.getState().getData());
+      }
+    }
 
-    int size = stateAndRefs.size();
+    int size = states.size();
     if (size == 0) {
       return Optional.empty();
     }
@@ -164,7 +310,7 @@ public class NodeConnection implements ChainConfiguration {
       throw new FlowException("External ID returned " + size + " results for id \"" + externalId + "\" with type " + type);
     }
 
-    return Optional.of(stateAndRefs.get(0).getState().getData());
+    return Optional.of(states.get(0));
   }
 
 
@@ -175,8 +321,75 @@ public class NodeConnection implements ChainConfiguration {
   }
 
 
+  /**
+   * Get the unconsumed states with any of the given external IDs. The vault is queried for all the IDs together, rather than once for each ID, so unless there
+   * are more matches than fit on one page, all the states are read from the same view of the vault.
+   *
+   * @param externalIds the external IDs
+   * @param type        the state type
+   * @param <T>         the state type
+   *
+   * @return the matching states, in no particular order
+   */
+  public <T extends ContractState> List<T> getStates(List<String> externalIds, Class<T> type) {
+    if (externalIds.isEmpty()) {
+      return List.of();
+    }
+    List<T> projected = fromProjection(externalIds, type);
+    if (projected != null) {
+      return projected;
+    }
+
+    QueryCriteria criteria =
+        new QueryCriteria.LinearStateQueryCriteria().withParticipants(List.of(party))
+            .withExternalId(externalIds)
+            .withStatus(Vault.StateStatus.UNCONSUMED);
+
+    // The vault will not return more than one page without paging being specified
+    List<T> states = new ArrayList<>(externalIds.size());
+    int pageNumber = QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+    Vault.Page<T> page;
+    do {
+      page = getProxy().vaultQueryByWithPagingSpec(type, criteria, new PageSpecification(pageNumber, QueryCriteriaUtils.DEFAULT_PAGE_SIZE));
+      page.getStates().forEach(s -> states.add(s.getState().getData()));
+      pageNumber++;
+    } while (!page.getStates().isEmpty() && states.size() < page.getTotalStatesAvailable());
+    return states;
+  }
+
+
   public Party getX500Name(String nodeInfo) {
-    return proxy.wellKnownPartyFromX500Name(CordaX500Name.parse(nodeInfo));
+    return pool.getProxy().wellKnownPartyFromX500Name(CordaX500Name.parse(nodeInfo));
+  }
+
+
+  /**
+   * Reload the local copies of the vault. This recovers from any failure of the vault's update feed, and from any state missed while the vault was read.
+   */
+  public void reconcile() {
+    projections.values().forEach(VaultProjection::reload);
+  }
+
+
+  /**
+   * Start a flow on the connection with the fewest flows in progress.
+   *
+   * @param mode      the transaction processing mode
+   * @param flowClass the flow to start
+   * @param args      the flow's arguments
+   *
+   * @return the flow's result
+   */
+  public CompletableFuture<TransactionResult> startFlow(TxProcessingMode mode, Class<? extends FlowLogic<SignedTransaction>> flowClass, Object... args) {
+    PooledConnection connection = pool.acquire();
+    FlowProgressHandle<SignedTransaction> flow;
+    try {
+      flow = connection.getProxy().startTrackedFlowDynamic(flowClass, args);
+    } catch (RuntimeException e) {
+      connection.release();
+      throw e;
+    }
+    return toFuture(flow, mode, connection::release, this::awaitWrites);
   }
 
 
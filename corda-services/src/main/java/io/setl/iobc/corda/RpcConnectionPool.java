@@ -0,0 +1,176 @@
+package io.setl.iobc.corda;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import lombok.extern.slf4j.Slf4j;
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.messaging.CordaRPCOps;
+
+/**
+ * A pool of RPC connections to one Corda node. Flows are started on the connection with the fewest flows in progress, so flow starts are spread across the
+ * connections' sessions. A connection which fails its health check is closed and replaced. Flows in progress on it lose their progress feed, and are reported
+ * with an unknown outcome, as they may still complete on the node.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class RpcConnectionPool {
+
+  /** One connection in the pool. */
+  public static class PooledConnection {
+
+    private final CordaRPCConnection connection;
+
+    /** Number of flows in progress on this connection. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final CordaRPCOps proxy;
+
+    /** Cleared when the connection fails its health check. */
+    private volatile boolean isHealthy = true;
+
+
+    PooledConnection(CordaRPCConnection connection) {
+      this.connection = connection;
+      proxy = connection.getProxy();
+    }
+
+
+    public CordaRPCOps getProxy() {
+      return proxy;
+    }
+
+
+    /** Note that a flow started on this connection has finished. */
+    public void release() {
+      inFlight.decrementAndGet();
+    }
+
+  }
+
+
+
+  private final CordaRPCClient client;
+
+  /** The connections. A slot is null if its connection has failed and could not yet be replaced. */
+  private final AtomicReferenceArray<PooledConnection> connections;
+
+  private final String password;
+
+  /** Counter used to spread requests which do not start flows. */
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  private final String username;
+
+
+  /**
+   * New instance. All the connections are opened immediately, so a misconfigured node is reported at start up.
+   *
+   * @param client   the client for the node
+   * @param username the username for the connections
+   * @param password the password for the connections
+   * @param size     the number of connections
+   */
+  public RpcConnectionPool(CordaRPCClient client, String username, String password, int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Corda RPC pool size must be positive");
+    }
+    this.client = client;
+    this.username = username;
+    this.password = password;
+    connections = new AtomicReferenceArray<>(size);
+    for (int i = 0; i < size; i++) {
+      connections.set(i, new PooledConnection(client.start(username, password)));
+    }
+  }
+
+
+  /**
+   * Acquire the healthy connection with the fewest flows in progress. The connection must be released when the flow finishes.
+   *
+   * @return the connection
+   */
+  public PooledConnection acquire() {
+    PooledConnection best = null;
+    int bestCount = Integer.MAX_VALUE;
+    for (int i = 0; i < connections.length(); i++) {
+      PooledConnection connection = connections.get(i);
+      if (connection != null && connection.isHealthy) {
+        int count = connection.inFlight.get();
+        if (count < bestCount) {
+          best = connection;
+          bestCount = count;
+        }
+      }
+    }
+    if (best == null) {
+      throw new IllegalStateException("No Corda RPC connection is available");
+    }
+    best.inFlight.incrementAndGet();
+    return best;
+  }
+
+
+  /**
+   * Check every connection is working. Failed connections are closed and replaced. A replacement which cannot be opened is tried again at the next check.
+   */
+  public void check() {
+    for (int i = 0; i < connections.length(); i++) {
+      PooledConnection connection = connections.get(i);
+      if (connection != null) {
+        try {
+          connection.proxy.currentNodeTime();
+          continue;
+        } catch (RuntimeException e) {
+          log.warn("Corda RPC connection failed its health check and will be replaced", e);
+          connection.isHealthy = false;
+          connections.compareAndSet(i, connection, null);
+          try {
+            connection.connection.forceClose();
+          } catch (RuntimeException e2) {
+            log.debug("Failed to close Corda RPC connection", e2);
+          }
+        }
+      }
+
+      try {
+        connections.compareAndSet(i, null, new PooledConnection(client.start(username, password)));
+      } catch (RuntimeException e) {
+        log.error("Failed to reconnect to Corda node", e);
+      }
+    }
+  }
+
+
+  /** Close all the connections. */
+  public void close() {
+    for (int i = 0; i < connections.length(); i++) {
+      PooledConnection connection = connections.getAndSet(i, null);
+      if (connection != null) {
+        connection.isHealthy = false;
+        connection.connection.notifyServerAndClose();
+      }
+    }
+  }
+
+
+  /**
+   * Get a proxy for requests which do not start flows. Such requests are spread evenly across the healthy connections.
+   *
+   * @return the proxy
+   */
+  public CordaRPCOps getProxy() {
+    int size = connections.length();
+    int start = Math.floorMod(requestCount.getAndIncrement(), size);
+    for (int i = 0; i < size; i++) {
+      PooledConnection connection = connections.get((start + i) % size);
+      if (connection != null && connection.isHealthy) {
+        return connection.proxy;
+      }
+    }
+    throw new IllegalStateException("No Corda RPC connection is available");
+  }
+
+}
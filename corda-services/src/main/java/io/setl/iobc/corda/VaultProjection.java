@@ -0,0 +1,304 @@
+package io.setl.iobc.corda;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+import net.corda.core.contracts.LinearState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.QueryCriteriaUtils;
+import rx.Subscription;
+
+/**
+ * A local copy of the unconsumed states of one type in a node's vault, indexed by external ID. The copy is loaded from the vault and then kept up to date from
+ * the vault's update feed, so reads do not require a vault query.
+ *
+ * <p>The copy is only used once it has been loaded. If the update feed fails, the copy is no longer used until it is reloaded. It is reloaded periodically in
+ * any case, as the vault is read a page at a time and a state may move between pages while it is read.</p>
+ *
+ * <p>The update feed may lag behind the flows this server starts, so a read which follows a completed flow could miss the flow's changes. The external IDs of
+ * the states a flow produced, and the states it consumed, are therefore awaited: until the copy holds the state produced by that flow's transaction, and no
+ * longer holds the states it consumed, reads of the affected IDs return null so that the vault is queried. Awaited changes which the copy never catches up
+ * with are released when the copy is reloaded.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class VaultProjection<T extends LinearState> {
+
+  /** One load of the vault, and its subscription to updates. */
+  private class View {
+
+    /** Unconsumed states by external ID. An external ID should only match one state, but the vault does not enforce this. */
+    final Map<String, List<StateAndRef<T>>> states = new ConcurrentHashMap<>();
+
+    /** Updates received while the vault was being read. Null once the view is loaded. */
+    List<Vault.Update<T>> buffer = new ArrayList<>();
+
+    /** Set if the update feed has failed. */
+    volatile boolean isFailed = false;
+
+    /** Set once the view is loaded and updates are being applied as they arrive. */
+    volatile boolean isReady = false;
+
+    Subscription subscription;
+
+
+    void add(String externalId, StateAndRef<T> stateAndRef) {
+      // A state may be in both the snapshot and an update received during the load, so it is only added once
+      states.merge(externalId, List.of(stateAndRef), (old, added) -> {
+        if (old.contains(stateAndRef)) {
+          return old;
+        }
+        List<StateAndRef<T>> merged = new ArrayList<>(old);
+        merged.add(stateAndRef);
+        return List.copyOf(merged);
+      });
+    }
+
+
+    void apply(Vault.Update<T> update) {
+      // Consumed states are removed first, as an update may consume and produce a state with the same external ID
+      for (StateAndRef<T> consumed : update.getConsumed()) {
+        String externalId = consumed.getState().getData().getLinearId().getExternalId();
+        if (externalId != null) {
+          states.computeIfPresent(externalId, (k, old) -> {
+            List<StateAndRef<T>> remaining = new ArrayList<>(old);
+            remaining.remove(consumed);
+            return remaining.isEmpty() ? null : List.copyOf(remaining);
+          });
+        }
+        awaitedConsumed.remove(consumed.getRef());
+      }
+      for (StateAndRef<T> produced : update.getProduced()) {
+        T data = produced.getState().getData();
+        String externalId = data.getLinearId().getExternalId();
+        // The feed is not filtered by participant, so states which the snapshot would exclude are ignored
+        if (externalId != null && data.getParticipants().contains(party)) {
+          add(externalId, produced);
+        }
+      }
+    }
+
+
+    void fail(Throwable thrown) {
+      log.error("Vault update feed for {} has failed. Queries will use the vault until it is reloaded.", type.getSimpleName(), thrown);
+      isFailed = true;
+      isReady = false;
+    }
+
+
+    void load() {
+      QueryCriteria criteria = new QueryCriteria.LinearStateQueryCriteria().withParticipants(List.of(party)).withStatus(Vault.StateStatus.UNCONSUMED);
+
+      // Subscribe to updates before reading, so no change is missed. Updates received during the read are applied after it.
+      int pageNumber = QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+      PageSpecification firstPage = new PageSpecification(pageNumber, QueryCriteriaUtils.DEFAULT_PAGE_SIZE);
+      // The feed and the pages are read from one connection, which is re-chosen at every load in case a connection has failed.
+      CordaRPCOps ops = proxy.get();
+      DataFeed<Vault.Page<T>, Vault.Update<T>> feed = ops.vaultTrackByWithPagingSpec(type, criteria, firstPage);
+      subscription = feed.getUpdates().subscribe(this::onUpdate, this::fail);
+
+      Vault.Page<T> page = feed.getSnapshot();
+      int count = 0;
+      while (!page.getStates().isEmpty()) {
+        for (StateAndRef<T> stateAndRef : page.getStates()) {
+          String externalId = stateAndRef.getState().getData().getLinearId().getExternalId();
+          if (externalId != null) {
+            add(externalId, stateAndRef);
+          }
+        }
+        count += page.getStates().size();
+        if (count >= page.getTotalStatesAvailable()) {
+          break;
+        }
+        pageNumber++;
+        page = ops.vaultQueryByWithPagingSpec(type, criteria, new PageSpecification(pageNumber, QueryCriteriaUtils.DEFAULT_PAGE_SIZE));
+      }
+
+      synchronized (this) {
+        buffer.forEach(this::apply);
+        buffer = null;
+        isReady = !isFailed;
+      }
+      log.info("Loaded {} unconsumed {} states from the vault", states.size(), type.getSimpleName());
+    }
+
+
+    synchronized void onUpdate(Vault.Update<T> update) {
+      if (buffer != null) {
+        buffer.add(update);
+      } else {
+        apply(update);
+      }
+    }
+
+  }
+
+
+
+  /** External IDs written by a flow, and the transaction which wrote them, which the copy has not yet been seen to hold. */
+  private final Map<String, SecureHash> awaited = new ConcurrentHashMap<>();
+
+  /** States consumed by a flow, which the copy may still hold. */
+  private final Set<StateRef> awaitedConsumed = ConcurrentHashMap.newKeySet();
+
+  private final Party party;
+
+  /** Source of a proxy on a working connection. */
+  private final Supplier<CordaRPCOps> proxy;
+
+  private final Class<T> type;
+
+  /** The current view of the vault. */
+  private volatile View view;
+
+
+  /**
+   * New instance. The projection is not used until it has been loaded.
+   *
+   * @param proxy source of RPC connections to the node
+   * @param party the node's party, which must participate in the states
+   * @param type  the state type
+   */
+  public VaultProjection(Supplier<CordaRPCOps> proxy, Party party, Class<T> type) {
+    this.proxy = proxy;
+    this.party = party;
+    this.type = type;
+  }
+
+
+  /**
+   * Note that a flow has consumed a state. Reads of the state's external ID will query the vault for as long as the copy holds the state. The state need not be
+   * of this projection's type, as a transaction's inputs are only known by reference.
+   *
+   * @param ref the consumed state's reference
+   */
+  public void awaitConsumed(StateRef ref) {
+    awaitedConsumed.add(ref);
+    // A state the copy does not hold is not awaited, as the feed would never remove it. The check follows the add, so a removal cannot be missed between them.
+    View current = view;
+    if (current == null || current.states.values().stream().flatMap(List::stream).noneMatch(s -> s.getRef().equals(ref))) {
+      awaitedConsumed.remove(ref);
+    }
+  }
+
+
+  /**
+   * Note that a flow has produced a state with the given external ID. Reads of the ID will query the vault until the copy holds the state.
+   *
+   * @param externalId    the state's external ID
+   * @param transactionId the ID of the transaction which produced the state
+   */
+  public void awaitWrite(String externalId, SecureHash transactionId) {
+    awaited.put(externalId, transactionId);
+  }
+
+
+  /** Stop following the vault's updates. */
+  public void close() {
+    View current = view;
+    view = null;
+    if (current != null && current.subscription != null) {
+      current.subscription.unsubscribe();
+    }
+  }
+
+
+  /**
+   * Get the unconsumed states with any of the given external IDs.
+   *
+   * @param externalIds the external IDs
+   *
+   * @return the matching states, in no particular order, or null if the projection is not loaded, or has not caught up with a flow which wrote one of the IDs,
+   *     and the vault must be queried
+   */
+  @Nullable
+  public List<T> get(Collection<String> externalIds) {
+    View current = view;
+    if (current == null || !current.isReady) {
+      return null;
+    }
+    List<T> found = new ArrayList<>(externalIds.size());
+    for (String externalId : externalIds) {
+      List<StateAndRef<T>> matched = current.states.getOrDefault(externalId, List.of());
+      if (matched.stream().anyMatch(s -> awaitedConsumed.contains(s.getRef()))) {
+        return null;
+      }
+      SecureHash transactionId = awaited.get(externalId);
+      if (transactionId != null) {
+        if (matched.stream().noneMatch(s -> s.getRef().getTxhash().equals(transactionId))) {
+          return null;
+        }
+        awaited.remove(externalId, transactionId);
+      }
+      matched.forEach(s -> found.add(s.getState().getData()));
+    }
+    return found;
+  }
+
+
+  public Class<T> getType() {
+    return type;
+  }
+
+
+  /**
+   * Has the update feed failed since the projection was loaded?.
+   *
+   * @return true if the projection must be reloaded before it can be used again
+   */
+  public boolean isFailed() {
+    View current = view;
+    return current != null && current.isFailed;
+  }
+
+
+  public boolean isReady() {
+    View current = view;
+    return current != null && current.isReady;
+  }
+
+
+  /**
+   * Load the vault's states and subscribe to its updates, replacing the previous copy once loaded. The previous copy is used until then.
+   */
+  public void reload() {
+    // The new copy is loaded after these writes, so it includes them, or states which replaced them.
+    Map<String, SecureHash> written = Map.copyOf(awaited);
+    Set<StateRef> consumed = Set.copyOf(awaitedConsumed);
+    View newView = new View();
+    try {
+      newView.load();
+    } catch (RuntimeException e) {
+      if (newView.subscription != null) {
+        newView.subscription.unsubscribe();
+      }
+      log.error("Failed to load {} states from the vault", type.getSimpleName(), e);
+      return;
+    }
+
+    View old = view;
+    view = newView;
+    written.forEach(awaited::remove);
+    awaitedConsumed.removeAll(consumed);
+    if (old != null && old.subscription != null) {
+      old.subscription.unsubscribe();
+    }
+  }
+
+}
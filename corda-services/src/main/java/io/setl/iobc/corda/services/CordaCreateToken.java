@@ -6,8 +6,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
-import net.corda.core.messaging.FlowProgressHandle;
-import net.corda.core.transactions.SignedTransaction;
 import org.springframework.stereotype.Service;
 
 import io.setl.common.ParameterisedException;
@@ -82,16 +80,14 @@ public class CordaCreateToken implements CreateToken {
     BigInteger supply = cjObject.getBigInteger("supply", BigInteger.ZERO);
 
     try {
-      final FlowProgressHandle<SignedTransaction> flow = corda.getProxy()
-          .startTrackedFlowDynamic(
-              TokenAddFlow.Initiator.class,
-              input.getController(),
-              tokenId,
-              input.getName(),
-              supply
-          );
-
-      CompletableFuture<TransactionResult> result = NodeConnection.toFuture(flow, input.getTxProcessingMode());
+      CompletableFuture<TransactionResult> result = corda.startFlow(
+          input.getTxProcessingMode(),
+          TokenAddFlow.Initiator.class,
+          input.getController(),
+          tokenId,
+          input.getName(),
+          supply
+      );
 
       TokenSpecification specification = TokenSpecification.builder()
           .brand(ChainBrand.CORDA)
@@ -0,0 +1,91 @@
+package io.setl.iobc.corda.services;
+
+import static io.setl.iobc.corda.contracts.TokenContract.externalId;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import io.setl.common.ParameterisedException;
+import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.corda.NodeConnection;
+import io.setl.iobc.corda.states.HoldingState;
+import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.address.SetlAddress;
+import io.setl.iobc.model.tokens.GetWalletBalances;
+import io.setl.iobc.table.AddressTable;
+import io.setl.iobc.util.ExceptionTranslator;
+
+/**
+ * Get the balances of every address in a wallet. The holdings of all the addresses are fetched with one vault query.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service("cordaGetWalletBalances")
+@Slf4j
+public class CordaGetWalletBalances implements GetWalletBalances {
+
+  private final AddressTable addressTable;
+
+
+  /** New instance. */
+  @Autowired
+  public CordaGetWalletBalances(
+      AddressTable addressTable
+  ) {
+    this.addressTable = addressTable;
+  }
+
+
+  @Override
+  public CompletableFuture<Output> apply(ChainConfiguration configuration, Input input) throws ParameterisedException {
+    NodeConnection corda = (NodeConnection) configuration;
+    try {
+      String symbol = input.getSymbol();
+      int walletId = input.getWalletId();
+
+      // Only the wallet's addresses on this chain can hold the token
+      Map<String, SetlAddress> addresses = addressTable.getAllAddresses(walletId);
+      Map<String, String> holdingIds = new HashMap<>();
+      if (addresses != null) {
+        addresses.forEach((a, s) -> {
+          if (corda.getIobcId().equals(s.getChainId())) {
+            holdingIds.put(externalId(corda.getParty(), symbol, a), a);
+          }
+        });
+      }
+
+      TreeMap<String, Balance> balances = new TreeMap<>();
+      Balance empty = Balance.builder().balance(BigInteger.ZERO).locked(BigInteger.ZERO).build();
+      holdingIds.values().forEach(a -> balances.put(a, empty));
+      List<HoldingState> holdings = corda.getStates(new ArrayList<>(holdingIds.keySet()), HoldingState.class);
+      for (HoldingState holding : holdings) {
+        String address = holdingIds.get(holding.getExternalId());
+        if (address != null) {
+          balances.put(address, Balance.builder().balance(holding.getAmount()).locked(holding.getLocked()).build());
+        }
+      }
+
+      Output output = Output.builder().balances(balances).block(-1).walletId(walletId).build();
+      return CompletableFuture.completedFuture(output);
+    } catch (Throwable ex) {
+      log.error("Failed to fetch balances of {} for wallet {}", input.getSymbol(), input.getWalletId(), ex);
+      throw ExceptionTranslator.convert(ex);
+    }
+  }
+
+
+  @Override
+  public ChainBrand getBrandSupported() {
+    return ChainBrand.CORDA;
+  }
+
+}
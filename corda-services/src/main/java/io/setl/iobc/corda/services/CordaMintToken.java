@@ -3,8 +3,6 @@ package io.setl.iobc.corda.services;
 import java.util.concurrent.CompletableFuture;
 
 import lombok.extern.slf4j.Slf4j;
-import net.corda.core.messaging.FlowProgressHandle;
-import net.corda.core.transactions.SignedTransaction;
 import org.springframework.stereotype.Service;
 
 import io.setl.common.ParameterisedException;
@@ -25,9 +23,7 @@ public class CordaMintToken implements MintToken {
   public CompletableFuture<TransactionResult> apply(ChainConfiguration configuration, Input input) throws ParameterisedException {
     NodeConnection corda = (NodeConnection) configuration;
     try {
-      FlowProgressHandle<SignedTransaction> flow = corda.getProxy()
-          .startTrackedFlowDynamic(TokenMintFlow.Initiator.class, input.getSymbol(), input.getAmount(), input.getTo());
-      return NodeConnection.toFuture(flow, input.getTxProcessingMode());
+      return corda.startFlow(input.getTxProcessingMode(), TokenMintFlow.Initiator.class, input.getSymbol(), input.getAmount(), input.getTo());
     } catch (Throwable ex) {
       ex.printStackTrace();
       throw ExceptionTranslator.convert(ex);
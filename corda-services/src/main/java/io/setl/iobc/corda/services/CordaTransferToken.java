@@ -2,8 +2,6 @@ package io.setl.iobc.corda.services;
 
 import java.util.concurrent.CompletableFuture;
 
-import net.corda.core.messaging.FlowProgressHandle;
-import net.corda.core.transactions.SignedTransaction;
 import org.springframework.stereotype.Service;
 
 import io.setl.common.ParameterisedException;
@@ -23,9 +21,7 @@ public class CordaTransferToken implements TransferToken {
   public CompletableFuture<TransactionResult> apply(ChainConfiguration configuration, Input input) throws ParameterisedException {
     NodeConnection corda = (NodeConnection) configuration;
     try {
-      FlowProgressHandle<SignedTransaction> flow = corda.getProxy()
-          .startTrackedFlowDynamic(TransferFlow.Initiator.class, input.getSymbol(), input.getAmount(), input.getFrom(), input.getTo());
-      return NodeConnection.toFuture(flow, input.getTxProcessingMode());
+      return corda.startFlow(input.getTxProcessingMode(), TransferFlow.Initiator.class, input.getSymbol(), input.getAmount(), input.getFrom(), input.getTo());
     } catch (Throwable ex) {
       ex.printStackTrace();
       throw ExceptionTranslator.convert(ex);
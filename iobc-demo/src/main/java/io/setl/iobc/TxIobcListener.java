@@ -3,6 +3,7 @@ package io.setl.iobc;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import io.setl.iobc.authenticate.AuthenticatedMessage;
@@ -57,6 +58,13 @@ public class TxIobcListener implements IobcExtendedListener {
   }
 
 
+  @Override
+  public Set<String> getUserIds() {
+    // Replies for other users are discarded before they are verified.
+    return Set.of(userId);
+  }
+
+
   @Override
   public boolean shouldIgnore(AuthenticatedMessage message) {
     Response response = (Response) message.getContent();
@@ -0,0 +1,149 @@
+package io.setl.iobc.hf;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hyperledger.fabric.gateway.Identity;
+import org.hyperledger.fabric.gateway.Wallet;
+
+/**
+ * A wallet which holds recently used identities in memory, in front of another wallet. Reading an identity from a file system wallet reads and parses its JSON
+ * and PEM content, which is wasted work when the same identities submit transaction after transaction.
+ *
+ * <p>Identities are loaded when first requested. Entries are evicted when they have not been used for the idle time, or when the cache is full. Changes are
+ * written through to the underlying wallet, so it remains the record of every identity.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public class CachingWallet implements Wallet {
+
+  /** A cached identity. */
+  private static class Entry {
+
+    final Identity identity;
+
+    /** Time this was last used, from System.nanoTime(). */
+    volatile long lastUsed;
+
+
+    Entry(Identity identity) {
+      this.identity = identity;
+      lastUsed = System.nanoTime();
+    }
+
+  }
+
+
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Maximum idle time of an entry, in nanoseconds. */
+  private final long idleTime;
+
+  private final int maxSize;
+
+  /** The wallet which holds every identity. */
+  private final Wallet wallet;
+
+
+  /**
+   * New instance.
+   *
+   * @param wallet   the wallet which holds every identity
+   * @param maxSize  the maximum number of identities to cache
+   * @param idleTime the time after which an unused identity is evicted
+   */
+  public CachingWallet(Wallet wallet, int maxSize, Duration idleTime) {
+    if (maxSize < 1 || idleTime.isNegative() || idleTime.isZero()) {
+      throw new IllegalArgumentException("Wallet cache size and idle time must be positive");
+    }
+    this.wallet = wallet;
+    this.maxSize = maxSize;
+    this.idleTime = idleTime.toNanos();
+  }
+
+
+  /** Evict every entry. */
+  public void clear() {
+    entries.clear();
+  }
+
+
+  /**
+   * Evict entries which have not been used recently. If the cache is still full, the least recently used tenth is also evicted.
+   */
+  public void evict() {
+    long now = System.nanoTime();
+    entries.values().removeIf(e -> now - e.lastUsed > idleTime);
+
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    excess += Math.max(1, maxSize / 10);
+    long[] used = entries.values().stream().mapToLong(e -> e.lastUsed).sorted().toArray();
+    if (used.length == 0) {
+      return;
+    }
+    long threshold = used[Math.min(excess, used.length) - 1];
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && excess > 0) {
+      Entry entry = iterator.next().getValue();
+      if (entry.lastUsed - threshold <= 0) {
+        iterator.remove();
+        excess--;
+      }
+    }
+  }
+
+
+  @Override
+  public Identity get(String label) throws IOException {
+    long now = System.nanoTime();
+    Entry entry = entries.get(label);
+    if (entry != null && now - entry.lastUsed <= idleTime) {
+      entry.lastUsed = now;
+      return entry.identity;
+    }
+
+    Identity identity = wallet.get(label);
+    if (identity == null) {
+      // Missing identities are not cached, as they may be added to the underlying wallet by another process.
+      entries.remove(label);
+      return null;
+    }
+    entries.put(label, new Entry(identity));
+    if (entries.size() > maxSize) {
+      evict();
+    }
+    return identity;
+  }
+
+
+  @Override
+  public Set<String> list() throws IOException {
+    return wallet.list();
+  }
+
+
+  @Override
+  public void put(String label, Identity identity) throws IOException {
+    wallet.put(label, identity);
+    entries.put(label, new Entry(identity));
+    if (entries.size() > maxSize) {
+      evict();
+    }
+  }
+
+
+  @Override
+  public void remove(String label) throws IOException {
+    entries.remove(label);
+    wallet.remove(label);
+  }
+
+}
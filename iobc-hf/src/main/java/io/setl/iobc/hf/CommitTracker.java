@@ -0,0 +1,61 @@
+package io.setl.iobc.hf;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.fabric.gateway.spi.CommitListener;
+import org.hyperledger.fabric.gateway.spi.PeerDisconnectEvent;
+import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
+import org.hyperledger.fabric.sdk.BlockEvent.TransactionEvent;
+
+import io.setl.iobc.model.TransactionResult;
+import io.setl.iobc.model.TransactionResult.TxStatus;
+
+/**
+ * Completes the result of a transaction when its commit event is received from the channel's event service. No thread waits for the commit.
+ *
+ * <p>A commit event may be received from several peers. Only the first completes the result.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+class CommitTracker implements CommitListener {
+
+  private final CompletableFuture<TransactionResult> result;
+
+
+  CommitTracker(CompletableFuture<TransactionResult> result) {
+    this.result = result;
+  }
+
+
+  @Override
+  public void acceptCommit(TransactionEvent event) {
+    BigInteger blockNumber = BigInteger.valueOf(event.getBlockEvent().getBlockNumber());
+    if (event.isValid()) {
+      result.complete(TransactionResult.builder()
+          .transactionId(event.getTransactionID())
+          .blockNumber(blockNumber)
+          .txStatus(TxStatus.SUCCESS)
+          .message("Transaction successful")
+          .build());
+    } else {
+      TxValidationCode code = TxValidationCode.forNumber(event.getValidationCode());
+      result.complete(TransactionResult.builder()
+          .transactionId(event.getTransactionID())
+          .blockNumber(blockNumber)
+          .txStatus(TxStatus.FAILURE)
+          .message("Validation code: " + code)
+          .build());
+    }
+  }
+
+
+  @Override
+  public void acceptDisconnect(PeerDisconnectEvent event) {
+    // The event service reconnects, and the commit may still be received from another peer. If it is not, the result times out.
+    log.warn("Lost connection to peer {} while waiting for a commit", event.getPeer().getName(), event.getCause());
+  }
+
+}
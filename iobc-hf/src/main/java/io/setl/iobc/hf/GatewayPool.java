@@ -0,0 +1,248 @@
+package io.setl.iobc.hf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.fabric.gateway.Contract;
+import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.Network;
+import org.hyperledger.fabric.gateway.Wallet;
+
+/**
+ * Pool of gateway connections to a Fabric network, one per identity. Connecting a gateway opens channels to the peers and orderers, so a gateway is kept open
+ * and re-used, together with its network and contract handles. The connection profile is read once, rather than for every connection.
+ *
+ * <p>Gateways are closed when they have not been used for the idle time, or when the pool is full. A gateway which is in use is not closed.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Slf4j
+public class GatewayPool {
+
+  /** A pooled gateway, with its network and contract. */
+  private static class Entry {
+
+    final Contract contract;
+
+    final Gateway gateway;
+
+    final Network network;
+
+    /** Set when the entry has been removed from the pool. It must not be used once closed. */
+    boolean isClosed = false;
+
+    /** Time this was last used, from System.nanoTime(). */
+    long lastUsed;
+
+    /** Number of operations using this. */
+    int users = 0;
+
+
+    Entry(Gateway gateway, Network network, Contract contract) {
+      this.gateway = gateway;
+      this.network = network;
+      this.contract = contract;
+      lastUsed = System.nanoTime();
+    }
+
+  }
+
+
+
+  /**
+   * Use of a pooled gateway's contract. The lease must be closed when the operation is complete, so the gateway can be evicted.
+   */
+  public static class Lease implements AutoCloseable {
+
+    private final Entry entry;
+
+
+    Lease(Entry entry) {
+      this.entry = entry;
+    }
+
+
+    @Override
+    public void close() {
+      synchronized (entry) {
+        entry.users--;
+        entry.lastUsed = System.nanoTime();
+      }
+    }
+
+
+    public Contract getContract() {
+      return entry.contract;
+    }
+
+
+    public Network getNetwork() {
+      return entry.network;
+    }
+
+  }
+
+
+
+  private final String channelName;
+
+  private final String contractName;
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Maximum idle time of a gateway, in nanoseconds. */
+  private final long idleTime;
+
+  private final int maxSize;
+
+  /** The connection profile. */
+  private final byte[] networkConfig;
+
+  private final Wallet wallet;
+
+
+  /**
+   * New instance.
+   *
+   * @param wallet            the wallet holding the identities
+   * @param networkConfigFile the connection profile
+   * @param channelName       the channel the contract is on
+   * @param contractName      the contract's name
+   * @param maxSize           the maximum number of gateways to pool
+   * @param idleTime          the time after which an unused gateway is closed
+   *
+   * @throws IOException if the connection profile cannot be read
+   */
+  public GatewayPool(Wallet wallet, Path networkConfigFile, String channelName, String contractName, int maxSize, Duration idleTime) throws IOException {
+    if (maxSize < 1 || idleTime.isNegative() || idleTime.isZero()) {
+      throw new IllegalArgumentException("Gateway pool size and idle time must be positive");
+    }
+    this.wallet = wallet;
+    this.channelName = channelName;
+    this.contractName = contractName;
+    this.maxSize = maxSize;
+    this.idleTime = idleTime.toNanos();
+    networkConfig = Files.readAllBytes(networkConfigFile);
+  }
+
+
+  /**
+   * Acquire the use of the contract for an identity.
+   *
+   * @param userId the identity's label in the wallet
+   *
+   * @return the lease of the contract
+   *
+   * @throws IOException if the gateway could not be connected
+   */
+  public Lease acquire(String userId) throws IOException {
+    while (true) {
+      Entry entry = entries.get(userId);
+      if (entry == null) {
+        Entry newEntry = connect(userId);
+        entry = entries.putIfAbsent(userId, newEntry);
+        if (entry == null) {
+          entry = newEntry;
+          if (entries.size() > maxSize) {
+            evict();
+          }
+        } else {
+          // Another thread connected the same identity first
+          newEntry.gateway.close();
+        }
+      }
+
+      synchronized (entry) {
+        if (!entry.isClosed) {
+          entry.users++;
+          entry.lastUsed = System.nanoTime();
+          return new Lease(entry);
+        }
+      }
+      // The entry was evicted before it could be used, so try again.
+    }
+  }
+
+
+  /** Close every gateway which is not in use. */
+  public void clear() {
+    closeIf(e -> true, Integer.MAX_VALUE);
+  }
+
+
+  /**
+   * Close and remove the entries which match a condition and are not in use.
+   *
+   * @param test  the condition
+   * @param limit the maximum number to close
+   */
+  private void closeIf(Predicate<Entry> test, int limit) {
+    List<Entry> closed = new ArrayList<>();
+    for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+      if (closed.size() >= limit) {
+        break;
+      }
+      Entry entry = mapEntry.getValue();
+      synchronized (entry) {
+        if (entry.users == 0 && test.test(entry)) {
+          entry.isClosed = true;
+          entries.remove(mapEntry.getKey(), entry);
+          closed.add(entry);
+        }
+      }
+    }
+    for (Entry entry : closed) {
+      try {
+        entry.gateway.close();
+      } catch (RuntimeException e) {
+        log.warn("Failed to close Fabric gateway", e);
+      }
+    }
+  }
+
+
+  private Entry connect(String userId) throws IOException {
+    Gateway gateway = Gateway.createBuilder()
+        .identity(wallet, userId)
+        .networkConfig(new ByteArrayInputStream(networkConfig))
+        .connect();
+    try {
+      Network network = gateway.getNetwork(channelName);
+      return new Entry(gateway, network, network.getContract(contractName));
+    } catch (RuntimeException e) {
+      gateway.close();
+      throw e;
+    }
+  }
+
+
+  /**
+   * Close gateways which have not been used recently. If the pool is still full, the least recently used tenth is also closed.
+   */
+  public void evict() {
+    long now = System.nanoTime();
+    closeIf(e -> now - e.lastUsed > idleTime, Integer.MAX_VALUE);
+
+    int excess = entries.size() - maxSize;
+    if (excess <= 0) {
+      return;
+    }
+    excess += Math.max(1, maxSize / 10);
+    long[] used = entries.values().stream().mapToLong(e -> e.lastUsed).sorted().toArray();
+    if (used.length == 0) {
+      return;
+    }
+    long threshold = used[Math.min(excess, used.length) - 1];
+    closeIf(e -> e.lastUsed - threshold <= 0, excess);
+  }
+
+}
@@ -2,15 +2,12 @@ package io.setl.iobc.hf;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.security.KeyPair;
 import java.security.cert.CertificateException;
 import java.util.Properties;
 
 import org.hyperledger.fabric.gateway.Identities;
 import org.hyperledger.fabric.gateway.Wallet;
-import org.hyperledger.fabric.gateway.Wallets;
 import org.hyperledger.fabric.gateway.X509Identity;
 import org.hyperledger.fabric.sdk.Enrollment;
 import org.hyperledger.fabric.sdk.exception.CryptoException;
@@ -43,7 +40,7 @@ public class HFCAClientService {
 
   public HFCAClientService(
       String orgName,
-      String wallerDir,
+      Wallet wallet,
       String adminUserId,
       String adminUserSecret,
       String caName,
@@ -55,11 +52,9 @@ public class HFCAClientService {
     this.adminUserId = adminUserId;
     this.adminUserSecret = adminUserSecret;
     this.orgMspId = orgMspId;
+    this.wallet = wallet;
 
     try {
-      Path walletDirectory = Paths.get(wallerDir);
-      wallet = Wallets.newFileSystemWallet(walletDirectory);
-
       Properties caProperties = new Properties();
       caProperties.put("allowAllHostNames", "true");
       caProperties.put("pemBytes", tlsPem.getBytes());
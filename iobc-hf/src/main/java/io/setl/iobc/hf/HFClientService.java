@@ -3,22 +3,26 @@ package io.setl.iobc.hf;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import org.hyperledger.fabric.gateway.Contract;
 import org.hyperledger.fabric.gateway.ContractException;
-import org.hyperledger.fabric.gateway.Gateway;
+import org.hyperledger.fabric.gateway.DefaultCommitHandlers;
 import org.hyperledger.fabric.gateway.Network;
 import org.hyperledger.fabric.gateway.Transaction;
 import org.hyperledger.fabric.gateway.Wallet;
-import org.hyperledger.fabric.gateway.Wallets;
-import org.hyperledger.fabric.protos.peer.TransactionPackage.TxValidationCode;
-import org.hyperledger.fabric.sdk.BlockEvent.TransactionEvent;
+import org.hyperledger.fabric.gateway.spi.CommitListener;
+import org.hyperledger.fabric.sdk.Peer;
+import org.hyperledger.fabric.sdk.Peer.PeerRole;
 import org.hyperledger.fabric.sdk.ProposalResponse;
-import org.hyperledger.fabric.sdk.exception.TransactionEventException;
 
 import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.hf.GatewayPool.Lease;
 import io.setl.iobc.model.ChainBrand;
 import io.setl.iobc.model.TransactionInput.TxProcessingMode;
 import io.setl.iobc.model.TransactionResult;
@@ -29,60 +33,96 @@ import io.setl.iobc.util.ExceptionTranslator;
  */
 public class HFClientService implements ChainConfiguration {
 
-  private final String channelName;
+  private static final String CONTRACT_NAME = "setl-multi-erc20";
+
+  /** How long to wait for a transaction's commit event before reporting its status as unknown. */
+  private final Duration commitTimeout;
+
+  /** Gateways connected to the network, with their contracts. */
+  private final GatewayPool gatewayPool;
 
   private final HFCAClientService hfcaClientService;
 
   private final String iobcId;
 
-  private final Path networkConfigFile;
-
   private final String paramsSummary;
 
-  private final Wallet wallet;
-
 
   public HFClientService(
       String iobcId,
       String orgName,
       String ccpFilePath,
       String walletDir,
+      Wallet wallet,
       String channelName,
-      HFCAClientService hfcaClientService
+      HFCAClientService hfcaClientService,
+      int gatewayPoolSize,
+      Duration gatewayIdleTime,
+      Duration commitTimeout
   ) throws IOException {
     this.iobcId = iobcId;
+    this.commitTimeout = commitTimeout;
     this.hfcaClientService = hfcaClientService;
 
     paramsSummary = String.format("HFClientService class=> OrgName: %s; ccpFilePath: %s, wallet dir: %s", orgName, ccpFilePath, walletDir);
-    this.channelName = channelName;
 
     // Path to a common connection profile describing the network.
-    networkConfigFile = Paths.get(ccpFilePath);
+    Path networkConfigFile = Paths.get(ccpFilePath);
 
-    Path walletDirectory = Paths.get(walletDir);
-    wallet = Wallets.newFileSystemWallet(walletDirectory);
+    gatewayPool = new GatewayPool(wallet, networkConfigFile, channelName, CONTRACT_NAME, gatewayPoolSize, gatewayIdleTime);
   }
 
 
-  public CompletableFuture<TransactionResult> executeTransaction(TxProcessingMode mode, String userId, String funcName, String... contractArgs)
-      throws IOException {
-    final String contractName = "setl-multi-erc20";
+  /** Close gateways which are no longer in use. */
+  public void evictGateways() {
+    gatewayPool.evict();
+  }
 
-    // Configure the gateway connection used to access the network.
-    Gateway gateway = Gateway.createBuilder()
-        .identity(wallet, userId)
-        .networkConfig(networkConfigFile)
-        .connect();
 
-    // Obtain a smart contract deployed on the network.
-    Network network = gateway.getNetwork(channelName);
-    Contract contract = network.getContract(contractName);
+  /**
+   * Execute a transaction. The transaction is endorsed and sent to the orderer, and its result is completed when the commit event is received from the
+   * channel. No thread waits for the commit.
+   *
+   * @param mode         if RETURN_ID, the transaction is endorsed and ordered asynchronously and its ID is returned immediately
+   * @param userId       the identity submitting the transaction
+   * @param funcName     the chaincode function
+   * @param contractArgs the function's arguments
+   *
+   * @return the transaction's result
+   */
+  public CompletableFuture<TransactionResult> executeTransaction(TxProcessingMode mode, String userId, String funcName, String... contractArgs)
+      throws IOException {
+    // The lease is released when the transaction completes, so the gateway and its event service stay connected until then.
+    Lease lease = gatewayPool.acquire(userId);
 
-    // Submit transactions that store state to the ledger.
-    Transaction trxn = contract.createTransaction(funcName);
+    CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+    Transaction trxn;
+    try {
+      // Submit transactions that store state to the ledger. The commit is tracked by a listener, so submission only waits for the orderer.
+      trxn = lease.getContract().createTransaction(funcName);
+      trxn.setCommitHandler(DefaultCommitHandlers.NONE);
+
+      Network network = lease.getNetwork();
+      Collection<Peer> eventSources = network.getChannel().getPeers(EnumSet.of(PeerRole.EVENT_SOURCE));
+      CommitListener listener = network.addCommitListener(new CommitTracker(result), eventSources, trxn.getTransactionId());
+      result.whenComplete((r, t) -> {
+        network.removeCommitListener(listener);
+        lease.close();
+      });
+    } catch (RuntimeException e) {
+      lease.close();
+      throw e;
+    }
     String trxnId = trxn.getTransactionId();
+    result.completeOnTimeout(
+        TransactionResult.builder()
+            .transactionId(trxnId)
+            .txStatus(TransactionResult.TxStatus.UNKNOWN)
+            .message("No commit event received within " + commitTimeout)
+            .build(),
+        commitTimeout.toNanos(), TimeUnit.NANOSECONDS
+    );
 
-    CompletableFuture<TransactionResult> result = new CompletableFuture<>();
     CompletableFuture<TransactionResult> output;
     if (mode == TxProcessingMode.RETURN_ID) {
       CompletableFuture<TransactionResult> pending = CompletableFuture.completedFuture(
@@ -93,7 +133,12 @@ public class HFClientService implements ChainConfiguration {
               .build()
       );
       output = pending;
-      HFClientServiceFactory.executorService.submit(() -> submit(result, trxn, contractArgs));
+      try {
+        HFClientServiceFactory.executorService.submit(() -> submit(result, trxn, contractArgs));
+      } catch (RejectedExecutionException e) {
+        // Completing the result releases the lease
+        result.completeExceptionally(ExceptionTranslator.convert(e));
+      }
     } else {
       submit(result, trxn, contractArgs);
       output = result;
@@ -122,22 +167,9 @@ public class HFClientService implements ChainConfiguration {
 
   public byte[] queryTransaction(String userId, String funcName, String... contractArgs)
       throws ContractException, IOException {
-    final String contractName = "setl-multi-erc20";
-
-    // Configure the gateway connection used to access the network.
-    Gateway.Builder builder = Gateway.createBuilder()
-        .identity(wallet, userId)
-        .networkConfig(networkConfigFile);
-
-    // Create a gateway connection
-    try (Gateway gateway = builder.connect()) {
-
-      // Obtain a smart contract deployed on the network.
-      Network network = gateway.getNetwork(channelName);
-      Contract contract = network.getContract(contractName);
-
+    try (Lease lease = gatewayPool.acquire(userId)) {
       // Evaluate transactions that query state from the ledger.
-      return contract.evaluateTransaction(funcName, contractArgs);
+      return lease.getContract().evaluateTransaction(funcName, contractArgs);
 
     } catch (ContractException e) {
       e.printStackTrace();
@@ -148,25 +180,10 @@ public class HFClientService implements ChainConfiguration {
 
   private void submit(CompletableFuture<TransactionResult> result, Transaction trxn, String[] contractArgs) {
     try {
+      // Endorse and send to the orderer. The commit tracker completes the result.
       trxn.submit(contractArgs);
-      result.complete(TransactionResult.builder().transactionId(trxn.getTransactionId())
-          .txStatus(TransactionResult.TxStatus.SUCCESS)
-          .message("Transaction successful")
-          .build());
     } catch (ContractException cex) {
       cex.printStackTrace();
-      if (cex.getCause() instanceof TransactionEventException) {
-        TransactionEventException tee = (TransactionEventException) cex.getCause();
-        TransactionEvent event = tee.getTransactionEvent();
-        TxValidationCode code = TxValidationCode.forNumber(event.getValidationCode());
-        result.complete(TransactionResult.builder()
-            .transactionId(event.getTransactionID())
-            .txStatus(TransactionResult.TxStatus.FAILURE)
-            .message("Validation code: " + code)
-            .build());
-        return;
-      }
-
       ProposalResponse response = cex.getProposalResponses().stream().findFirst().orElseThrow();
       result.complete(TransactionResult.builder()
           .transactionId(response.getTransactionID())
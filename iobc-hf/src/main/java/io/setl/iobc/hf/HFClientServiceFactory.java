@@ -6,12 +6,16 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import org.hyperledger.fabric.gateway.Wallets;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import io.setl.common.TypeSafeMap;
@@ -40,6 +44,12 @@ public class HFClientServiceFactory implements ChainConfigurationFactory {
     executorService = executor;
   }
 
+  /** The services created by this factory, whose gateways must be evicted when idle. */
+  private final CopyOnWriteArrayList<HFClientService> services = new CopyOnWriteArrayList<>();
+
+  /** The wallet caches created by this factory. */
+  private final CopyOnWriteArrayList<CachingWallet> wallets = new CopyOnWriteArrayList<>();
+
 
   @Override
   public ChainConfiguration create(String iobcId, Map<String, Object> properties) {
@@ -59,18 +69,54 @@ public class HFClientServiceFactory implements ChainConfigurationFactory {
     String tlsPem = map.getString("tlsPem");
     String orgMspId = require(map, "orgMspId");
 
+    // Gateway pool and commit tracking properties
+    int gatewayPoolSize = map.getInt("gatewayPoolSize", 100);
+    Duration gatewayIdleTime = Duration.parse(map.getString("gatewayIdleTime", "PT10M"));
+    Duration commitTimeout = Duration.parse(map.getString("commitTimeout", "PT5M"));
+
+    // Identity cache properties
+    int walletCacheSize = map.getInt("walletCacheSize", 1000);
+    Duration walletIdleTime = Duration.parse(map.getString("walletIdleTime", "PT10M"));
+
     try {
       // Load the certificate
       String tlsPemText = (tlsPem != null && !tlsPem.isBlank()) ? Files.readString(Path.of(tlsPem)) : null;
 
-      HFCAClientService hfcaClientService = new HFCAClientService(orgName, walletDir, adminUserId, adminUserSecret, caName, caUrl, tlsPemText, orgMspId);
-      return new HFClientService(iobcId, orgName, ccpFilePath, walletDir, channelName, hfcaClientService);
+      // The client and the certificate authority share the wallet, so newly enrolled identities are cached
+      CachingWallet wallet = new CachingWallet(Wallets.newFileSystemWallet(Path.of(walletDir)), walletCacheSize, walletIdleTime);
+
+      HFCAClientService hfcaClientService = new HFCAClientService(orgName, wallet, adminUserId, adminUserSecret, caName, caUrl, tlsPemText, orgMspId);
+      HFClientService service = new HFClientService(
+          iobcId, orgName, ccpFilePath, walletDir, wallet, channelName, hfcaClientService, gatewayPoolSize, gatewayIdleTime,
+          commitTimeout
+      );
+      services.add(service);
+      wallets.add(wallet);
+      return service;
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
 
+  /**
+   * Periodic eviction of idle gateways, which closes their connections to the network.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void evictGateways() {
+    services.forEach(HFClientService::evictGateways);
+  }
+
+
+  /**
+   * Periodic eviction of idle identities from the wallet caches.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void evictIdentities() {
+    wallets.forEach(CachingWallet::evict);
+  }
+
+
   @Override
   public ChainBrand getIobcBrand() {
     return ChainBrand.FABRIC;
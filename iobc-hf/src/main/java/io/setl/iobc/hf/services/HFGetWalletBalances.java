@@ -0,0 +1,77 @@
+package io.setl.iobc.hf.services;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import io.setl.common.ParameterisedException;
+import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.hf.HFClientService;
+import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.address.SetlAddress;
+import io.setl.iobc.model.tokens.GetWalletBalances;
+import io.setl.iobc.table.AddressTable;
+import io.setl.iobc.util.ExceptionTranslator;
+
+/**
+ * Get the balances of every address in a wallet. The chaincode cannot query a past state of the ledger, nor return the balances of many addresses at once, so
+ * each address is queried in turn. Locking is not supported on Fabric, so nothing is ever locked.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service("hfGetWalletBalances")
+@Slf4j
+public class HFGetWalletBalances implements GetWalletBalances {
+
+  private static final String FUNC_NAME = "ClientAccountBalance";
+
+  private final AddressTable addressTable;
+
+
+  /** New instance. */
+  @Autowired
+  public HFGetWalletBalances(AddressTable addressTable) {
+    this.addressTable = addressTable;
+  }
+
+
+  @Override
+  public CompletableFuture<Output> apply(ChainConfiguration configuration, Input input) throws ParameterisedException {
+    HFClientService hfClientService = (HFClientService) configuration;
+
+    try {
+      String[] contractArgs = {input.getSymbol()};
+      TreeMap<String, Balance> balances = new TreeMap<>();
+
+      // Only the wallet's addresses on this chain can hold the token
+      Map<String, SetlAddress> addresses = addressTable.getAllAddresses(input.getWalletId());
+      if (addresses != null) {
+        for (SetlAddress address : addresses.values()) {
+          if (hfClientService.getIobcId().equals(address.getChainId())) {
+            byte[] result = hfClientService.queryTransaction(address.getAddress(), FUNC_NAME, contractArgs);
+            String balStr = new String(result, StandardCharsets.UTF_8);
+            balances.put(address.getAddress(), Balance.builder().balance(new BigInteger(balStr)).locked(BigInteger.ZERO).build());
+          }
+        }
+      }
+
+      Output output = Output.builder().balances(balances).block(-1).walletId(input.getWalletId()).build();
+      return CompletableFuture.completedFuture(output);
+    } catch (Exception e) {
+      throw ExceptionTranslator.convert(e);
+    }
+  }
+
+
+  @Override
+  public ChainBrand getBrandSupported() {
+    return ChainBrand.FABRIC;
+  }
+
+}
@@ -0,0 +1,107 @@
+package io.setl.iobc.authenticate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of message ID creation as the number of threads grows. With more users than the generator retains, users are continually evicted and recreated.
+ *
+ * @author Simon Greatrix on 07/03/2022.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class MessageIdGeneratorBenchmark {
+
+  /** The users each thread sends as. */
+  @State(Scope.Thread)
+  public static class Sender {
+
+    private int next;
+
+
+    String nextUser(String[] userIds) {
+      next = (next + 1) % userIds.length;
+      return userIds[next];
+    }
+
+
+    @Setup
+    public void setup() {
+      // Start each thread at a different user, so threads do not move through the users in step.
+      next = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+    }
+
+  }
+
+
+
+  /** Number of distinct users. The generator retains 1000 users. */
+  @Param({"1", "100", "5000"})
+  public int users;
+
+  private MessageIdGenerator generator;
+
+  private String[] userIds;
+
+
+  private String create(Sender sender) {
+    return generator.apply(sender.nextUser(userIds));
+  }
+
+
+  @Benchmark
+  @Threads(4)
+  public String fourThreads(Sender sender) {
+    return create(sender);
+  }
+
+
+  @Benchmark
+  @Threads(1)
+  public String oneThread(Sender sender) {
+    return create(sender);
+  }
+
+
+  /** Create the generator and the user IDs. */
+  @Setup
+  public void setup() {
+    generator = new MessageIdGenerator();
+    userIds = new String[users];
+    for (int i = 0; i < users; i++) {
+      userIds[i] = "user-" + i;
+    }
+  }
+
+
+  @Benchmark
+  @Threads(16)
+  public String sixteenThreads(Sender sender) {
+    return create(sender);
+  }
+
+
+  @Benchmark
+  @Threads(64)
+  public String sixtyFourThreads(Sender sender) {
+    return create(sender);
+  }
+
+}
@@ -0,0 +1,103 @@
+package io.setl.iobc.authenticate;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.setl.http.signatures.KeySpecification;
+import io.setl.iobc.model.tokens.TransferToken;
+
+/**
+ * Compare the CPU cost of the wire formats, and the size of the records they produce.
+ *
+ * @author Simon Greatrix on 06/03/2022.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class WireFormatBenchmark {
+
+  /** The size of a serialized record, reported by JMH alongside the timings. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class RecordSize {
+
+    /** The record's length in bytes. It is set, not accumulated, so each iteration reports one record's size. */
+    public long recordBytes;
+
+  }
+
+
+  private static final String TOPIC = "setl-iobc.inbound";
+
+  @Param({"JSON", "CBOR"})
+  public WireFormat format;
+
+  private RecordHeaders headers;
+
+  private byte[] record;
+
+  private AuthenticatedMessageSerde serde;
+
+  private SignaturePool signers;
+
+
+  /** Deserialize a record and verify its signature. */
+  @Benchmark
+  public boolean deserialize() {
+    AuthenticatedMessage message = serde.deserializer().deserialize(TOPIC, headers, record);
+    return message.isValidSignature(signers);
+  }
+
+
+  private AuthenticatedMessage newMessage() throws Exception {
+    TransferToken.Input input = TransferToken.Input.builder()
+        .symbol("EURO")
+        .amount(BigInteger.valueOf(1_000_000))
+        .from("AWBdTj4kb3yzZ3dzVdKXFrHsEiqcmAa2EA")
+        .to("AXdf7Uu9vWaEj1DpM9h3zjwCdsDW7rL8Xc")
+        .build();
+    AuthenticatedMessage message = new AuthenticatedMessage("benchmark", "transferToken", input);
+    message.sign(signers, format);
+    return message;
+  }
+
+
+  /** Create, sign, and serialize a message. */
+  @Benchmark
+  public byte[] serialize(RecordSize size) throws Exception {
+    byte[] serialized = serde.serializer().serialize(TOPIC, new RecordHeaders(), newMessage());
+    size.recordBytes = serialized.length;
+    return serialized;
+  }
+
+
+  /** Prepare the record to deserialize. */
+  @Setup
+  public void setup() throws Exception {
+    SecretKeySpec key = new SecretKeySpec("benchmark secret".getBytes(StandardCharsets.UTF_8), "RAW");
+    signers = new SignaturePool(new KeySpecification("benchmark", key, "HmacSHA256"));
+    serde = new AuthenticatedMessageSerde();
+    headers = new RecordHeaders();
+    record = serde.serializer().serialize(TOPIC, headers, newMessage());
+  }
+
+}
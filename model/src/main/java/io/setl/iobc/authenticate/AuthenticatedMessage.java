@@ -9,11 +9,13 @@ import java.util.Objects;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,12 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import io.setl.http.signatures.KeySpecification;
 import io.setl.http.signatures.error.UnsupportedAlgorithmException;
-import io.setl.http.signatures.sign.Sign;
-import io.setl.http.signatures.sign.SignFactory;
-import io.setl.http.signatures.verify.Verify;
-import io.setl.http.signatures.verify.VerifyFactory;
 import io.setl.iobc.model.Response.InReplyTo;
-import io.setl.iobc.util.SerdeSupport;
 
 /**
  * A Message that can be signed and verified. Although it would be more elegant to store some parts of this in a message header that would require dependencies
@@ -45,8 +42,6 @@ public class AuthenticatedMessage {
 
   private static final Encoder SIGNATURE_ENCODE = Base64.getUrlEncoder().withoutPadding();
 
-  private static final ObjectWriter SIGNATURE_WRITER;
-
 
 
   private interface ContentTypeSpecifier {
@@ -67,10 +62,22 @@ public class AuthenticatedMessage {
 
 
 
-  static {
-    SIGNATURE_WRITER = SerdeSupport.getObjectMapper().writerFor(AuthenticatedMessage.class);
+  /** The bytes that are signed. Creating them requires the whole message to be serialized, so they are cached. */
+  private static class SigningBytes {
+
+    /** The canonical form of the message with an empty signature. */
+    byte[] bytes;
+
+    /** The format the bytes are in. */
+    WireFormat format = WireFormat.JSON;
+
+    /** True if the bytes were derived from the form in which the message was received. */
+    boolean isReceived;
+
   }
 
+
+
   /** The content of this message. */
   @JsonTypeInfo(use = Id.CLASS, include = As.WRAPPER_OBJECT)
   private final MessageContent content;
@@ -81,6 +88,10 @@ public class AuthenticatedMessage {
   /** This message's ID (must be unique, to prevent replays). */
   private final String messageId;
 
+  /** The reply-to name of the client's own reply topic, or null for the shared outbound topic. It is signed, so it cannot be redirected in transit. */
+  @JsonInclude(Include.NON_NULL)
+  private final String replyTo;
+
   /** The message's type. */
   private final String type;
 
@@ -90,6 +101,9 @@ public class AuthenticatedMessage {
   /** This message's signature in Base-64 URL with no padding. */
   private String signature;
 
+  /** Cache of the signed bytes. As this is final and initialised, it is not part of the builder. */
+  private final SigningBytes signingBytes = new SigningBytes();
+
 
   /**
    * Create a message with no content.
@@ -102,6 +116,7 @@ public class AuthenticatedMessage {
     messageId = MessageIdGenerator.INSTANCE.apply(userId);
     createTime = System.currentTimeMillis();
     content = null;
+    replyTo = null;
     signature = "";
   }
 
@@ -113,11 +128,24 @@ public class AuthenticatedMessage {
    * @param content the content
    */
   public AuthenticatedMessage(String userId, String type, MessageContent content) {
+    this(userId, type, content, null);
+  }
+
+
+  /**
+   * Create a message which asks for its replies on the client's own reply topic.
+   *
+   * @param userId  the sending user
+   * @param content the content
+   * @param replyTo the reply-to name of the client's reply topic, or null for the shared outbound topic
+   */
+  public AuthenticatedMessage(String userId, String type, MessageContent content, String replyTo) {
     this.userId = userId;
     this.type = type;
     messageId = MessageIdGenerator.INSTANCE.apply(userId);
     createTime = System.currentTimeMillis();
     this.content = content;
+    this.replyTo = replyTo;
     signature = "";
   }
 
@@ -159,6 +187,12 @@ public class AuthenticatedMessage {
   }
 
 
+  @JsonInclude(Include.NON_NULL)
+  public String getReplyTo() {
+    return replyTo;
+  }
+
+
   @NotEmpty
   public String getSignature() {
     return signature;
@@ -177,6 +211,17 @@ public class AuthenticatedMessage {
   }
 
 
+  /**
+   * Get the format this message was signed or received in.
+   *
+   * @return the format
+   */
+  @JsonIgnore
+  public WireFormat getWireFormat() {
+    return signingBytes.format;
+  }
+
+
   @Override
   public int hashCode() {
     return Objects.hash(messageId);
@@ -191,35 +236,109 @@ public class AuthenticatedMessage {
    * @return true if valid
    */
   public boolean isValidSignature(KeySpecification publicKey) {
-    if (signature.isEmpty() || publicKey == null) {
+    return publicKey != null && isValidSignature(new SignaturePool(publicKey));
+  }
+
+
+  /**
+   * Verify if this message has a valid signature.
+   *
+   * @param pool the verifiers for the public key
+   *
+   * @return true if valid
+   */
+  public boolean isValidSignature(SignaturePool pool) {
+    if (signature.isEmpty() || pool == null) {
       return false;
     }
     try {
-      Verify verify = VerifyFactory.create(publicKey);
-      return verify.verify(SIGNATURE_DECODE.decode(signature), toBytes());
+      byte[] expected = SIGNATURE_DECODE.decode(signature);
+      if (pool.verify(expected, toBytes())) {
+        return true;
+      }
+      if (signingBytes.isReceived) {
+        // The sender may not have used the canonical form, so check against a locally generated form.
+        signingBytes.bytes = null;
+        signingBytes.isReceived = false;
+        return pool.verify(expected, toBytes());
+      }
+      return false;
     } catch (InvalidKeyException | UnsupportedAlgorithmException e) {
-      log.error("Invalid key provided for signature validation: {}", publicKey, e);
+      log.error("Invalid key provided for signature validation: {}", pool.getKeySpecification(), e);
       return false;
     }
   }
 
 
+  /**
+   * Record the form in which this message was received, so that the signature can be verified without serializing the message again.
+   *
+   * @param received the received bytes
+   */
+  void setReceivedBytes(byte[] received) {
+    byte[] bytes = CanonicalSignature.blank(received);
+    if (bytes != null) {
+      signingBytes.bytes = bytes;
+      signingBytes.isReceived = true;
+    }
+  }
+
+
+  /**
+   * Record the form in which this message was received, when the signature was carried separately from the signed bytes.
+   *
+   * @param format       the format of the received bytes
+   * @param received     the received bytes, which are exactly the bytes that were signed
+   * @param newSignature the signature
+   */
+  void setReceivedBytes(WireFormat format, byte[] received, String newSignature) {
+    signingBytes.bytes = received;
+    signingBytes.format = format;
+    signingBytes.isReceived = true;
+    signature = newSignature;
+  }
+
+
   public void sign(KeySpecification privateKey) throws UnsupportedAlgorithmException, InvalidKeyException {
-    Sign signer = SignFactory.create(privateKey);
-    signature = SIGNATURE_ENCODE.encodeToString(signer.sign(toBytes()));
+    sign(new SignaturePool(privateKey));
+  }
+
+
+  public void sign(SignaturePool pool) throws UnsupportedAlgorithmException, InvalidKeyException {
+    sign(pool, WireFormat.JSON);
+  }
+
+
+  /**
+   * Sign this message for sending in the specified format.
+   *
+   * @param pool   the signers for the private key
+   * @param format the format the message will be sent in
+   */
+  public void sign(SignaturePool pool, WireFormat format) throws UnsupportedAlgorithmException, InvalidKeyException {
+    if (signingBytes.format != format) {
+      signingBytes.bytes = null;
+      signingBytes.format = format;
+      signingBytes.isReceived = false;
+    }
+    signature = SIGNATURE_ENCODE.encodeToString(pool.sign(toBytes()));
   }
 
 
   /**
-   * Convert this to bytes to check the signature.
+   * Convert this to bytes in its wire format to check the signature.
    *
    * @return the bytes to sign
    */
-  private byte[] toBytes() {
+  byte[] toBytes() {
+    if (signingBytes.bytes != null) {
+      return signingBytes.bytes;
+    }
     String oldSignature = signature;
     signature = "";
     try {
-      return SIGNATURE_WRITER.writeValueAsBytes(this);
+      signingBytes.bytes = signingBytes.format.getWriter().writeValueAsBytes(this);
+      return signingBytes.bytes;
     } catch (JsonProcessingException e) {
       throw new UncheckedIOException(e);
     } finally {
@@ -228,6 +347,19 @@ public class AuthenticatedMessage {
   }
 
 
+  /**
+   * Get the canonical JSON form of this signed message from the cached signed bytes, if they are available.
+   *
+   * @return the canonical form, or null
+   */
+  byte[] toSignedBytes() {
+    if (signingBytes.bytes == null || signingBytes.format != WireFormat.JSON || signature.isEmpty()) {
+      return null;
+    }
+    return CanonicalSignature.insert(signingBytes.bytes, signature);
+  }
+
+
   @Override
   public String toString() {
     return String.format(
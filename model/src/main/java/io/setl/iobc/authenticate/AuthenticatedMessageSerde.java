@@ -0,0 +1,194 @@
+package io.setl.iobc.authenticate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import io.setl.iobc.util.SerdeSupport;
+
+/**
+ * Serialization of authenticated messages which avoids serializing a message more than once. A message that has been signed is written by inserting its
+ * signature into the bytes that were signed. A message that is received retains the bytes that were signed so they are available for verification.
+ *
+ * <p>A message is written in the {@link WireFormat} it was signed for. A binary record is the signature length as two bytes, the signature in ASCII, and then
+ * the signed bytes, and carries the {@link WireFormat#HEADER} header. The JSON format is used for records without the header.</p>
+ *
+ * @author Simon Greatrix on 05/03/2022.
+ */
+public class AuthenticatedMessageSerde implements Serde<AuthenticatedMessage> {
+
+  /** Deserializer which retains the received bytes. */
+  public static class MessageDeserializer implements Deserializer<AuthenticatedMessage> {
+
+    private final Deserializer<AuthenticatedMessage> delegate = SerdeSupport.newDeserializer(AuthenticatedMessage.class);
+
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+      delegate.configure(configs, isKey);
+    }
+
+
+    @Override
+    public AuthenticatedMessage deserialize(String topic, byte[] data) {
+      return retain(delegate.deserialize(topic, data), data);
+    }
+
+
+    @Override
+    public AuthenticatedMessage deserialize(String topic, Headers headers, byte[] data) {
+      Header header = headers.lastHeader(WireFormat.HEADER);
+      if (header == null || data == null) {
+        return retain(delegate.deserialize(topic, headers, data), data);
+      }
+
+      WireFormat format;
+      try {
+        format = WireFormat.forHeader(header.value());
+      } catch (IllegalArgumentException e) {
+        throw new SerializationException(e.getMessage(), e);
+      }
+      if (format == WireFormat.JSON) {
+        return retain(delegate.deserialize(topic, headers, data), data);
+      }
+      return readBinary(format, data);
+    }
+
+
+    private AuthenticatedMessage readBinary(WireFormat format, byte[] data) {
+      if (data.length < 2) {
+        throw new SerializationException("Binary record is too short: " + data.length);
+      }
+      int length = ((data[0] & 0xff) << 8) | (data[1] & 0xff);
+      if (data.length < 2 + length) {
+        throw new SerializationException("Binary record is shorter than its signature: " + data.length);
+      }
+      String signature = new String(data, 2, length, StandardCharsets.US_ASCII);
+      byte[] signed = Arrays.copyOfRange(data, 2 + length, data.length);
+
+      AuthenticatedMessage message;
+      try {
+        message = format.getReader().readValue(signed);
+      } catch (IOException e) {
+        throw new SerializationException("Invalid " + format + " record", e);
+      }
+      message.setReceivedBytes(format, signed, signature);
+      return message;
+    }
+
+
+    private AuthenticatedMessage retain(AuthenticatedMessage message, byte[] data) {
+      if (message != null) {
+        message.setReceivedBytes(data);
+      }
+      return message;
+    }
+
+  }
+
+
+
+  /** Serializer which reuses the signed bytes. */
+  public static class MessageSerializer implements Serializer<AuthenticatedMessage> {
+
+    private final Serializer<AuthenticatedMessage> delegate = SerdeSupport.newSerializer(AuthenticatedMessage.class);
+
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+      delegate.configure(configs, isKey);
+    }
+
+
+    @Override
+    public byte[] serialize(String topic, AuthenticatedMessage data) {
+      if (data != null && data.getWireFormat() != WireFormat.JSON) {
+        throw new SerializationException("Record headers are required to write the " + data.getWireFormat() + " format");
+      }
+      byte[] bytes = (data != null) ? data.toSignedBytes() : null;
+      return (bytes != null) ? bytes : delegate.serialize(topic, data);
+    }
+
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, AuthenticatedMessage data) {
+      if (data != null && data.getWireFormat() != WireFormat.JSON) {
+        headers.add(WireFormat.HEADER, data.getWireFormat().getHeaderValue());
+        return writeBinary(data);
+      }
+
+      // The deserializer has a fixed target type, so no type headers are needed when the signed bytes are reused.
+      byte[] bytes = (data != null) ? data.toSignedBytes() : null;
+      return (bytes != null) ? bytes : delegate.serialize(topic, headers, data);
+    }
+
+
+    private byte[] writeBinary(AuthenticatedMessage data) {
+      byte[] signature = data.getSignature().getBytes(StandardCharsets.US_ASCII);
+      if (signature.length > 0xffff) {
+        throw new SerializationException("Signature is too long: " + signature.length);
+      }
+      byte[] signed = data.toBytes();
+      byte[] output = new byte[2 + signature.length + signed.length];
+      output[0] = (byte) (signature.length >>> 8);
+      output[1] = (byte) signature.length;
+      System.arraycopy(signature, 0, output, 2, signature.length);
+      System.arraycopy(signed, 0, output, 2 + signature.length, signed.length);
+      return output;
+    }
+
+  }
+
+
+
+  private final MessageDeserializer deserializer = new MessageDeserializer();
+
+  private final MessageSerializer serializer = new MessageSerializer();
+
+
+  @Override
+  public void close() {
+    serializer.close();
+    deserializer.close();
+  }
+
+
+  @Override
+  public void configure(Map<String, ?> configs, boolean isKey) {
+    serializer.configure(configs, isKey);
+    deserializer.configure(configs, isKey);
+  }
+
+
+  @Override
+  public Deserializer<AuthenticatedMessage> deserializer() {
+    return deserializer;
+  }
+
+
+  @Override
+  public Serializer<AuthenticatedMessage> serializer() {
+    return serializer;
+  }
+
+}
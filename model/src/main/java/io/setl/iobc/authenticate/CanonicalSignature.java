@@ -0,0 +1,135 @@
+package io.setl.iobc.authenticate;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Manipulation of the signature property in the canonical JSON form of an authenticated message. The canonical form of a signed message differs from the bytes
+ * that were signed only in the value of the top-level "signature" property, so the one can be derived from the other without re-serializing the message.
+ *
+ * @author Simon Greatrix on 05/03/2022.
+ */
+class CanonicalSignature {
+
+  /** The property name and separator which precede the signature value. */
+  private static final byte[] KEY = "\"signature\":\"".getBytes(StandardCharsets.US_ASCII);
+
+
+  /**
+   * Remove the signature value from a signed message.
+   *
+   * @param signed the canonical JSON of a signed message
+   *
+   * @return the bytes that were signed, or null if the signature property could not be located
+   */
+  static byte[] blank(byte[] signed) {
+    long span = find(signed);
+    if (span == -1) {
+      return null;
+    }
+    int start = (int) (span >>> 32);
+    int end = (int) span;
+    byte[] output = new byte[signed.length - (end - start)];
+    System.arraycopy(signed, 0, output, 0, start);
+    System.arraycopy(signed, end, output, start, signed.length - end);
+    return output;
+  }
+
+
+  /**
+   * Locate the value of the top-level signature property.
+   *
+   * @param json the canonical JSON
+   *
+   * @return the start of the value in the upper 32 bits and the end of the value in the lower 32 bits, or -1 if not found.
+   */
+  private static long find(byte[] json) {
+    int depth = 0;
+    boolean inString = false;
+    for (int i = 0; i < json.length; i++) {
+      byte b = json[i];
+      if (inString) {
+        if (b == '\\') {
+          i++;
+        } else if (b == '"') {
+          inString = false;
+        }
+        continue;
+      }
+
+      switch (b) {
+        case '{':
+        case '[':
+          depth++;
+          break;
+        case '}':
+        case ']':
+          depth--;
+          break;
+        case '"':
+          if (depth == 1 && i > 0 && (json[i - 1] == '{' || json[i - 1] == ',') && matchesKey(json, i)) {
+            return findEnd(json, i + KEY.length);
+          }
+          inString = true;
+          break;
+        default:
+          break;
+      }
+    }
+    return -1;
+  }
+
+
+  private static long findEnd(byte[] json, int start) {
+    for (int i = start; i < json.length; i++) {
+      byte b = json[i];
+      if (b == '\\') {
+        i++;
+      } else if (b == '"') {
+        return (((long) start) << 32) | i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Insert a signature value into the bytes that were signed.
+   *
+   * @param unsigned  the canonical JSON of the message with an empty signature
+   * @param signature the signature
+   *
+   * @return the canonical JSON of the signed message, or null if the signature property could not be located
+   */
+  static byte[] insert(byte[] unsigned, String signature) {
+    long span = find(unsigned);
+    if (span == -1 || (int) (span >>> 32) != (int) span) {
+      return null;
+    }
+    int start = (int) span;
+    byte[] value = signature.getBytes(StandardCharsets.US_ASCII);
+    byte[] output = new byte[unsigned.length + value.length];
+    System.arraycopy(unsigned, 0, output, 0, start);
+    System.arraycopy(value, 0, output, start, value.length);
+    System.arraycopy(unsigned, start, output, start + value.length, unsigned.length - start);
+    return output;
+  }
+
+
+  private static boolean matchesKey(byte[] json, int position) {
+    if (position + KEY.length > json.length) {
+      return false;
+    }
+    for (int i = 0; i < KEY.length; i++) {
+      if (json[position + i] != KEY[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  private CanonicalSignature() {
+    // utility class
+  }
+
+}
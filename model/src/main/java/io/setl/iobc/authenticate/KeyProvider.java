@@ -12,6 +12,32 @@ public interface KeyProvider {
   KeySpecification getSigningKey(String userId);
 
 
+  /**
+   * Get a pool of signers for a user's signing key. Implementations should return the same pool for every call so that signers are reused.
+   *
+   * @param userId the user's ID
+   *
+   * @return the pool, or null if the user has no signing key
+   */
+  default SignaturePool getSigningPool(String userId) {
+    KeySpecification key = getSigningKey(userId);
+    return (key != null) ? new SignaturePool(key) : null;
+  }
+
+
   KeySpecification getVerifyingKey(String userId);
 
+
+  /**
+   * Get a pool of verifiers for a user's verifying key. Implementations should return the same pool for every call so that verifiers are reused.
+   *
+   * @param userId the user's ID
+   *
+   * @return the pool, or null if the user has no verifying key
+   */
+  default SignaturePool getVerifyingPool(String userId) {
+    KeySpecification key = getVerifyingKey(userId);
+    return (key != null) ? new SignaturePool(key) : null;
+  }
+
 }
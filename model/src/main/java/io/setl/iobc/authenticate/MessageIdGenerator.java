@@ -6,8 +6,16 @@ import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Base64.Encoder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.UnaryOperator;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
@@ -15,76 +23,75 @@ import javax.crypto.spec.SecretKeySpec;
 import prng.SecureRandomBuilder;
 import prng.SecureRandomBuilder.Hash;
 
-import io.setl.util.LRUCache;
-
 /**
  * A unique Message ID.
  *
+ * <p>Unpredictable unique IDs are created by combining a 32-bit counter, a 32-bit random value, and the millisecond epoch time which are passed through an AES
+ * permutation to ensure the IDs are well distributed. The counter is shared by all threads creating IDs for the same user and is incremented atomically, so
+ * no two IDs share a plain text. The cipher, random number generator, and working buffers belong to the thread, so creating an ID takes no lock.</p>
+ *
  * @author Simon Greatrix on 14/11/2021.
  */
 public class MessageIdGenerator implements UnaryOperator<String> {
 
   public static final MessageIdGenerator INSTANCE = new MessageIdGenerator();
 
-  /** Generators for creating unique message IDs. */
-  private static final LRUCache<String, Factory> CACHE = new LRUCache<>(1000, Factory::new);
-
   private static final Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
 
+  /** Number of users for which each thread retains an initialised cipher. */
+  private static final int THREAD_CIPHERS = 16;
+
+  /** Per-thread state. */
+  private static final ThreadLocal<ThreadState> THREAD_STATE = ThreadLocal.withInitial(ThreadState::new);
 
 
-  /**
-   * Factory for creating unique IDs for a specific user.
-   *
-   * <p>This factory creates unpredictable unique IDs by combining a 32-bit counter, a 32-bit random value, and the millisecond epoch time which are passed
-   * through an AES permutation to ensure the IDs are well distributed.</p>
-   */
-  private static class Factory {
 
-    /** Cipher used to permute the deterministic source. */
-    private final Cipher cipher;
+  /** State for one thread. */
+  private static class ThreadState {
+
+    /** Ciphers for recently used users. */
+    private final LinkedHashMap<UserState, Cipher> ciphers = new LinkedHashMap<>(THREAD_CIPHERS * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UserState, Cipher> eldest) {
+        return size() > THREAD_CIPHERS;
+      }
+    };
 
     private final byte[] output = new byte[17];
 
-    private final ByteBuffer outputArea;
+    private final ByteBuffer outputArea = ByteBuffer.wrap(output).limit(16).slice();
 
     /** Random generator for creating unpredictable values. */
     private final SecureRandom random = SecureRandomBuilder.hash().hash(Hash.SHA512).laziness(1000).build();
 
     private final ByteBuffer workingArea = ByteBuffer.allocate(16).order(ByteOrder.nativeOrder());
 
-    /** Counter for generating unique IDs. */
-    private int counter;
-
     /** Padding bits. */
-    private long padding;
+    private long padding = random.nextLong();
 
 
     // I know what I'm doing with ECB
     @SuppressWarnings("java:S5542")
-    Factory(String userId) {
-      outputArea = ByteBuffer.wrap(output).limit(16).slice();
-      counter = random.nextInt();
-      padding = random.nextLong();
-
-      // Create an AES permutation using the user ID as a seed for the private key.
-      try {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(userId.getBytes(StandardCharsets.UTF_8));
-        SecretKeySpec spec = new SecretKeySpec(hash, 0, 16, "AES");
-        cipher = Cipher.getInstance("AES/ECB/NoPadding");
-        cipher.init(Cipher.ENCRYPT_MODE, spec);
-      } catch (GeneralSecurityException e) {
-        throw new InternalError("Cryptographic failure", e);
+    Cipher cipher(UserState user) {
+      Cipher cipher = ciphers.get(user);
+      if (cipher == null) {
+        try {
+          cipher = Cipher.getInstance("AES/ECB/NoPadding");
+          cipher.init(Cipher.ENCRYPT_MODE, user.key);
+        } catch (GeneralSecurityException e) {
+          throw new InternalError("Cryptographic failure", e);
+        }
+        ciphers.put(user, cipher);
       }
+      return cipher;
     }
 
 
-    synchronized String create() {
-      counter++;
+    String create(UserState user) {
+      Cipher cipher = cipher(user);
       workingArea.clear();
       outputArea.clear();
-      workingArea.putInt(0, counter);
+      workingArea.putInt(0, user.counter.incrementAndGet());
       workingArea.putInt(4, random.nextInt());
       workingArea.putLong(8, System.currentTimeMillis());
       try {
@@ -108,9 +115,130 @@ public class MessageIdGenerator implements UnaryOperator<String> {
   }
 
 
+
+  /** State shared by all threads for one user. */
+  private static class UserState {
+
+    /** Counter for generating unique IDs. */
+    final AtomicInteger counter;
+
+    /** AES key derived from the user ID. */
+    final SecretKeySpec key;
+
+    /** Tick when this was last used, for eviction. */
+    volatile long lastUsed;
+
+
+    UserState(String userId) {
+      counter = new AtomicInteger(THREAD_STATE.get().random.nextInt());
+
+      // Create an AES permutation using the user ID as a seed for the private key.
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(userId.getBytes(StandardCharsets.UTF_8));
+        key = new SecretKeySpec(hash, 0, 16, "AES");
+      } catch (GeneralSecurityException e) {
+        throw new InternalError("Cryptographic failure", e);
+      }
+    }
+
+  }
+
+
+
+  /** Flag indicating a thread is evicting users. */
+  private final AtomicBoolean isEvicting = new AtomicBoolean(false);
+
+  /** Maximum number of users retained. */
+  private final int maxUsers;
+
+  /** Source of ticks for the least-recently-used eviction. */
+  private final AtomicLong ticks = new AtomicLong();
+
+  /** State for each user. */
+  private final ConcurrentHashMap<String, UserState> users = new ConcurrentHashMap<>();
+
+
+  /** New instance which retains the state of up to 1000 users. */
+  public MessageIdGenerator() {
+    this(1000);
+  }
+
+
+  /**
+   * New instance.
+   *
+   * @param maxUsers the maximum number of users whose state is retained
+   */
+  public MessageIdGenerator(int maxUsers) {
+    if (maxUsers < 1) {
+      throw new IllegalArgumentException("Maximum users must be positive, not " + maxUsers);
+    }
+    this.maxUsers = maxUsers;
+  }
+
+
   @Override
   public String apply(String senderId) {
-    return CACHE.get(senderId).create();
+    UserState user = users.get(senderId);
+    boolean isNew = user == null;
+    if (isNew) {
+      user = users.computeIfAbsent(senderId, UserState::new);
+    }
+
+    // Only write the tick when it has moved on, to limit contention on the user's state.
+    long tick = ticks.get();
+    if (user.lastUsed != tick) {
+      user.lastUsed = tick;
+    }
+    if (isNew && users.size() > maxUsers) {
+      evict();
+    }
+    return THREAD_STATE.get().create(user);
+  }
+
+
+  /**
+   * Evict the least recently used tenth of the users. Only one thread evicts at a time; other threads carry on and the map is briefly over size.
+   */
+  private void evict() {
+    if (!isEvicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      int excess = users.size() - maxUsers + Math.max(1, maxUsers / 10);
+      if (excess <= 0) {
+        return;
+      }
+
+      // Find the tick below which users will be evicted.
+      long[] used = new long[users.size()];
+      int count = 0;
+      for (UserState state : users.values()) {
+        if (count == used.length) {
+          break;
+        }
+        used[count++] = state.lastUsed;
+      }
+      if (count == 0) {
+        return;
+      }
+      Arrays.sort(used, 0, count);
+      long threshold = used[Math.min(excess, count) - 1];
+
+      Iterator<UserState> iterator = users.values().iterator();
+      while (iterator.hasNext() && excess > 0) {
+        if (iterator.next().lastUsed <= threshold) {
+          iterator.remove();
+          excess--;
+        }
+      }
+
+      // Start a new tick so users used from now on are distinguished from those that were not.
+      ticks.incrementAndGet();
+    } finally {
+      isEvicting.set(false);
+    }
   }
 
 }
@@ -0,0 +1,166 @@
+package io.setl.iobc.authenticate;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Value;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.setl.iobc.model.Response.InReplyTo;
+
+/**
+ * The routing fields of a serialized authenticated message, read by streaming over the record without binding its content or verifying its signature. A
+ * receiver can use these to discard records it has no interest in before doing the expensive work.
+ *
+ * <p>As the signature has not been verified, these fields must only be used to decide whether to read the message properly.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Value
+public class MessagePeek {
+
+  /**
+   * Peek at a record.
+   *
+   * @param headers the record's headers
+   * @param data    the record's value
+   *
+   * @return the routing fields, or null if the record could not be read
+   */
+  public static MessagePeek peek(Headers headers, byte[] data) {
+    Header header = headers.lastHeader(WireFormat.HEADER);
+    WireFormat format;
+    try {
+      format = WireFormat.forHeader(header != null ? header.value() : null);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    return peek(format, data);
+  }
+
+
+  /**
+   * Peek at a record.
+   *
+   * @param format the record's wire format
+   * @param data   the record's value
+   *
+   * @return the routing fields, or null if the record could not be read
+   */
+  public static MessagePeek peek(WireFormat format, byte[] data) {
+    if (data == null) {
+      return null;
+    }
+
+    // Binary records start with the signature, which we skip.
+    int offset = 0;
+    if (format != WireFormat.JSON) {
+      if (data.length < 2) {
+        return null;
+      }
+      offset = 2 + (((data[0] & 0xff) << 8) | (data[1] & 0xff));
+      if (offset > data.length) {
+        return null;
+      }
+    }
+
+    try (JsonParser parser = format.getReader().getFactory().createParser(data, offset, data.length - offset)) {
+      return read(parser);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+
+  private static MessagePeek read(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return null;
+    }
+    InReplyTo inReplyTo = null;
+    String type = null;
+    String userId = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (name) {
+        case "content":
+          inReplyTo = readContent(parser, token);
+          break;
+        case "type":
+          type = (token == JsonToken.VALUE_STRING) ? parser.getText() : null;
+          break;
+        case "userId":
+          userId = (token == JsonToken.VALUE_STRING) ? parser.getText() : null;
+          break;
+        default:
+          parser.skipChildren();
+          break;
+      }
+    }
+    return new MessagePeek(inReplyTo, type, userId);
+  }
+
+
+  /**
+   * Read the in-reply-to from the content, if the content is a response. The content is wrapped in an object whose only field names its type.
+   *
+   * @param parser the parser, positioned at the start of the content
+   * @param token  the current token
+   *
+   * @return the in-reply-to, or null
+   */
+  private static InReplyTo readContent(JsonParser parser, JsonToken token) throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+
+    InReplyTo inReplyTo = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (name.equals("inReplyTo") && value == JsonToken.START_OBJECT) {
+          inReplyTo = readInReplyTo(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return inReplyTo;
+  }
+
+
+  private static InReplyTo readInReplyTo(JsonParser parser) throws IOException {
+    InReplyTo.InReplyToBuilder builder = InReplyTo.builder();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (value != JsonToken.VALUE_STRING) {
+        parser.skipChildren();
+      } else if (name.equals("messageId")) {
+        builder.messageId(parser.getText());
+      } else if (name.equals("userId")) {
+        builder.userId(parser.getText());
+      }
+    }
+    return builder.build();
+  }
+
+
+  /** What the message is in reply to, if its content is a response. */
+  InReplyTo inReplyTo;
+
+  /** The message type. */
+  String type;
+
+  /** The sender of the message. */
+  String userId;
+
+}
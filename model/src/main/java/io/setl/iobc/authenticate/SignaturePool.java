@@ -0,0 +1,87 @@
+package io.setl.iobc.authenticate;
+
+import java.security.InvalidKeyException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import io.setl.http.signatures.KeySpecification;
+import io.setl.http.signatures.error.UnsupportedAlgorithmException;
+import io.setl.http.signatures.sign.Sign;
+import io.setl.http.signatures.sign.SignFactory;
+import io.setl.http.signatures.verify.Verify;
+import io.setl.http.signatures.verify.VerifyFactory;
+
+/**
+ * A pool of signers and verifiers for a single key. Creating a signer or verifier initialises the underlying cryptographic engine, which is expensive compared
+ * to signing a single message, so idle instances are retained for reuse. Each instance is only used by one thread at a time.
+ *
+ * @author Simon Greatrix on 05/03/2022.
+ */
+public class SignaturePool {
+
+  /** Maximum number of idle signers and verifiers retained. */
+  private static final int MAX_IDLE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+  private final KeySpecification keySpecification;
+
+  private final ArrayBlockingQueue<Sign> signers = new ArrayBlockingQueue<>(MAX_IDLE);
+
+  private final ArrayBlockingQueue<Verify> verifiers = new ArrayBlockingQueue<>(MAX_IDLE);
+
+
+  public SignaturePool(KeySpecification keySpecification) {
+    this.keySpecification = keySpecification;
+  }
+
+
+  public KeySpecification getKeySpecification() {
+    return keySpecification;
+  }
+
+
+  /**
+   * Sign some data.
+   *
+   * @param data the data
+   *
+   * @return the signature
+   */
+  public byte[] sign(byte[] data) throws UnsupportedAlgorithmException, InvalidKeyException {
+    Sign signer = signers.poll();
+    if (signer == null) {
+      signer = SignFactory.create(keySpecification);
+    }
+    byte[] signature = signer.sign(data);
+
+    // If the pool is full, the signer is discarded.
+    signers.offer(signer);
+    return signature;
+  }
+
+
+  @Override
+  public String toString() {
+    return "SignaturePool(" + keySpecification + ")";
+  }
+
+
+  /**
+   * Verify the signature of some data.
+   *
+   * @param signature the signature
+   * @param data      the data
+   *
+   * @return true if the signature is valid
+   */
+  public boolean verify(byte[] signature, byte[] data) throws UnsupportedAlgorithmException, InvalidKeyException {
+    Verify verify = verifiers.poll();
+    if (verify == null) {
+      verify = VerifyFactory.create(keySpecification);
+    }
+    boolean isValid = verify.verify(signature, data);
+
+    // If the pool is full, the verifier is discarded.
+    verifiers.offer(verify);
+    return isValid;
+  }
+
+}
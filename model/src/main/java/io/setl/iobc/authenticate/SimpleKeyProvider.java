@@ -17,8 +17,12 @@ public class SimpleKeyProvider implements KeyProvider {
 
   private final CopyOnWriteMap<String, KeySpecification> signingKeys = new CopyOnWriteMap<>();
 
+  private final CopyOnWriteMap<String, SignaturePool> signingPools = new CopyOnWriteMap<>();
+
   private final CopyOnWriteMap<String, KeySpecification> verifyKeys = new CopyOnWriteMap<>();
 
+  private final CopyOnWriteMap<String, SignaturePool> verifyPools = new CopyOnWriteMap<>();
+
 
   @Override
   public KeySpecification getSigningKey(String userId) {
@@ -26,12 +30,24 @@ public class SimpleKeyProvider implements KeyProvider {
   }
 
 
+  @Override
+  public SignaturePool getSigningPool(String userId) {
+    return signingPools.get(userId);
+  }
+
+
   @Override
   public KeySpecification getVerifyingKey(String userId) {
     return verifyKeys.get(userId);
   }
 
 
+  @Override
+  public SignaturePool getVerifyingPool(String userId) {
+    return verifyPools.get(userId);
+  }
+
+
   /**
    * Set the signing key for a specific user.
    *
@@ -42,8 +58,10 @@ public class SimpleKeyProvider implements KeyProvider {
     Objects.requireNonNull(userId, "The user's ID must be specified.");
     if (key != null) {
       signingKeys.put(userId, key);
+      signingPools.put(userId, new SignaturePool(key));
     } else {
       signingKeys.remove(userId);
+      signingPools.remove(userId);
     }
   }
 
@@ -72,8 +90,10 @@ public class SimpleKeyProvider implements KeyProvider {
     Objects.requireNonNull(userId, "The user's ID must be specified.");
     if (key != null) {
       verifyKeys.put(userId, key);
+      verifyPools.put(userId, new SignaturePool(key));
     } else {
       verifyKeys.remove(userId);
+      verifyPools.remove(userId);
     }
   }
 
@@ -0,0 +1,79 @@
+package io.setl.iobc.authenticate;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.setl.iobc.util.SerdeSupport;
+
+/**
+ * The formats in which an authenticated message may be written to Kafka. A message's signature covers the message as written in the format it is sent in.
+ *
+ * <p>Records in the binary format carry a header naming the format. Records without the header are JSON, so readers accept both formats and writers can be
+ * switched over once every reader has been upgraded.</p>
+ *
+ * @author Simon Greatrix on 06/03/2022.
+ */
+public enum WireFormat {
+  /** Canonical JSON, with content types identified by class name. */
+  JSON("json", SerdeSupport.getObjectMapper()),
+
+  /** CBOR, with content types identified by short registered identifiers. */
+  CBOR("cbor", SerdeSupport.getBinaryObjectMapper());
+
+  /** The name of the record header which identifies the format. */
+  public static final String HEADER = "iobc-format";
+
+
+  /**
+   * Get the format identified by a record header's value.
+   *
+   * @param value the header value. A missing header indicates JSON.
+   *
+   * @return the format
+   */
+  public static WireFormat forHeader(byte[] value) {
+    if (value == null) {
+      return JSON;
+    }
+    String name = new String(value, StandardCharsets.US_ASCII);
+    for (WireFormat format : values()) {
+      if (format.headerValue.equals(name)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unknown wire format: " + name);
+  }
+
+
+  private final String headerValue;
+
+  private final ObjectReader reader;
+
+  private final ObjectWriter writer;
+
+
+  WireFormat(String headerValue, ObjectMapper mapper) {
+    this.headerValue = headerValue;
+    reader = mapper.readerFor(AuthenticatedMessage.class);
+    writer = mapper.writerFor(AuthenticatedMessage.class);
+  }
+
+
+  public byte[] getHeaderValue() {
+    return headerValue.getBytes(StandardCharsets.US_ASCII);
+  }
+
+
+  ObjectReader getReader() {
+    return reader;
+  }
+
+
+  ObjectWriter getWriter() {
+    return writer;
+  }
+
+}
@@ -3,12 +3,14 @@ package io.setl.iobc.config;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.Serializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,6 +35,40 @@ public class TopicConfiguration {
 
   public static final String OUTBOUND = "setl-iobc.outbound";
 
+  /** Valid reply-to names. These are always valid in Kafka topic names. */
+  private static final Pattern REPLY_TO_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+
+
+  /**
+   * Get the topic on which replies are published for a reply-to name. A message names its client's reply-to in its signed content, so that a client does not
+   * have to read every other client's replies.
+   *
+   * @param replyTo the reply-to name. If null or empty, the shared outbound topic is used.
+   *
+   * @return the topic name
+   */
+  public static String getReplyTopic(String replyTo) {
+    if (replyTo == null || replyTo.isEmpty()) {
+      return OUTBOUND;
+    }
+    if (!isValidReplyTo(replyTo)) {
+      throw new IllegalArgumentException("Invalid reply-to name: \"" + replyTo + "\"");
+    }
+    return OUTBOUND + "." + replyTo;
+  }
+
+
+  /**
+   * Test if a reply-to name is valid. A valid name is 1 to 100 ASCII letters, digits, periods, underscores, and hyphens.
+   *
+   * @param replyTo the name
+   *
+   * @return true if valid
+   */
+  public static boolean isValidReplyTo(String replyTo) {
+    return replyTo != null && REPLY_TO_PATTERN.matcher(replyTo).matches();
+  }
+
 
   /**
    * Create a template with the required properties. Create only one template per topic.
@@ -126,4 +162,28 @@ public class TopicConfiguration {
     return newTopic(OUTBOUND, partitions, retention);
   }
 
+
+
+  /**
+   * Topic on which IOBC sends replies to a client which has its own reply topic. Only created when "setl.iobc.replyTo" is set.
+   *
+   * @param replyTo    the client's reply-to name
+   * @param partitions the number of partitions for the topic. A negative number indicates to use the server default.
+   * @param retention  the duration for which topic messages should be retained. A zero duration indicates to use the server default.
+   *
+   * @return new topic instance.
+   */
+  @Bean
+  @ConditionalOnProperty("setl.iobc.replyTo")
+  public NewTopic replyTopic(
+      @Value("${setl.iobc.replyTo}") String replyTo,
+      @Value("${setl.iobc.topic.partitions:-1}") int partitions,
+      @Value("${setl.iobc.topic.retention:P0D}") Duration retention
+  ) {
+    if (!isValidReplyTo(replyTo)) {
+      throw new IllegalArgumentException("Invalid reply-to name: \"" + replyTo + "\"");
+    }
+    return newTopic(getReplyTopic(replyTo), partitions, retention);
+  }
+
 }
@@ -0,0 +1,175 @@
+package io.setl.iobc.model;
+
+import java.util.List;
+import java.util.Objects;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.authenticate.MessagePrincipals;
+import io.setl.iobc.model.Bulk.Input;
+import io.setl.iobc.model.Bulk.Output;
+
+/**
+ * Perform many operations of the same type in one message, such as the transfers of an end-of-day distribution. Each operation is handled as if it had been
+ * sent in its own message, and the single reply carries a result for each operation in the order they were given.
+ *
+ * <p>Operations which share an ordering key are performed in order. Others may be performed concurrently. If an operation replies immediately and continues
+ * later, such as a transaction in the "RETURN_ID" mode, the bulk reply carries the immediate result.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public interface Bulk extends IobcDelegate<Input, Output> {
+
+  String NAME = "BULK";
+
+
+
+  /**
+   * Input to the operation.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  class Input implements MessageInput {
+
+    private interface ItemsTypeSpecifier {
+
+      /** Ensure that type information is passed on the items property. */
+      @JsonTypeInfo(use = Id.CLASS, include = As.WRAPPER_OBJECT)
+      InputBuilder items(List<MessageInput> items);
+
+    }
+
+
+
+    /**
+     * Builder for Input instances.
+     */
+    public static class InputBuilder implements ItemsTypeSpecifier {
+      // Lombok adds required code
+    }
+
+
+
+    /** The inputs to the operations. Every input must be of the same class. */
+    @NotEmpty
+    @Valid
+    @JsonTypeInfo(use = Id.CLASS, include = As.WRAPPER_OBJECT)
+    List<MessageInput> items;
+
+    /** The message type of every operation. */
+    @NotEmpty
+    String type;
+
+
+    /**
+     * The operations are ordered relative to other messages only if they all share the same ordering key.
+     *
+     * @return the common ordering key, or null
+     */
+    @Override
+    public String orderingKey() {
+      if (items == null || items.isEmpty()) {
+        return null;
+      }
+      String key = items.get(0).orderingKey();
+      for (MessageInput item : items) {
+        if (!Objects.equals(key, item.orderingKey())) {
+          return null;
+        }
+      }
+      return key;
+    }
+
+
+    /**
+     * The principals of the first operation select the chain. Every operation is authorised separately when it is performed.
+     *
+     * @return the first operation's principals
+     */
+    @Override
+    public MessagePrincipals resolvePrincipal() {
+      if (items == null || items.isEmpty()) {
+        return MessagePrincipals.forPublic();
+      }
+      return items.get(0).resolvePrincipal();
+    }
+
+  }
+
+
+
+  /**
+   * The result of one operation.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  class Item {
+
+    private interface ResultTypeSpecifier {
+
+      /** Ensure that type information is passed on the result property. */
+      @JsonTypeInfo(use = Id.CLASS, include = As.WRAPPER_OBJECT)
+      ItemBuilder result(MessageContent content);
+
+    }
+
+
+
+    /**
+     * Builder for Item instances.
+     */
+    public static class ItemBuilder implements ResultTypeSpecifier {
+      // Lombok adds required code
+    }
+
+
+
+    /** The error details if the operation was not a success. */
+    @JsonInclude(Include.NON_NULL)
+    ErrorDetails errorDetails;
+
+    /** If true the operation was successful. */
+    boolean pass;
+
+    /** The operation result if it was a success. */
+    @JsonInclude(Include.NON_NULL)
+    @JsonTypeInfo(use = Id.CLASS, include = As.WRAPPER_OBJECT)
+    MessageContent result;
+
+  }
+
+
+
+  /**
+   * Output from the operation.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  class Output implements MessageContent {
+
+    /** The result of each operation, in the same order as the inputs. */
+    @NotEmpty
+    List<Item> results;
+
+  }
+
+
+  @Override
+  default String getType() {
+    return NAME;
+  }
+
+}
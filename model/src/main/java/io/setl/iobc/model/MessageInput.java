@@ -10,6 +10,17 @@ import io.setl.iobc.authenticate.MessagePrincipals;
  */
 public interface MessageInput extends MessageContent {
 
+  /**
+   * Get the key which orders the processing of this input relative to other inputs. Inputs which share a key are processed in the order they were received.
+   * Transactions signed by the same block-chain identity should share a key so that they are submitted in order.
+   *
+   * @return the ordering key, or null if this input need not be ordered relative to any other
+   */
+  default String orderingKey() {
+    return null;
+  }
+
+
   MessagePrincipals resolvePrincipal();
 
 }
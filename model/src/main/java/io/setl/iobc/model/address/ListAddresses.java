@@ -27,12 +27,19 @@ public interface ListAddresses extends IobcDelegate<ListAddresses.Input, ListAdd
 
 
 
-  /** Input specifying a wallet ID. */
+  /** Input specifying a wallet ID, and optionally a page of its addresses. */
   @Builder
   @Value
   @Jacksonized
   class Input implements MessageInput {
 
+    /** If specified, only addresses which sort after this are listed. This is the "next" value of the previous page. */
+    String after;
+
+    /** The maximum number of addresses to list, or zero to list them all. */
+    @Min(0)
+    int limit;
+
     @Min(WALLET_ID_MINIMUM)
     int walletId;
 
@@ -59,6 +66,9 @@ public interface ListAddresses extends IobcDelegate<ListAddresses.Input, ListAdd
     @Schema(description = "Map of SETL addresses to their full specifications.", required = true)
     Map<String, SetlAddress> addresses;
 
+    @Schema(description = "If the list was limited and more addresses may follow, the value of 'after' which will list them.")
+    String next;
+
     @Schema(description = "The wallet's ID.", required = true)
     int walletId;
 
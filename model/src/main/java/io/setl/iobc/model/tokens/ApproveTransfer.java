@@ -64,6 +64,12 @@ public interface ApproveTransfer extends IobcDelegate<Input, TransactionResult>
     TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return owner;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forAddress(owner);
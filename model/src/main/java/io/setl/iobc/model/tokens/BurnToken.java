@@ -59,6 +59,12 @@ public interface BurnToken extends IobcDelegate<Input, TransactionResult> {
     TransactionInput.TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return symbol;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forToken(symbol);
@@ -66,6 +66,12 @@ public interface ControllerTransfer extends IobcDelegate<Input, TransactionResul
     boolean unlockBefore;
 
 
+    @Override
+    public String orderingKey() {
+      return symbol;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forToken(symbol);
@@ -63,6 +63,12 @@ public interface CreateToken extends IobcDelegate<Input, TransactionResult> {
     String type;
 
 
+    @Override
+    public String orderingKey() {
+      return controller;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forAddress(controller);
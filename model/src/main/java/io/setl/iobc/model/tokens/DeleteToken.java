@@ -46,6 +46,12 @@ public interface DeleteToken extends IobcDelegate<DeleteToken.Input, Transaction
     TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return symbol;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forToken(symbol);
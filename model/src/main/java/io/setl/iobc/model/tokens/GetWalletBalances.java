@@ -0,0 +1,119 @@
+package io.setl.iobc.model.tokens;
+
+import java.math.BigInteger;
+import java.util.Map;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.authenticate.MessagePrincipals;
+import io.setl.iobc.model.IobcDelegate;
+import io.setl.iobc.model.MessageInput;
+import io.setl.iobc.model.address.NewAddress;
+import io.setl.iobc.model.tokens.GetWalletBalances.Input;
+import io.setl.iobc.model.tokens.GetWalletBalances.Output;
+
+/**
+ * Get the balance and locked amount of a token for every address in a wallet. All the values are taken from one consistent view of the chain, such as a single
+ * block, rather than from whatever view was current when each address was queried.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public interface GetWalletBalances extends IobcDelegate<Input, Output> {
+
+  String NAME = "TOKEN.GET_WALLET_BALANCES";
+
+
+
+  /**
+   * The holding of one address.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  @Schema(name = "GetWalletBalances_Balance", description = "The number of tokens held by an address, and how many of those are locked")
+  class Balance {
+
+    /** The amount held. */
+    @Schema(description = "The number of tokens held", required = true)
+    @NotNull
+    BigInteger balance;
+
+    /** The amount locked. */
+    @Schema(description = "The number of tokens locked against transfer", required = true)
+    @NotNull
+    BigInteger locked;
+
+  }
+
+
+
+  /**
+   * Input to the operation.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  class Input implements MessageInput {
+
+    /** The block number to query. */
+    @Min(-1)
+    @Default
+    long block = -1;
+
+    /** The symbol and primary identifier of the token. */
+    @NotEmpty
+    String symbol;
+
+    /** The wallet whose addresses are queried. */
+    @Min(NewAddress.WALLET_ID_MINIMUM)
+    int walletId;
+
+
+    @Override
+    public MessagePrincipals resolvePrincipal() {
+      return MessagePrincipals.forToken(symbol);
+    }
+
+  }
+
+
+
+  /**
+   * Output from the operation.
+   */
+  @Builder
+  @Value
+  @Jacksonized
+  @Schema(name = "GetWalletBalances_Output", description = "The balances of every address in a wallet")
+  class Output implements MessageContent {
+
+    /** The balance of each address in the wallet on the token's chain. */
+    @Schema(description = "The balance of each address in the wallet on the token's chain", required = true)
+    @NotNull
+    Map<String, Balance> balances;
+
+    /** The block the balances were taken from, or -1 if the chain does not have numbered blocks. */
+    @Schema(description = "The block the balances were taken from, or -1 if the chain does not have numbered blocks")
+    long block;
+
+    /** The wallet's ID. */
+    @Schema(description = "The wallet's ID", required = true)
+    int walletId;
+
+  }
+
+
+  @Override
+  default String getType() {
+    return NAME;
+  }
+
+}
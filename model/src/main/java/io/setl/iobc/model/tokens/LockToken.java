@@ -50,6 +50,12 @@ public interface LockToken extends IobcDelegate<Input, TransactionResult> {
     TransactionInput.TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return symbol;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forToken(symbol);
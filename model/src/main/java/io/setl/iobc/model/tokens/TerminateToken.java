@@ -46,6 +46,12 @@ public interface TerminateToken extends IobcDelegate<TerminateToken.Input, Trans
     TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return symbol;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forToken(symbol);
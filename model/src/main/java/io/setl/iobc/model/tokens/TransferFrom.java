@@ -64,6 +64,12 @@ public interface TransferFrom extends IobcDelegate<Input, TransactionResult> {
     TransactionInput.TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return address;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return MessagePrincipals.forAddress(address);
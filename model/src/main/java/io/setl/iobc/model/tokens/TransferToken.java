@@ -61,6 +61,12 @@ public interface TransferToken extends IobcDelegate<Input, TransactionResult> {
     TxProcessingMode txProcessingMode = TxProcessingMode.RETURN_RESULT;
 
 
+    @Override
+    public String orderingKey() {
+      return from;
+    }
+
+
     @Override
     public MessagePrincipals resolvePrincipal() {
       return new MessagePrincipals(
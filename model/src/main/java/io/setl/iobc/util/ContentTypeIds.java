@@ -0,0 +1,233 @@
+package io.setl.iobc.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.StdTypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.model.Bulk;
+import io.setl.iobc.model.PingDelegate;
+import io.setl.iobc.model.Response;
+import io.setl.iobc.model.TokenId;
+import io.setl.iobc.model.TransactionResult;
+import io.setl.iobc.model.address.GetWallet;
+import io.setl.iobc.model.address.ListAddresses;
+import io.setl.iobc.model.address.NewAddress;
+import io.setl.iobc.model.tokens.ApproveTransfer;
+import io.setl.iobc.model.tokens.BurnToken;
+import io.setl.iobc.model.tokens.ControllerTransfer;
+import io.setl.iobc.model.tokens.CreateToken;
+import io.setl.iobc.model.tokens.DeleteToken;
+import io.setl.iobc.model.tokens.GetAllTokens;
+import io.setl.iobc.model.tokens.GetAllowance;
+import io.setl.iobc.model.tokens.GetBalance;
+import io.setl.iobc.model.tokens.GetHoldings;
+import io.setl.iobc.model.tokens.GetLocked;
+import io.setl.iobc.model.tokens.GetName;
+import io.setl.iobc.model.tokens.GetTotalSupply;
+import io.setl.iobc.model.tokens.GetWalletBalances;
+import io.setl.iobc.model.tokens.LockToken;
+import io.setl.iobc.model.tokens.MintToken;
+import io.setl.iobc.model.tokens.TerminateToken;
+import io.setl.iobc.model.tokens.TransferFrom;
+import io.setl.iobc.model.tokens.TransferToken;
+import io.setl.iobc.model.tokens.UnlockToken;
+import io.setl.iobc.model.tokens.dvp.DvpCancel;
+import io.setl.iobc.model.tokens.dvp.DvpCommit;
+import io.setl.iobc.model.tokens.dvp.DvpControllerCommit;
+import io.setl.iobc.model.tokens.dvp.DvpControllerCreate;
+import io.setl.iobc.model.tokens.dvp.DvpCreate;
+import io.setl.iobc.model.tokens.dvp.DvpId;
+import io.setl.iobc.model.tokens.dvp.GetDvpTrade;
+import io.setl.iobc.model.tx.GetBlockForTime;
+import io.setl.iobc.model.tx.GetBlockNumber;
+import io.setl.iobc.model.tx.GetTransactionResult;
+import io.setl.iobc.model.tx.VerifyCreateToken;
+
+/**
+ * Short identifiers for message content types, used in the binary wire format in place of class names. Content types which are not registered are identified by
+ * their class name.
+ *
+ * <p>Identifiers are part of the wire format. An identifier must never be changed or reused for a different type.</p>
+ *
+ * @author Simon Greatrix on 06/03/2022.
+ */
+public class ContentTypeIds {
+
+  /**
+   * Annotation introspector which replaces class name type identifiers on message content with the registered short identifiers.
+   */
+  public static class Introspector extends JacksonAnnotationIntrospector {
+
+    private static final long serialVersionUID = 1L;
+
+
+    @Override
+    public TypeResolverBuilder<?> findPropertyContentTypeResolver(MapperConfig<?> config, AnnotatedMember am, JavaType containerType) {
+      TypeResolverBuilder<?> builder = findResolver(config, am, containerType.getContentType());
+      return (builder != null) ? builder : super.findPropertyContentTypeResolver(config, am, containerType);
+    }
+
+
+    @Override
+    public TypeResolverBuilder<?> findPropertyTypeResolver(MapperConfig<?> config, AnnotatedMember am, JavaType baseType) {
+      TypeResolverBuilder<?> builder = findResolver(config, am, baseType);
+      return (builder != null) ? builder : super.findPropertyTypeResolver(config, am, baseType);
+    }
+
+
+    private TypeResolverBuilder<?> findResolver(MapperConfig<?> config, AnnotatedMember am, JavaType baseType) {
+      JsonTypeInfo info = _findAnnotation(am, JsonTypeInfo.class);
+      if (info != null && info.use() == Id.CLASS && baseType != null && MessageContent.class.isAssignableFrom(baseType.getRawClass())) {
+        return new StdTypeResolverBuilder()
+            .init(Id.CUSTOM, new Resolver(baseType, config))
+            .inclusion(As.WRAPPER_OBJECT);
+      }
+      return null;
+    }
+
+  }
+
+
+
+  /**
+   * Type ID resolver which uses the registered short identifiers.
+   */
+  static class Resolver extends TypeIdResolverBase {
+
+    Resolver(JavaType baseType, MapperConfig<?> config) {
+      super(baseType, config.getTypeFactory());
+    }
+
+
+    @Override
+    public Id getMechanism() {
+      return Id.CUSTOM;
+    }
+
+
+    @Override
+    public String idFromValue(Object value) {
+      return idFromValueAndType(value, value.getClass());
+    }
+
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> suggestedType) {
+      String id = TYPE_TO_ID.get(suggestedType);
+      return (id != null) ? id : suggestedType.getName();
+    }
+
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+      Class<?> type = ID_TO_TYPE.get(id);
+      if (type != null) {
+        return context.constructSpecializedType(_baseType, type);
+      }
+      return context.resolveSubType(_baseType, id);
+    }
+
+  }
+
+
+
+  private static final Map<String, Class<?>> ID_TO_TYPE = new ConcurrentHashMap<>();
+
+  private static final Map<Class<?>, String> TYPE_TO_ID = new ConcurrentHashMap<>();
+
+
+  /**
+   * Register a short identifier for a content type.
+   *
+   * @param id   the identifier. Identifiers are short decimal numbers, so they cannot be confused with a class name.
+   * @param type the content type
+   */
+  public static void register(String id, Class<? extends MessageContent> type) {
+    Class<?> existing = ID_TO_TYPE.putIfAbsent(id, type);
+    if (existing != null && !existing.equals(type)) {
+      throw new IllegalArgumentException("Content type ID " + id + " is already used by " + existing.getName());
+    }
+    TYPE_TO_ID.put(type, id);
+  }
+
+
+  static {
+    // Core types: 1 to 9
+    register("1", Response.class);
+    register("2", TransactionResult.class);
+    register("3", TokenId.class);
+    register("4", PingDelegate.Input.class);
+    register("5", PingDelegate.Output.class);
+    register("6", Bulk.Input.class);
+    register("7", Bulk.Output.class);
+
+    // Token types: 10 to 39
+    register("10", ApproveTransfer.Input.class);
+    register("11", BurnToken.Input.class);
+    register("12", ControllerTransfer.Input.class);
+    register("13", CreateToken.Input.class);
+    register("14", DeleteToken.Input.class);
+    register("15", GetAllTokens.Output.class);
+    register("16", GetAllowance.Input.class);
+    register("17", GetAllowance.Output.class);
+    register("18", GetBalance.Input.class);
+    register("19", GetBalance.Output.class);
+    register("20", GetHoldings.Input.class);
+    register("21", GetHoldings.Output.class);
+    register("22", GetLocked.Input.class);
+    register("23", GetLocked.Output.class);
+    register("24", GetName.Output.class);
+    register("25", GetTotalSupply.Input.class);
+    register("26", GetTotalSupply.Output.class);
+    register("27", LockToken.Input.class);
+    register("28", MintToken.Input.class);
+    register("29", TerminateToken.Input.class);
+    register("30", TransferFrom.Input.class);
+    register("31", TransferToken.Input.class);
+    register("32", UnlockToken.Input.class);
+    register("33", GetWalletBalances.Input.class);
+    register("34", GetWalletBalances.Output.class);
+
+    // DVP types: 40 to 59
+    register("40", DvpCancel.Input.class);
+    register("41", DvpCommit.Input.class);
+    register("42", DvpControllerCommit.Input.class);
+    register("43", DvpControllerCreate.Input.class);
+    register("44", DvpCreate.Input.class);
+    register("45", DvpId.class);
+    register("46", GetDvpTrade.Output.class);
+
+    // Address types: 60 to 79
+    register("60", GetWallet.Input.class);
+    register("61", GetWallet.Output.class);
+    register("62", ListAddresses.Input.class);
+    register("63", ListAddresses.Output.class);
+    register("64", NewAddress.Input.class);
+    register("65", NewAddress.Output.class);
+
+    // Transaction and block types: 80 to 99
+    register("80", GetBlockForTime.Input.class);
+    register("81", GetBlockForTime.Output.class);
+    register("82", GetBlockNumber.Output.class);
+    register("83", GetTransactionResult.Input.class);
+    register("84", VerifyCreateToken.Output.class);
+  }
+
+  private ContentTypeIds() {
+    // utility class
+  }
+
+}
@@ -2,7 +2,10 @@ package io.setl.iobc.util;
 
 import com.fasterxml.jackson.core.JsonLocation;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
@@ -22,9 +25,22 @@ import io.setl.json.jackson.JsonModule;
  */
 public class SerdeSupport {
 
+  private static final ObjectMapper BINARY_OBJECT_MAPPER;
+
   private static final ObjectMapper OBJECT_MAPPER;
 
 
+  /**
+   * Get the mapper for the binary wire format. The mapper writes CBOR with properties and map entries in a fixed order, and identifies message content types
+   * with the short identifiers from {@link ContentTypeIds}.
+   *
+   * @return the mapper
+   */
+  public static ObjectMapper getBinaryObjectMapper() {
+    return BINARY_OBJECT_MAPPER;
+  }
+
+
   /**
    * Convert from JSON to an object instance.
    *
@@ -122,6 +138,16 @@ public class SerdeSupport {
     objectMapper.registerModule(new JavaTimeModule());
     objectMapper.registerModule(new ParameterNamesModule());
     OBJECT_MAPPER = objectMapper;
+
+    ObjectMapper binaryMapper = new ObjectMapper(new CBORFactory());
+    binaryMapper.registerModule(new JsonModule());
+    binaryMapper.registerModule(new Jdk8Module());
+    binaryMapper.registerModule(new JavaTimeModule());
+    binaryMapper.registerModule(new ParameterNamesModule());
+    binaryMapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+    binaryMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    binaryMapper.setAnnotationIntrospector(new ContentTypeIds.Introspector());
+    BINARY_OBJECT_MAPPER = binaryMapper;
   }
 
 }
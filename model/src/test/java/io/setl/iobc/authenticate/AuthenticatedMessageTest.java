@@ -1,7 +1,9 @@
 package io.setl.iobc.authenticate;
 
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -10,12 +12,14 @@ import java.security.InvalidKeyException;
 import java.security.KeyPair;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.Test;
 
 import io.setl.crypto.KeyGen.Type;
 import io.setl.http.signatures.KeySpecification;
 import io.setl.http.signatures.error.UnsupportedAlgorithmException;
 import io.setl.iobc.model.tokens.BurnToken;
+import io.setl.iobc.util.SerdeSupport;
 
 /**
  * @author Simon Greatrix on 14/11/2021.
@@ -49,4 +53,48 @@ public class AuthenticatedMessageTest {
     assertTrue(message.isValidSignature(new KeySpecification("TEST", keyPair.getPublic(), "EC")));
   }
 
-}
\ No newline at end of file
+
+
+  @Test
+  public void serde() throws UnsupportedAlgorithmException, InvalidKeyException {
+    KeyPair keyPair = Type.EC_NIST_P256.generate();
+    BurnToken.Input input = BurnToken.Input.builder().symbol("EURO").amount(BigInteger.TEN).from("myAddress").build();
+    AuthenticatedMessage message = new AuthenticatedMessage("user1337", "TEST", input);
+    message.sign(new KeySpecification("TEST", keyPair.getPrivate(), "EC"));
+
+    // Reusing the signed bytes must give the same output as serializing the message.
+    AuthenticatedMessageSerde serde = new AuthenticatedMessageSerde();
+    byte[] bytes = serde.serializer().serialize("topic", message);
+    assertArrayEquals(SerdeSupport.newSerializer(AuthenticatedMessage.class).serialize("topic", message), bytes);
+
+    AuthenticatedMessage message2 = serde.deserializer().deserialize("topic", bytes);
+    assertEquals(message, message2);
+    SignaturePool verifiers = new SignaturePool(new KeySpecification("TEST", keyPair.getPublic(), "EC"));
+    assertTrue(message2.isValidSignature(verifiers));
+    assertTrue(message2.isValidSignature(verifiers));
+
+    KeyPair otherPair = Type.EC_NIST_P256.generate();
+    assertFalse(message2.isValidSignature(new KeySpecification("TEST", otherPair.getPublic(), "EC")));
+  }
+
+
+
+  @Test
+  public void serdeBinary() throws UnsupportedAlgorithmException, InvalidKeyException {
+    KeyPair keyPair = Type.EC_NIST_P256.generate();
+    BurnToken.Input input = BurnToken.Input.builder().symbol("EURO").amount(BigInteger.TEN).from("myAddress").build();
+    AuthenticatedMessage message = new AuthenticatedMessage("user1337", "TEST", input);
+    message.sign(new SignaturePool(new KeySpecification("TEST", keyPair.getPrivate(), "EC")), WireFormat.CBOR);
+
+    AuthenticatedMessageSerde serde = new AuthenticatedMessageSerde();
+    RecordHeaders headers = new RecordHeaders();
+    byte[] bytes = serde.serializer().serialize("topic", headers, message);
+    assertArrayEquals(WireFormat.CBOR.getHeaderValue(), headers.lastHeader(WireFormat.HEADER).value());
+
+    AuthenticatedMessage message2 = serde.deserializer().deserialize("topic", headers, bytes);
+    assertEquals(message, message2);
+    assertEquals(WireFormat.CBOR, message2.getWireFormat());
+    assertTrue(message2.isValidSignature(new KeySpecification("TEST", keyPair.getPublic(), "EC")));
+  }
+
+}
@@ -0,0 +1,40 @@
+package io.setl.iobc.authenticate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * @author Simon Greatrix on 05/03/2022.
+ */
+public class CanonicalSignatureTest {
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+
+  private static String string(byte[] json) {
+    return new String(json, StandardCharsets.UTF_8);
+  }
+
+
+  @Test
+  public void blank() {
+    String signed = "{\"content\":{\"x\":{\"signature\":\"inner\"}},\"note\":\"\\\"signature\\\":\\\"\",\"signature\":\"abc-_\",\"userId\":\"u\"}";
+    String unsigned = "{\"content\":{\"x\":{\"signature\":\"inner\"}},\"note\":\"\\\"signature\\\":\\\"\",\"signature\":\"\",\"userId\":\"u\"}";
+    assertEquals(unsigned, string(CanonicalSignature.blank(bytes(signed))));
+    assertEquals(signed, string(CanonicalSignature.insert(bytes(unsigned), "abc-_")));
+  }
+
+
+  @Test
+  public void missing() {
+    assertNull(CanonicalSignature.blank(bytes("{\"content\":{\"signature\":\"inner\"}}")));
+    assertNull(CanonicalSignature.insert(bytes("{\"signature\":\"already\"}"), "abc"));
+  }
+
+}
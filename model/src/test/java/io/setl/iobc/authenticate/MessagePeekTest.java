@@ -0,0 +1,77 @@
+package io.setl.iobc.authenticate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.security.InvalidKeyException;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.Test;
+
+import io.setl.crypto.KeyGen.Type;
+import io.setl.http.signatures.KeySpecification;
+import io.setl.http.signatures.error.UnsupportedAlgorithmException;
+import io.setl.iobc.model.ErrorDetails;
+import io.setl.iobc.model.Response;
+import io.setl.iobc.model.Response.InReplyTo;
+import io.setl.iobc.model.tokens.BurnToken;
+
+/**
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public class MessagePeekTest {
+
+  private final SignaturePool signers = new SignaturePool(new KeySpecification("TEST", Type.EC_NIST_P256.generate().getPrivate(), "EC"));
+
+
+  private void check(WireFormat format) throws UnsupportedAlgorithmException, InvalidKeyException {
+    InReplyTo inReplyTo = InReplyTo.builder().userId("user1337").messageId("abc123").build();
+    Response response = Response.builder()
+        .inReplyTo(inReplyTo)
+        .pass(false)
+        .errorDetails(ErrorDetails.builder().code("test:failed").message("It failed").build())
+        .build();
+    AuthenticatedMessage message = new AuthenticatedMessage("iobc-server", "TEST", response);
+    message.sign(signers, format);
+
+    RecordHeaders headers = new RecordHeaders();
+    byte[] bytes = new AuthenticatedMessageSerde().serializer().serialize("topic", headers, message);
+
+    MessagePeek peek = MessagePeek.peek(headers, bytes);
+    assertEquals(new MessagePeek(inReplyTo, "TEST", "iobc-server"), peek);
+  }
+
+
+  @Test
+  public void notResponse() throws UnsupportedAlgorithmException, InvalidKeyException {
+    BurnToken.Input input = BurnToken.Input.builder().symbol("EURO").amount(BigInteger.TEN).from("myAddress").build();
+    AuthenticatedMessage message = new AuthenticatedMessage("user1337", "TEST", input);
+    message.sign(signers, WireFormat.JSON);
+
+    MessagePeek peek = MessagePeek.peek(WireFormat.JSON, message.toSignedBytes());
+    assertNull(peek.getInReplyTo());
+    assertEquals("user1337", peek.getUserId());
+  }
+
+
+  @Test
+  public void peekBinary() throws UnsupportedAlgorithmException, InvalidKeyException {
+    check(WireFormat.CBOR);
+  }
+
+
+  @Test
+  public void peekJson() throws UnsupportedAlgorithmException, InvalidKeyException {
+    check(WireFormat.JSON);
+  }
+
+
+  @Test
+  public void unreadable() {
+    assertNull(MessagePeek.peek(WireFormat.JSON, new byte[]{'[', '1', ']'}));
+    assertNull(MessagePeek.peek(WireFormat.CBOR, new byte[]{0, 10, 'a'}));
+    assertNull(MessagePeek.peek(WireFormat.JSON, null));
+  }
+
+}
@@ -0,0 +1,67 @@
+package io.setl.iobc.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import io.setl.iobc.model.tokens.GetBalance;
+import io.setl.iobc.model.tokens.TransferToken;
+import io.setl.iobc.util.SerdeSupport;
+
+/**
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public class BulkTest {
+
+  private static TransferToken.Input transfer(String from, int amount) {
+    return TransferToken.Input.builder().symbol("EURO").amount(BigInteger.valueOf(amount)).from(from).to("other").build();
+  }
+
+
+  private final Bulk.Input input = Bulk.Input.builder()
+      .type(TransferToken.NAME)
+      .items(List.of(transfer("a", 1), transfer("b", 2), transfer("a", 3)))
+      .build();
+
+
+  private void check(ObjectMapper mapper) throws IOException {
+    byte[] bytes = mapper.writeValueAsBytes(input);
+    assertEquals(input, mapper.readValue(bytes, Bulk.Input.class));
+
+    Bulk.Output output = Bulk.Output.builder()
+        .results(List.of(
+            Bulk.Item.builder().pass(true).result(GetBalance.Output.builder().amount(BigInteger.TEN).build()).build(),
+            Bulk.Item.builder().pass(false).errorDetails(ErrorDetails.builder().code("test:failed").message("Failed").build()).build()
+        ))
+        .build();
+    bytes = mapper.writeValueAsBytes(output);
+    assertEquals(output, mapper.readValue(bytes, Bulk.Output.class));
+  }
+
+
+  @Test
+  public void orderingKey() {
+    assertNull(input.orderingKey());
+    Bulk.Input same = Bulk.Input.builder().type(TransferToken.NAME).items(List.of(transfer("a", 1), transfer("a", 2))).build();
+    assertEquals("a", same.orderingKey());
+  }
+
+
+  @Test
+  public void serdeBinary() throws IOException {
+    check(SerdeSupport.getBinaryObjectMapper());
+  }
+
+
+  @Test
+  public void serdeJson() throws IOException {
+    check(SerdeSupport.getObjectMapper());
+  }
+
+}
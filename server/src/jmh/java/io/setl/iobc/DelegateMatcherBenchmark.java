@@ -0,0 +1,191 @@
+package io.setl.iobc;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.authenticate.MessagePrincipals;
+import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.config.ChainConfigurationFactory;
+import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.IobcDelegate;
+import io.setl.iobc.model.MessageInput;
+import io.setl.iobc.model.PingDelegate;
+import io.setl.iobc.table.AddressTable;
+import io.setl.iobc.table.TokenTable;
+
+/**
+ * The cost of finding and invoking the delegate for a message, for a delegate specific to the chain's brand, a chain agnostic delegate on the internal chain,
+ * and a chain agnostic delegate on a branded chain. The delegates do no work, so only the dispatch is measured.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class DelegateMatcherBenchmark {
+
+  /** A delegate which does nothing. */
+  static class BenchDelegate implements IobcDelegate<BenchInput, PingDelegate.Output> {
+
+    private final ChainBrand brand;
+
+    private final String type;
+
+
+    BenchDelegate(String type, ChainBrand brand) {
+      this.type = type;
+      this.brand = brand;
+    }
+
+
+    @Override
+    public CompletableFuture<PingDelegate.Output> apply(ChainConfiguration chain, BenchInput input) {
+      return OUTPUT;
+    }
+
+
+    @Override
+    public ChainBrand getBrandSupported() {
+      return brand;
+    }
+
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+  }
+
+
+
+  /** An input whose principal is a wallet on a named chain. */
+  static class BenchInput implements MessageInput {
+
+    private final String chainId;
+
+
+    BenchInput(String chainId) {
+      this.chainId = chainId;
+    }
+
+
+    @Override
+    public MessagePrincipals resolvePrincipal() {
+      return MessagePrincipals.forWallet(1, chainId);
+    }
+
+  }
+
+
+
+  private static final String AGNOSTIC = "BENCH.AGNOSTIC";
+
+  private static final String BRANDED = "BENCH.BRANDED";
+
+  private static final CompletableFuture<PingDelegate.Output> OUTPUT = CompletableFuture.completedFuture(PingDelegate.Output.builder().message("").build());
+
+
+  @SuppressWarnings("unchecked")
+  private static <T> T stub(Class<T> type) {
+    // The wallet principals used here never consult the tables.
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> null);
+  }
+
+
+  private BenchInput besuInput;
+
+  private BenchInput internalInput;
+
+  private DelegateMatcher matcher;
+
+
+  /** A chain agnostic delegate invoked on a branded chain, which falls back to the delegate for no brand. */
+  @Benchmark
+  public CompletableFuture<MessageContent> agnosticOnBrandedChain() {
+    return matcher.invoke(AGNOSTIC, besuInput);
+  }
+
+
+  /** A chain agnostic delegate invoked on the internal chain. */
+  @Benchmark
+  public CompletableFuture<MessageContent> agnosticOnInternalChain() {
+    return matcher.invoke(AGNOSTIC, internalInput);
+  }
+
+
+  /** A delegate specific to the chain's brand. */
+  @Benchmark
+  public CompletableFuture<MessageContent> branded() {
+    return matcher.invoke(BRANDED, besuInput);
+  }
+
+
+  /** Create the matcher with a branded chain. */
+  @Setup
+  public void setup() {
+    ChainConfigurationFactory besuFactory = new ChainConfigurationFactory() {
+      @Override
+      public ChainConfiguration create(String iobcId, Map<String, Object> properties) {
+        return new ChainConfiguration() {
+          @Override
+          public ChainBrand getIobcBrand() {
+            return ChainBrand.BESU;
+          }
+
+
+          @Override
+          public String getIobcId() {
+            return iobcId;
+          }
+        };
+      }
+
+
+      @Override
+      public ChainBrand getIobcBrand() {
+        return ChainBrand.BESU;
+      }
+    };
+
+    RawChainConfiguration configuration = new RawChainConfiguration();
+    configuration.setChain(Map.of("besu", Map.of("iobcBrand", "BESU")));
+
+    List<IobcDelegate<?, ?>> delegates = List.of(
+        new PingDelegate(),
+        new BenchDelegate(AGNOSTIC, ChainBrand.NONE),
+        new BenchDelegate(BRANDED, ChainBrand.BESU),
+        new BenchDelegate(BRANDED, ChainBrand.CORDA),
+        new BenchDelegate(BRANDED, ChainBrand.FABRIC)
+    );
+    matcher = new DelegateMatcher(
+        delegates,
+        List.of(besuFactory, new NoChainConfigurationFactory()),
+        configuration,
+        stub(AddressTable.class),
+        stub(TokenTable.class)
+    );
+
+    besuInput = new BenchInput("besu");
+    internalInput = new BenchInput(ChainConfiguration.INTERNAL_CHAIN);
+  }
+
+}
@@ -9,7 +9,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.json.Json;
@@ -44,51 +43,6 @@ import io.setl.iobc.util.ExceptionTranslator;
 @Slf4j
 public class DelegateMatcher {
 
-  static class Key {
-
-    private final ChainBrand brand;
-
-    private final int hc;
-
-    private final Class<? extends MessageContent> input;
-
-    private final String type;
-
-
-    public Key(String type, Class<? extends MessageInput> input, ChainBrand brand) {
-      this.type = type;
-      this.input = input;
-      this.brand = brand;
-      hc = Objects.hash(type, input, brand);
-    }
-
-
-    public boolean equals(Object other) {
-      if (other == this) {
-        return true;
-      }
-      if (!(other instanceof Key)) {
-        return false;
-      }
-      Key that = (Key) other;
-      return hc == that.hc && brand == that.brand && input.equals(that.input) && type.equals(that.type);
-    }
-
-
-    @Override
-    public int hashCode() {
-      return hc;
-    }
-
-
-    public String toString() {
-      return "[" + type + " <" + input + "> for " + brand + "]";
-    }
-
-  }
-
-
-
   private final Function<String, SetlAddress> addressFunction;
 
   /** Map of chain configurations. */
@@ -96,8 +50,11 @@ public class DelegateMatcher {
 
   private final ChainConfiguration defaultChain;
 
-  /** Map of delegates. */
-  private final Map<Key, IobcDelegate<?, ?>> delegates;
+  /**
+   * The delegates by operation name, input type and brand. Brands with no delegate of their own map to the chain agnostic delegate, if there is one, so a
+   * single look-up finds the delegate.
+   */
+  private final Map<String, Map<Class<? extends MessageInput>, EnumMap<ChainBrand, IobcDelegate<?, ?>>>> dispatch;
 
   private final Function<String, TokenSpecification> tokenFunction;
 
@@ -126,15 +83,27 @@ public class DelegateMatcher {
 
     // Load all the delegates and identify what inputs they will process
     TypeFactory typeFactory = TypeFactory.defaultInstance();
-    HashMap<Key, IobcDelegate<?, ?>> delegateMap = new HashMap<>();
+    HashMap<String, Map<Class<? extends MessageInput>, EnumMap<ChainBrand, IobcDelegate<?, ?>>>> dispatchMap = new HashMap<>();
     for (IobcDelegate<?, ?> delegate : delegates) {
       JavaType javaType = typeFactory.constructType(delegate.getClass());
       JavaType interfaceType = javaType.findSuperType(IobcDelegate.class);
       JavaType inputType = interfaceType.getBindings().findBoundType("InputType");
       Class<? extends MessageInput> inputClass = inputType.getRawClass().asSubclass(MessageInput.class);
-      delegateMap.put(new Key(delegate.getType(), inputClass, delegate.getBrandSupported()), delegate);
+      dispatchMap.computeIfAbsent(delegate.getType(), k -> new HashMap<>())
+          .computeIfAbsent(inputClass, k -> new EnumMap<>(ChainBrand.class))
+          .put(delegate.getBrandSupported(), delegate);
     }
-    this.delegates = Collections.unmodifiableMap(delegateMap);
+    for (Map<Class<? extends MessageInput>, EnumMap<ChainBrand, IobcDelegate<?, ?>>> byInput : dispatchMap.values()) {
+      for (EnumMap<ChainBrand, IobcDelegate<?, ?>> byBrand : byInput.values()) {
+        IobcDelegate<?, ?> agnostic = byBrand.get(ChainBrand.NONE);
+        if (agnostic != null) {
+          for (ChainBrand brand : ChainBrand.values()) {
+            byBrand.putIfAbsent(brand, agnostic);
+          }
+        }
+      }
+    }
+    this.dispatch = Collections.unmodifiableMap(dispatchMap);
 
     // Identify the chain factories
     EnumMap<ChainBrand, ChainConfigurationFactory> factories = new EnumMap<>(ChainBrand.class);
@@ -175,6 +144,16 @@ public class DelegateMatcher {
   }
 
 
+  private IobcDelegate<?, ?> findDelegate(String name, Class<? extends MessageInput> inputType, ChainBrand brand) {
+    Map<Class<? extends MessageInput>, EnumMap<ChainBrand, IobcDelegate<?, ?>>> byInput = dispatch.get(name);
+    if (byInput == null) {
+      return null;
+    }
+    EnumMap<ChainBrand, IobcDelegate<?, ?>> byBrand = byInput.get(inputType);
+    return (byBrand != null) ? byBrand.get(brand) : null;
+  }
+
+
   public ChainConfiguration getChainConfiguration(String chainId) {
     if (chainId == null || chainId.isBlank()) {
       return defaultChain;
@@ -195,10 +174,12 @@ public class DelegateMatcher {
       inputType = input.getClass();
 
       // TODO - scan through the principals to identify one the caller can use.
-      Iterator<MessagePrincipal> iterator = input.resolvePrincipal().resolve(addressFunction, tokenFunction).iterator();
+      // Principals are only resolved until a valid one is found, as resolving may require table look-ups.
+      Iterator<MessagePrincipal> iterator = input.resolvePrincipal().iterator();
       boolean isUnauthorised = true;
       while (iterator.hasNext() && isUnauthorised) {
         MessagePrincipal principal = iterator.next();
+        principal.resolve(addressFunction, tokenFunction);
         if (!principal.isValid()) {
           continue;
         }
@@ -231,13 +212,9 @@ public class DelegateMatcher {
     }
 
     ChainBrand brand = myConfiguration.getIobcBrand();
-    Key key = new Key(name, inputType, brand);
-    IobcDelegate<?, ?> delegate = delegates.get(key);
-    if (delegate == null && brand != ChainBrand.NONE) {
-      // Try the NONE chain for chain agnostic delegates
-      delegate = delegates.get(new Key(name, inputType, ChainBrand.NONE));
-    }
+    IobcDelegate<?, ?> delegate = findDelegate(name, inputType, brand);
     if (delegate == null) {
+      String key = "[" + name + " <" + inputType + "> for " + brand + "]";
       log.error("No delegate implementation for {}", key);
       JsonObject json = Json.createObjectBuilder()
           .add("type", name)
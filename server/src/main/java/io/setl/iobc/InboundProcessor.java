@@ -1,70 +1,204 @@
 package io.setl.iobc;
 
 import java.security.InvalidKeyException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.processor.Processor;
 import org.apache.kafka.streams.processor.ProcessorContext;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
 import org.springframework.transaction.annotation.Transactional;
 
-import io.setl.common.Pair;
 import io.setl.common.ParameterisedException;
-import io.setl.http.signatures.KeySpecification;
 import io.setl.http.signatures.error.UnsupportedAlgorithmException;
 import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.authenticate.AuthenticatedMessageSerde;
 import io.setl.iobc.authenticate.KeyProvider;
 import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.authenticate.SignaturePool;
+import io.setl.iobc.authenticate.WireFormat;
 import io.setl.iobc.config.TopicConfiguration;
 import io.setl.iobc.model.ContinuedMessage;
 import io.setl.iobc.model.ErrorDetails;
-import io.setl.iobc.model.IobcDelegate;
 import io.setl.iobc.model.MessageInput;
 import io.setl.iobc.model.Response;
 import io.setl.iobc.model.Response.InReplyTo;
+import io.setl.iobc.model.TransactionInput;
 import io.setl.iobc.util.ExceptionTranslator;
 import io.setl.iobc.valid.ObjectValidator;
+import io.setl.iobc.valid.ReplayGuard;
 
 /**
  * Process Kafka messages on the "inbound" topic.
  *
+ * <p>Messages are validated and passed to their delegates on a pool of worker threads, so that a slow block-chain call does not stall the whole partition.
+ * Messages which share an ordering key are handled in the order they were received. Signatures are verified and replays detected on the stream thread, as
+ * the replay guard's store belongs to the stream task. The remaining validation is done by the workers.</p>
+ *
+ * <p>Every dispatched record is held in the {@link #PENDING_STORE} state store until its reply is published. The store is committed with the offsets, so
+ * offsets are committed at every commit interval without waiting for the workers, and the records that were still in flight are dispatched again when the
+ * processor is next initialised. The effective restart point of each partition is therefore its lowest offset that has not had its reply published. The Kafka
+ * Streams commit interval should be set high enough that this processor's own commits take precedence.</p>
+ *
+ * <p>If a reply cannot be published, the processor stops its stream task rather than carry on without replying. The unanswered record remains pending.</p>
+ *
+ * <p>Replies are published on the shared "outbound" topic, unless the signed message names one of the configured client reply topics. Replies on the shared
+ * topic are always JSON, as every client can read it. Replies on a client's own topic use the wire format of the message they reply to.</p>
+ *
  * @author Simon Greatrix on 16/11/2021.
  */
 @Slf4j
 public class InboundProcessor implements Processor<String, AuthenticatedMessage> {
 
+  /** Where and how the replies to an inbound message are sent. */
+  private static class ReplyTarget {
+
+    /** Replies to a client's own topic are sent in the same wire format as the message they reply to. */
+    final WireFormat format;
+
+    final InReplyTo inReplyTo;
+
+    /** The topic replies are published on. */
+    final String topic;
+
+    /** The inbound message's type. */
+    final String type;
+
+
+    ReplyTarget(InReplyTo inReplyTo, String type, WireFormat format, String topic) {
+      this.inReplyTo = inReplyTo;
+      this.type = type;
+      this.format = format;
+      this.topic = topic;
+    }
+
+  }
+
+
+
+  /** Name of the state store that holds the records which have been dispatched but not replied to. */
+  public static final String PENDING_STORE = "iobc-inbound-pending";
+
+
+  /** Interval between offset commits. */
+  private final Duration commitInterval;
+
+  /** Keys of pending records whose replies have been published. The store may only be updated on the stream thread, so they are removed from there. */
+  private final ConcurrentLinkedQueue<String> completed = new ConcurrentLinkedQueue<>();
+
   /** Map of input message type to delegate. */
   private final DelegateMatcher delegates;
 
+  /** Dispatcher of messages to worker threads. */
+  private final KeyedDispatcher dispatcher;
+
   private final KeyProvider keyProvider;
 
-  private final KafkaTemplate<String, AuthenticatedMessage> template;
+  /** Publisher of replies. */
+  private final OutboundPublisher publisher;
+
+  /** Guard against replayed messages. */
+  private final ReplayGuard replayGuard;
+
+  /** Serializer and deserializer for the pending records. */
+  private final AuthenticatedMessageSerde serde = new AuthenticatedMessageSerde();
 
   private final ObjectValidator validator;
 
 
+  private ProcessorContext context;
+
+  /** Records which have been dispatched but not replied to, by topic, partition and offset. */
+  private KeyValueStore<String, PendingRecord> pending;
+
+  /** The first failure to publish a reply, if any. */
+  private volatile Throwable publishFailure;
+
+  /** The replay guard's store of accepted message IDs. */
+  private WindowStore<String, Long> replayStore;
+
+
   InboundProcessor(
       DelegateMatcher delegates,
-      KafkaTemplate<String, AuthenticatedMessage> template,
+      OutboundPublisher publisher,
       ObjectValidator validator,
-      KeyProvider keyProvider
+      ReplayGuard replayGuard,
+      KeyProvider keyProvider,
+      KeyedDispatcher dispatcher,
+      Duration commitInterval
   ) {
-    this.template = template;
+    this.publisher = publisher;
     this.validator = validator;
+    this.replayGuard = replayGuard;
     this.delegates = delegates;
     this.keyProvider = keyProvider;
+    this.dispatcher = dispatcher;
+    this.commitInterval = commitInterval;
   }
 
 
   @Override
   public void close() {
-    // nothing to do
+    awaitIdle();
+    removeCompleted();
+  }
+
+
+  private void awaitIdle() {
+    try {
+      dispatcher.awaitIdle();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted whilst waiting for inbound messages to be handled", e);
+    }
   }
 
 
-  private void handleFailure(InReplyTo inReplyTo, String type, Throwable throwable) {
-    log.error("Inbound operation of {} for {} failed", type, inReplyTo, throwable);
+  /** Stop the stream task if a reply could not be published. */
+  private void checkPublished() {
+    Throwable failure = publishFailure;
+    if (failure != null) {
+      throw new IllegalStateException("Failed to publish reply to an inbound message", failure);
+    }
+  }
+
+
+  private void commit(long timestamp) {
+    checkPublished();
+    // Records still in flight remain in the pending store, which is committed with the offsets, so there is no need to wait for them.
+    removeCompleted();
+    context.commit();
+  }
+
+
+  private CompletableFuture<Void> dispatch(AuthenticatedMessage value, String replyTopic, ErrorDetails rejection) {
+    String messageType = value.getType();
+    // Clients which only read JSON may share the outbound topic, so binary formats are only used on a client's own reply topic.
+    WireFormat format = TopicConfiguration.OUTBOUND.equals(replyTopic) ? WireFormat.JSON : value.getWireFormat();
+    ReplyTarget target = new ReplyTarget(value.buildInReplyTo(), messageType, format, replyTopic);
+    CompletableFuture<Void> rejected = validateMessage(value, target, rejection);
+    if (rejected != null) {
+      return rejected;
+    }
+
+    MessageInput content = (MessageInput) value.getContent();
+
+    CompletableFuture<MessageContent> result = delegates.invoke(messageType, content);
+    return result.handle((m, t) -> handleResult(target, m, t)).thenCompose(published -> published);
+  }
+
+
+  private CompletableFuture<Void> handleFailure(ReplyTarget target, Throwable throwable) {
+    log.error("Inbound operation of {} for {} failed", target.type, target.inReplyTo, throwable);
     ParameterisedException parameterised = ExceptionTranslator.convert(throwable);
     ErrorDetails details = ErrorDetails.builder()
         .message(parameterised.getMessage())
@@ -72,71 +206,154 @@ public class InboundProcessor implements Processor<String, AuthenticatedMessage>
         .parameters(parameterised.getParameters())
         .build();
 
-    Response response = Response.builder().inReplyTo(inReplyTo).pass(false).errorDetails(details).build();
-    AuthenticatedMessage message = new AuthenticatedMessage(Server.NAME, type, response);
-    sign(message);
-    template.executeInTransaction(o -> o.send(TopicConfiguration.OUTBOUND, message));
+    Response response = Response.builder().inReplyTo(target.inReplyTo).pass(false).errorDetails(details).build();
+    return reply(target, Server.NAME, response);
   }
 
 
-  private boolean handleResult(InReplyTo inReplyTo, String type, MessageContent messageContent, Throwable throwable) {
+  private CompletableFuture<Void> handleResult(ReplyTarget target, MessageContent messageContent, Throwable throwable) {
     if (messageContent != null) {
-      handleSuccess(inReplyTo, type, messageContent);
+      CompletableFuture<Void> published = handleSuccess(target, messageContent);
 
       if (messageContent instanceof ContinuedMessage) {
         CompletableFuture<ContinuedMessage> continuation = ((ContinuedMessage) messageContent).getContinuation();
         if (continuation != null) {
-          continuation.handle((m, t) -> handleResult(inReplyTo, type, m, t));
+          continuation.handle((m, t) -> handleResult(target, m, t));
         }
       }
-      return true;
+      return published;
     }
 
-    handleFailure(inReplyTo, type, throwable);
-    return false;
+    return handleFailure(target, throwable);
   }
 
 
-  private void handleSuccess(InReplyTo inReplyTo, String type, MessageContent messageContent) {
-    log.info("Inbound message of {} for {} handled OK", type, inReplyTo);
-    Response response = Response.builder().inReplyTo(inReplyTo).pass(true).result(messageContent).build();
-    AuthenticatedMessage message = new AuthenticatedMessage("iobc-server", type, response);
-    sign(message);
-
-    template.executeInTransaction(o -> o.send(TopicConfiguration.OUTBOUND, message));
+  private CompletableFuture<Void> handleSuccess(ReplyTarget target, MessageContent messageContent) {
+    log.info("Inbound message of {} for {} handled OK", target.type, target.inReplyTo);
+    Response response = Response.builder().inReplyTo(target.inReplyTo).pass(true).result(messageContent).build();
+    return reply(target, "iobc-server", response);
   }
 
 
   @Override
+  @SuppressWarnings("unchecked")
   public void init(ProcessorContext context) {
+    this.context = context;
+    pending = (KeyValueStore<String, PendingRecord>) context.getStateStore(PENDING_STORE);
+    replayStore = (WindowStore<String, Long>) context.getStateStore(ReplayGuard.STORE);
+    context.schedule(commitInterval, PunctuationType.WALL_CLOCK_TIME, this::commit);
+    redispatch();
     log.info("Inbound processor is initialised");
   }
 
 
+  /**
+   * Identify the key which orders the handling of a message. Transactions from the same user are ordered if their input does not specify a more selective key.
+   * The record's key is not used, as records are keyed by their user so that each user's messages reach the same replay guard store.
+   *
+   * @param value the message
+   *
+   * @return the ordering key, or null
+   */
+  private String orderingKey(AuthenticatedMessage value) {
+    MessageContent content = value.getContent();
+    if (content instanceof MessageInput) {
+      String orderingKey = ((MessageInput) content).orderingKey();
+      if (orderingKey != null) {
+        return orderingKey;
+      }
+    }
+    return (content instanceof TransactionInput) ? value.getUserId() : null;
+  }
+
+
   @Override
   @Transactional
   public void process(String key, AuthenticatedMessage value) {
-    String messageType = value.getType();
-    log.info("Received inbound message of type {}", messageType);
+    log.info("Received inbound message of type {}", value.getType());
+    checkPublished();
+    removeCompleted();
+
+    // Records may come from the inbound topic or from its repartition topic, so the topic is part of the key.
+    String pendingKey = String.format("%s:%05d:%019d", context.topic(), context.partition(), context.offset());
+    if (pending.get(pendingKey) != null) {
+      // The record was stored but its offset was not committed, so it has already been dispatched again from the store.
+      log.info("Inbound record {} is already pending", pendingKey);
+      return;
+    }
+
+    ErrorDetails rejection = verify(value);
+    // The reply-to is only trusted if the message is accepted, which requires a valid signature and a configured reply-to
+    String replyTopic = (rejection == null) ? TopicConfiguration.getReplyTopic(value.getReplyTo()) : TopicConfiguration.OUTBOUND;
+    RecordHeaders headers = new RecordHeaders();
+    byte[] data = serde.serializer().serialize(TopicConfiguration.INBOUND, headers, value);
+    pending.put(pendingKey, PendingRecord.builder().data(data).format(value.getWireFormat()).rejection(rejection).replyTopic(replyTopic).build());
+    submit(pendingKey, value, replyTopic, rejection);
+  }
+
 
-    if (validateMessage(value)) {
+  /** Dispatch the records that were pending when the processor last stopped. */
+  private void redispatch() {
+    List<KeyValue<String, PendingRecord>> records = new ArrayList<>();
+    try (KeyValueIterator<String, PendingRecord> iterator = pending.all()) {
+      iterator.forEachRemaining(records::add);
+    }
+    if (records.isEmpty()) {
       return;
     }
 
-    MessageInput content = (MessageInput) value.getContent();
+    log.info("Dispatching {} inbound records which were pending when the processor last stopped", records.size());
+    for (KeyValue<String, PendingRecord> entry : records) {
+      PendingRecord record = entry.value;
+      RecordHeaders headers = new RecordHeaders();
+      if (record.getFormat() != WireFormat.JSON) {
+        headers.add(WireFormat.HEADER, record.getFormat().getHeaderValue());
+      }
+      AuthenticatedMessage message = serde.deserializer().deserialize(TopicConfiguration.INBOUND, headers, record.getData());
+      // The message was verified and checked for replay when it was first received.
+      submit(entry.key, message, record.getReplyTopic(), record.getRejection());
+    }
+  }
 
-    CompletableFuture<MessageContent> result = delegates.invoke(messageType, content);
-    result.handle((m, t) -> handleResult(value.buildInReplyTo(), messageType, m, t));
+
+  /** Remove the records whose replies have been published from the pending store. */
+  private void removeCompleted() {
+    String pendingKey;
+    while ((pendingKey = completed.poll()) != null) {
+      pending.delete(pendingKey);
+    }
+  }
+
+
+  /**
+   * Sign and publish a reply.
+   *
+   * @param target   where and how the reply is sent
+   * @param sender   the sender of the reply
+   * @param response the reply's content
+   *
+   * @return a future which completes when the reply is published
+   */
+  private CompletableFuture<Void> reply(ReplyTarget target, String sender, Response response) {
+    AuthenticatedMessage message = new AuthenticatedMessage(sender, target.type, response);
+    sign(message, target.format);
+    return publisher.publish(message, target.topic);
   }
 
 
-  private void sign(AuthenticatedMessage message) {
-    KeySpecification keySpecification = keyProvider.getSigningKey(Server.NAME);
-    if (keySpecification == null) {
+  /**
+   * Sign a reply in the reply target's wire format.
+   *
+   * @param message the reply
+   * @param format  the wire format
+   */
+  private void sign(AuthenticatedMessage message, WireFormat format) {
+    SignaturePool signers = keyProvider.getSigningPool(Server.NAME);
+    if (signers == null) {
       throw new IllegalStateException("Server does not know its own signing secret");
     }
     try {
-      message.sign(keySpecification);
+      message.sign(signers, format);
     } catch (UnsupportedAlgorithmException | InvalidKeyException e) {
       log.error("Unable to sign outgoing messages", e);
     }
@@ -144,32 +361,86 @@ public class InboundProcessor implements Processor<String, AuthenticatedMessage>
   }
 
 
-  private boolean validateMessage(AuthenticatedMessage message) {
-    ErrorDetails errorDetails = validator.validate(message);
-
-    KeySpecification keySpecification = keyProvider.getVerifyingKey(message.getUserId());
-    if (errorDetails == null && !message.isValidSignature(keySpecification)) {
-      errorDetails = ErrorDetails.builder()
-          .code("iobc:invalid-message-signature")
-          .message("Invalid message signature")
-          .build();
+  /**
+   * Dispatch a record to the workers. The record is removed from the pending store once its reply is published.
+   *
+   * @param pendingKey the record's key in the pending store
+   * @param value      the message
+   * @param replyTopic the topic replies are published on
+   * @param rejection  why the message was rejected on the stream thread, or null
+   */
+  private void submit(String pendingKey, AuthenticatedMessage value, String replyTopic, ErrorDetails rejection) {
+    try {
+      dispatcher.submit(orderingKey(value), () -> dispatch(value, replyTopic, rejection).whenComplete((r, t) -> {
+        if (t == null) {
+          completed.add(pendingKey);
+        } else {
+          // The record stays in the pending store, so it is handled again when the processor next starts.
+          log.error("Failed to publish reply to inbound record {}. The stream task will stop.", pendingKey, t);
+          if (publishFailure == null) {
+            publishFailure = t;
+          }
+        }
+      }));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted whilst dispatching inbound message", e);
     }
+  }
+
 
+  /**
+   * Validate an inbound message, publishing a failure reply if it is not valid.
+   *
+   * @param message   the message
+   * @param target    where and how a failure reply is sent
+   * @param rejection why the message was rejected on the stream thread, or null
+   *
+   * @return null if the message is valid, otherwise a future which completes when the failure reply is published
+   */
+  private CompletableFuture<Void> validateMessage(AuthenticatedMessage message, ReplyTarget target, ErrorDetails rejection) {
+    ErrorDetails errorDetails = (rejection != null) ? rejection : validator.validate(message);
     if (errorDetails == null) {
-      return false;
+      return null;
     }
 
     Response response = Response.builder()
-        .inReplyTo(message.buildInReplyTo())
+        .inReplyTo(target.inReplyTo)
         .pass(false)
         .errorDetails(errorDetails)
         .build();
+    return reply(target, "iobc-server", response);
+  }
 
-    AuthenticatedMessage reply = new AuthenticatedMessage("iobc-server", message.getType(), response);
-    sign(reply);
-    template.executeInTransaction(o -> o.send(TopicConfiguration.OUTBOUND, reply));
 
-    return true;
+  /**
+   * Verify a message's signature, check its reply-to, and check it is not a replay. This is done on the stream thread, as the replay guard's store belongs to
+   * the stream task.
+   *
+   * <p>A client may name its own reply topic in the signed message. If the name is not one of the configured reply topics, the message is rejected rather than
+   * handled with its replies on the shared topic, where a client reading only its own topic would never see them.</p>
+   *
+   * @param message the message
+   *
+   * @return null if the message is acceptable, otherwise details of why it is not
+   */
+  private ErrorDetails verify(AuthenticatedMessage message) {
+    SignaturePool verifiers = keyProvider.getVerifyingPool(message.getUserId());
+    if (!message.isValidSignature(verifiers)) {
+      return ErrorDetails.builder()
+          .code("iobc:invalid-message-signature")
+          .message("Invalid message signature")
+          .build();
+    }
+    String replyTo = message.getReplyTo();
+    if (replyTo != null && !replyTo.isEmpty() && !publisher.isReplyTo(replyTo)) {
+      log.warn("Rejecting message with reply-to \"{}\" which is not a configured reply topic", replyTo);
+      return ErrorDetails.builder()
+          .code("iobc:invalid-reply-to")
+          .message("Reply-to \"" + replyTo + "\" is not a configured reply topic")
+          .build();
+    }
+    return replayGuard.check(replayStore, message);
   }
 
 }
@@ -1,14 +1,18 @@
 package io.setl.iobc;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
 import org.apache.kafka.streams.processor.ProcessorSupplier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.setl.iobc.authenticate.AuthenticatedMessage;
 import io.setl.iobc.authenticate.KeyProvider;
 import io.setl.iobc.valid.ObjectValidator;
+import io.setl.iobc.valid.ReplayGuard;
 
 /**
  * Supplier of new inbound processor instances.
@@ -18,12 +22,25 @@ import io.setl.iobc.valid.ObjectValidator;
 @Component
 public class InboundProcessorSupplier implements ProcessorSupplier<String, AuthenticatedMessage> {
 
+  /** Interval between offset commits. */
+  private final Duration commitInterval;
+
   /** Map of input message type to delegate. */
   private final DelegateMatcher delegates;
 
+  /** Executor for the inbound worker threads. */
+  private final ExecutorService executorService;
+
   private final KeyProvider keyProvider;
 
-  private final KafkaTemplate<String, AuthenticatedMessage> template;
+  /** Maximum number of messages in flight per processor. */
+  private final int maxInFlight;
+
+  /** Publisher of replies. */
+  private final OutboundPublisher publisher;
+
+  /** Guard against replayed messages, shared by all processors. */
+  private final ReplayGuard replayGuard;
 
   private final ObjectValidator validator;
 
@@ -32,20 +49,29 @@ public class InboundProcessorSupplier implements ProcessorSupplier<String, Authe
   @Autowired
   public InboundProcessorSupplier(
       DelegateMatcher delegates,
-      @Qualifier("outboundTemplate") KafkaTemplate<String, AuthenticatedMessage> template,
+      OutboundPublisher publisher,
       KeyProvider keyProvider,
-      ObjectValidator validator
+      ObjectValidator validator,
+      ReplayGuard replayGuard,
+      @Qualifier("inboundExecutorService") ExecutorService executorService,
+      @Value("${setl.iobc.inbound.maxInFlight:256}") int maxInFlight,
+      @Value("${setl.iobc.inbound.commitInterval:PT1S}") Duration commitInterval
   ) {
-    this.template = template;
+    this.publisher = publisher;
     this.validator = validator;
+    this.replayGuard = replayGuard;
     this.keyProvider = keyProvider;
     this.delegates = delegates;
+    this.executorService = executorService;
+    this.maxInFlight = maxInFlight;
+    this.commitInterval = commitInterval;
   }
 
 
   @Override
   public InboundProcessor get() {
-    return new InboundProcessor(delegates, template, validator, keyProvider);
+    KeyedDispatcher dispatcher = new KeyedDispatcher(executorService, maxInFlight);
+    return new InboundProcessor(delegates, publisher, validator, replayGuard, keyProvider, dispatcher, commitInterval);
   }
 
 }
@@ -0,0 +1,148 @@
+package io.setl.iobc;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dispatch work to a shared pool of worker threads. Work items which share a key are started in the order they were submitted, and each is started only after
+ * the previous item for the same key has returned its future. Work items without a key may run in any order.
+ *
+ * <p>The number of work items in flight is bounded. An item remains in flight until the future it returns has completed, so submitting work blocks the
+ * caller when the bound is reached.</p>
+ *
+ * @author Simon Greatrix on 03/03/2022.
+ */
+@Slf4j
+public class KeyedDispatcher {
+
+  /** The executor that runs the work items. */
+  private final Executor executor;
+
+  /** Lock for the per-key queues. */
+  private final Object lock = new Object();
+
+  /** The maximum number of work items in flight. */
+  private final int maxInFlight;
+
+  /** Permits for work items in flight. */
+  private final Semaphore permits;
+
+  /** Queues of work items waiting for an earlier item with the same key to start. A key is present whilst an item for it is running. */
+  private final Map<String, ArrayDeque<Runnable>> queues = new HashMap<>();
+
+
+  /**
+   * New instance.
+   *
+   * @param executor    the executor that runs the work items
+   * @param maxInFlight the maximum number of work items that may be in flight
+   */
+  public KeyedDispatcher(Executor executor, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("Maximum in-flight work items must be positive, not " + maxInFlight);
+    }
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    permits = new Semaphore(maxInFlight);
+  }
+
+
+  /**
+   * Wait until no work items are in flight.
+   *
+   * @throws InterruptedException if interrupted whilst waiting
+   */
+  public void awaitIdle() throws InterruptedException {
+    permits.acquire(maxInFlight);
+    permits.release(maxInFlight);
+  }
+
+
+  /**
+   * Get the number of work items currently in flight.
+   *
+   * @return the number in flight
+   */
+  public int getInFlight() {
+    return maxInFlight - permits.availablePermits();
+  }
+
+
+  private void runQueue(String key, Runnable first) {
+    Runnable next = first;
+    while (next != null) {
+      boolean isFinished = false;
+      try {
+        next.run();
+        isFinished = true;
+      } finally {
+        synchronized (lock) {
+          ArrayDeque<Runnable> queue = queues.get(key);
+          next = queue.poll();
+          if (next == null) {
+            queues.remove(key);
+          }
+        }
+        if (!isFinished && next != null) {
+          // This thread is failing, so the rest of the key's queue is run on another thread.
+          Runnable remaining = next;
+          executor.execute(() -> runQueue(key, remaining));
+        }
+      }
+    }
+  }
+
+
+  private void runTask(Supplier<CompletableFuture<?>> task) {
+    CompletableFuture<?> future = null;
+    try {
+      future = task.get();
+    } catch (RuntimeException e) {
+      log.error("Dispatched work item failed", e);
+    } finally {
+      // The permit is released even if the work item throws an Error, so the bound is not permanently reduced.
+      if (future == null) {
+        permits.release();
+      } else {
+        future.whenComplete((r, t) -> permits.release());
+      }
+    }
+  }
+
+
+  /**
+   * Submit a work item. The work item returns a future which completes when the work is finished, or null if the work was finished synchronously.
+   *
+   * @param key  the ordering key. If null, the item is not ordered relative to any other item.
+   * @param task the work item
+   *
+   * @throws InterruptedException if interrupted whilst waiting for the number of items in flight to fall below the bound
+   */
+  public void submit(String key, Supplier<CompletableFuture<?>> task) throws InterruptedException {
+    permits.acquire();
+    Runnable runnable = () -> runTask(task);
+    if (key == null) {
+      executor.execute(runnable);
+      return;
+    }
+
+    synchronized (lock) {
+      ArrayDeque<Runnable> queue = queues.get(key);
+      if (queue != null) {
+        // an item with this key is running, so this must wait for it
+        queue.add(runnable);
+        return;
+      }
+      queues.put(key, new ArrayDeque<>());
+    }
+    executor.execute(() -> runQueue(key, runnable));
+  }
+
+}
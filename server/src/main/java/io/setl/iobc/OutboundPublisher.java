@@ -0,0 +1,307 @@
+package io.setl.iobc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.config.TopicConfiguration;
+
+/**
+ * Publisher of replies on the "outbound" topic, or a client's own reply topic. Replies are grouped so that a single Kafka transaction is used for each topic in
+ * a batch, rather than one transaction for every reply. A batch is sent when it is full, or when the linger time has passed since its first reply was queued.
+ *
+ * <p>Only the configured reply-to names may be used, and each topic has its own transaction, so a problem with one client's reply topic cannot hold up or
+ * fail the replies to other clients.</p>
+ *
+ * <p>A batch whose transaction fails is sent again, with an increasing back-off, until the maximum number of attempts is reached. The replies' futures only
+ * complete exceptionally when every attempt has failed, or when the publisher has stopped.</p>
+ *
+ * @author Simon Greatrix on 04/03/2022.
+ */
+@Component
+@Slf4j
+public class OutboundPublisher implements InitializingBean, DisposableBean {
+
+  /** A reply waiting to be published. */
+  private static class Pending {
+
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    final AuthenticatedMessage message;
+
+    final String topic;
+
+
+    Pending(AuthenticatedMessage message, String topic) {
+      this.message = message;
+      this.topic = topic;
+    }
+
+  }
+
+
+
+  /** Distribution of batch sizes. */
+  private final DistributionSummary batchSizes;
+
+  /** Time taken to send and commit a batch. */
+  private final Timer commitLatency;
+
+  /** Maximum time to wait for a batch to fill. */
+  private final Duration lingerTime;
+
+  /** Maximum number of attempts to publish a batch. */
+  private final int maxAttempts;
+
+  /** Maximum number of replies in one transaction. */
+  private final int maxBatchSize;
+
+  /** Replies waiting to be published. */
+  private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+  /** The reply-to names of the clients' own reply topics. */
+  private final Set<String> replyTo;
+
+  /** Delay before the first retry of a failed batch. It doubles with each further attempt. */
+  private final Duration retryBackoff;
+
+  private final KafkaTemplate<String, AuthenticatedMessage> template;
+
+  private volatile boolean isRunning = true;
+
+  /** Set when the publishing thread has stopped, after which replies can no longer be published. */
+  private volatile boolean isStopped = false;
+
+  private Thread thread;
+
+
+  /** New instance. */
+  @Autowired
+  public OutboundPublisher(
+      @Qualifier("outboundTemplate") KafkaTemplate<String, AuthenticatedMessage> template,
+      MeterRegistry meterRegistry,
+      @Value("${setl.iobc.outbound.maxBatchSize:100}") int maxBatchSize,
+      @Value("${setl.iobc.outbound.lingerTime:PT0.005S}") Duration lingerTime,
+      @Value("${setl.iobc.outbound.maxAttempts:5}") int maxAttempts,
+      @Value("${setl.iobc.outbound.retryBackoff:PT0.5S}") Duration retryBackoff,
+      @Value("${setl.iobc.outbound.replyTo:}") Set<String> replyTo
+  ) {
+    for (String name : replyTo) {
+      if (!TopicConfiguration.isValidReplyTo(name)) {
+        throw new IllegalArgumentException("Invalid reply-to name: \"" + name + "\"");
+      }
+    }
+    if (maxBatchSize < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException("Maximum outbound batch size and attempts must be positive, not " + maxBatchSize + " and " + maxAttempts);
+    }
+    this.template = template;
+    this.maxBatchSize = maxBatchSize;
+    this.lingerTime = lingerTime;
+    this.maxAttempts = maxAttempts;
+    this.retryBackoff = retryBackoff;
+    this.replyTo = Set.copyOf(replyTo);
+    batchSizes = DistributionSummary.builder("iobc.outbound.batch.size")
+        .description("Number of replies published in each Kafka transaction")
+        .register(meterRegistry);
+    commitLatency = Timer.builder("iobc.outbound.commit.latency")
+        .description("Time taken to send and commit a batch of replies")
+        .register(meterRegistry);
+  }
+
+
+  @Override
+  public void afterPropertiesSet() {
+    thread = new Thread(this::run, "iobc-outbound-publisher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
+  @Override
+  public void destroy() throws InterruptedException {
+    // Stop accepting new batches, but publish everything that is already queued.
+    isRunning = false;
+    thread.join();
+  }
+
+
+  /**
+   * Complete the futures of every queued reply exceptionally, as they will never be published.
+   *
+   * @param cause the reason they will not be published
+   */
+  private void failQueued(Throwable cause) {
+    ArrayList<Pending> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    if (!remaining.isEmpty()) {
+      log.error("Outbound publisher has stopped. {} replies remain unpublished.", remaining.size());
+    }
+    remaining.forEach(p -> p.future.completeExceptionally(cause));
+  }
+
+
+  /**
+   * Fill a batch from the queue. The batch already contains its first entry.
+   *
+   * @param batch the batch
+   *
+   * @throws InterruptedException if interrupted whilst waiting for the batch to fill
+   */
+  private void fill(List<Pending> batch) throws InterruptedException {
+    queue.drainTo(batch, maxBatchSize - batch.size());
+    long deadline = System.nanoTime() + lingerTime.toNanos();
+    while (batch.size() < maxBatchSize) {
+      long wait = deadline - System.nanoTime();
+      Pending next = (wait > 0) ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+      queue.drainTo(batch, maxBatchSize - batch.size());
+    }
+  }
+
+
+  /**
+   * Test if a reply-to name is one of the configured client reply topics.
+   *
+   * @param name the reply-to name
+   *
+   * @return true if replies may be published on the name's topic
+   */
+  public boolean isReplyTo(String name) {
+    return replyTo.contains(name);
+  }
+
+
+  /**
+   * Queue a reply for publication on the shared outbound topic.
+   *
+   * @param message the signed reply
+   *
+   * @return a future which completes when the transaction containing the reply is committed
+   */
+  public CompletableFuture<Void> publish(AuthenticatedMessage message) {
+    return publish(message, TopicConfiguration.OUTBOUND);
+  }
+
+
+  /**
+   * Queue a reply for publication.
+   *
+   * @param message the signed reply
+   * @param topic   the topic to publish the reply on
+   *
+   * @return a future which completes when the transaction containing the reply is committed
+   */
+  public CompletableFuture<Void> publish(AuthenticatedMessage message, String topic) {
+    Pending pending = new Pending(message, topic);
+    queue.add(pending);
+    if (isStopped && queue.remove(pending)) {
+      // The publishing thread stopped before it could see this reply
+      pending.future.completeExceptionally(new IllegalStateException("Outbound publisher has stopped"));
+    }
+    return pending.future;
+  }
+
+
+  private void run() {
+    ArrayList<Pending> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (isRunning || !queue.isEmpty()) {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+
+        batch.add(first);
+        try {
+          fill(batch);
+        } finally {
+          // send what we have, even if interrupted
+          send(batch);
+          batch.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Outbound publisher was interrupted");
+    } finally {
+      isStopped = true;
+      failQueued(new IllegalStateException("Outbound publisher has stopped"));
+    }
+  }
+
+
+  private void send(List<Pending> batch) {
+    Map<String, List<Pending>> byTopic = new LinkedHashMap<>();
+    for (Pending pending : batch) {
+      byTopic.computeIfAbsent(pending.topic, t -> new ArrayList<>()).add(pending);
+    }
+    byTopic.values().forEach(this::sendTransaction);
+  }
+
+
+  /**
+   * Send replies to one topic in a single transaction, trying again if it fails.
+   *
+   * @param batch the replies
+   */
+  private void sendTransaction(List<Pending> batch) {
+    long backoff = retryBackoff.toMillis();
+    long start;
+    for (int attempt = 1; ; attempt++) {
+      start = System.nanoTime();
+      try {
+        template.executeInTransaction(operations -> {
+          for (Pending pending : batch) {
+            operations.send(pending.topic, pending.message);
+          }
+          return null;
+        });
+        break;
+      } catch (RuntimeException e) {
+        // The transaction was aborted, so none of the batch is visible and the whole batch can be sent again.
+        if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+          log.error("Failed to publish batch of {} outbound replies after {} attempts", batch.size(), attempt, e);
+          batch.forEach(p -> p.future.completeExceptionally(e));
+          return;
+        }
+        log.warn("Failed to publish batch of {} outbound replies. Retrying in {}ms.", batch.size(), backoff, e);
+      }
+
+      try {
+        Thread.sleep(backoff);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        batch.forEach(p -> p.future.completeExceptionally(e));
+        return;
+      }
+      backoff *= 2;
+    }
+
+    commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSizes.record(batch.size());
+    batch.forEach(p -> p.future.complete(null));
+  }
+
+}
@@ -0,0 +1,33 @@
+package io.setl.iobc;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import io.setl.iobc.authenticate.WireFormat;
+import io.setl.iobc.model.ErrorDetails;
+
+/**
+ * An inbound record which has been dispatched but whose reply has not yet been published. Pending records are held in a state store, so a record whose offset
+ * has been committed is still handled if the server stops before replying to it.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Builder
+@Value
+@Jacksonized
+public class PendingRecord {
+
+  /** The record's value, as written by the message serializer. */
+  byte[] data;
+
+  /** The wire format of the value. */
+  WireFormat format;
+
+  /** Why the message was rejected when it was received, or null if it was accepted. */
+  ErrorDetails rejection;
+
+  /** The topic replies are published on. */
+  String replyTopic;
+
+}
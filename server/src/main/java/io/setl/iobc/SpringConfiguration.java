@@ -1,6 +1,9 @@
 package io.setl.iobc;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -12,6 +15,8 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
@@ -25,10 +30,12 @@ import org.springframework.core.annotation.Order;
 import org.springframework.kafka.core.KafkaTemplate;
 
 import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.authenticate.AuthenticatedMessageSerde;
 import io.setl.iobc.authenticate.KeyProvider;
 import io.setl.iobc.authenticate.SimpleKeyProvider;
 import io.setl.iobc.config.TopicConfiguration;
 import io.setl.iobc.util.SerdeSupport;
+import io.setl.iobc.valid.ReplayGuard;
 import io.setl.json.jackson.JsonModule;
 
 /**
@@ -49,16 +56,64 @@ class SpringConfiguration {
   }
 
 
+  /**
+   * Threads which perform the operations of bulk messages. Delegates may block, so bulk operations must not run on a shared pool such as the common fork-join
+   * pool.
+   *
+   * @param maxConcurrent the maximum number of bulk operations performed at once
+   *
+   * @return the executor service
+   */
+  @Bean
+  public ExecutorService bulkExecutorService(@Value("${setl.iobc.bulk.maxConcurrent:32}") int maxConcurrent) {
+    return Executors.newFixedThreadPool(maxConcurrent);
+  }
+
+
+  /**
+   * Worker threads which handle inbound messages.
+   *
+   * @param workers the number of worker threads
+   *
+   * @return the executor service
+   */
+  @Bean
+  public ExecutorService inboundExecutorService(@Value("${setl.iobc.inbound.workers:16}") int workers) {
+    return Executors.newFixedThreadPool(workers);
+  }
+
+
+  /**
+   * The topology which handles inbound messages. The replay guard's store is partitioned with the records, so every message from a user must be handled by the
+   * same task. Records which are not keyed by their user are re-keyed through a repartition topic, which is co-partitioned with the inbound topic.
+   *
+   * @param builder     the streams builder
+   * @param supplier    supplier of the inbound processors
+   * @param replayGuard the replay guard
+   *
+   * @return the stream of inbound messages
+   */
   @Bean
   public KStream<String, AuthenticatedMessage> inboundStream(
       StreamsBuilder builder,
-      InboundProcessorSupplier supplier
+      InboundProcessorSupplier supplier,
+      ReplayGuard replayGuard
   ) {
-    KStream<String, AuthenticatedMessage> stream = builder.stream(
-        TopicConfiguration.INBOUND,
-        Consumed.with(Serdes.String(), SerdeSupport.newSerde(AuthenticatedMessage.class))
-    );
-    stream.process(supplier);
+    AuthenticatedMessageSerde serde = new AuthenticatedMessageSerde();
+    KStream<String, AuthenticatedMessage> stream = builder.stream(TopicConfiguration.INBOUND, Consumed.with(Serdes.String(), serde))
+        .filter((k, v) -> v != null);
+    KStream<String, AuthenticatedMessage> byUser = stream.filter((k, v) -> Objects.equals(k, v.getUserId()));
+    KStream<String, AuthenticatedMessage> rekeyed = stream.filterNot((k, v) -> Objects.equals(k, v.getUserId()))
+        .selectKey((k, v) -> v.getUserId())
+        .repartition(Repartitioned.<String, AuthenticatedMessage>as("iobc-inbound-by-user").withKeySerde(Serdes.String()).withValueSerde(serde));
+
+    builder.addStateStore(Stores.keyValueStoreBuilder(
+        Stores.persistentKeyValueStore(InboundProcessor.PENDING_STORE),
+        Serdes.String(),
+        SerdeSupport.newSerde(PendingRecord.class)
+    ));
+    builder.addStateStore(replayGuard.storeBuilder());
+    byUser.merge(rekeyed).process(supplier, InboundProcessor.PENDING_STORE, ReplayGuard.STORE);
     return stream;
   }
 
@@ -95,8 +150,22 @@ class SpringConfiguration {
 
   @Bean
   public KafkaTemplate<String, AuthenticatedMessage> outboundTemplate(KafkaProperties kafkaProperties) {
-    Serializer<AuthenticatedMessage> serializer = SerdeSupport.newSerializer(AuthenticatedMessage.class);
+    Serializer<AuthenticatedMessage> serializer = new AuthenticatedMessageSerde.MessageSerializer();
     return TopicConfiguration.makeTemplate(kafkaProperties, TopicConfiguration.OUTBOUND, new StringSerializer(), serializer);
   }
 
+
+  /**
+   * Threads which invoke the delegates for REST requests. A delegate may block before it returns its pending result, so it must not be invoked on a request
+   * thread.
+   *
+   * @param workers the number of worker threads
+   *
+   * @return the executor service
+   */
+  @Bean
+  public ExecutorService restExecutorService(@Value("${setl.iobc.rest.workers:32}") int workers) {
+    return Executors.newFixedThreadPool(workers);
+  }
+
 }
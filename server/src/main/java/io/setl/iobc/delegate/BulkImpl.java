@@ -0,0 +1,189 @@
+package io.setl.iobc.delegate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.setl.common.ParameterisedException;
+import io.setl.iobc.DelegateMatcher;
+import io.setl.iobc.authenticate.MessageContent;
+import io.setl.iobc.config.ChainConfiguration;
+import io.setl.iobc.model.Bulk;
+import io.setl.iobc.model.ChainBrand;
+import io.setl.iobc.model.ErrorDetails;
+import io.setl.iobc.model.MessageInput;
+import io.setl.iobc.util.ExceptionTranslator;
+import io.setl.json.CJObject;
+
+/**
+ * Chain agnostic implementation of bulk operations, which passes each operation to its own delegate. Operations are divided into groups by their ordering key.
+ * The operations in a group are performed one after another, and a limited number of groups are performed concurrently.
+ *
+ * <p>Operations are performed on a dedicated pool of "bulkExecutorService" threads, as a delegate may block. The pool has "maxConcurrent" threads and is
+ * shared by all bulk messages, so it also bounds the number of operations performed at once across messages.</p>
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service
+@Slf4j
+public class BulkImpl implements Bulk {
+
+  /** Operations which must be performed one after another. */
+  private static class Group {
+
+    final List<Integer> indexes = new ArrayList<>();
+
+  }
+
+
+
+  /** The matcher is created from the list of delegates, which includes this, so it is looked up when first needed. */
+  private final ObjectProvider<DelegateMatcher> delegates;
+
+  /** Executor which performs the operations, which also stops operations that complete immediately from building up a deep stack. */
+  private final ExecutorService executor;
+
+  /** Maximum number of groups performed concurrently. */
+  private final int maxConcurrent;
+
+  /** Maximum number of operations in one message. */
+  private final int maxItems;
+
+
+  /** New instance. */
+  @Autowired
+  public BulkImpl(
+      ObjectProvider<DelegateMatcher> delegates,
+      @Qualifier("bulkExecutorService") ExecutorService executor,
+      @Value("${setl.iobc.bulk.maxItems:50000}") int maxItems,
+      @Value("${setl.iobc.bulk.maxConcurrent:32}") int maxConcurrent
+  ) {
+    if (maxItems < 1 || maxConcurrent < 1) {
+      throw new IllegalArgumentException("Bulk operation limits must be positive");
+    }
+    this.delegates = delegates;
+    this.executor = executor;
+    this.maxItems = maxItems;
+    this.maxConcurrent = maxConcurrent;
+  }
+
+
+  @Override
+  public CompletableFuture<Output> apply(ChainConfiguration chain, Input input) throws ParameterisedException {
+    List<MessageInput> items = input.getItems();
+    check(input);
+
+    // Group the operations by ordering key, retaining the order within each group.
+    Map<String, Group> keyed = new LinkedHashMap<>();
+    ConcurrentLinkedQueue<Group> groups = new ConcurrentLinkedQueue<>();
+    for (int i = 0; i < items.size(); i++) {
+      String key = items.get(i).orderingKey();
+      Group group = (key != null) ? keyed.get(key) : null;
+      if (group == null) {
+        group = new Group();
+        groups.add(group);
+        if (key != null) {
+          keyed.put(key, group);
+        }
+      }
+      group.indexes.add(i);
+    }
+
+    Item[] results = new Item[items.size()];
+    int lanes = Math.min(maxConcurrent, groups.size());
+    CompletableFuture<?>[] running = new CompletableFuture<?>[lanes];
+    for (int i = 0; i < lanes; i++) {
+      running[i] = runLane(input, groups, results);
+    }
+    return CompletableFuture.allOf(running).thenApply(v -> Output.builder().results(Arrays.asList(results)).build());
+  }
+
+
+  private void check(Input input) throws ParameterisedException {
+    List<MessageInput> items = input.getItems();
+    CJObject parameters = new CJObject();
+    parameters.put("type", input.getType());
+    parameters.put("count", items.size());
+    if (items.size() > maxItems) {
+      parameters.put("maxItems", maxItems);
+      throw new ParameterisedException("Too many operations in bulk message", "iobc:bulk-too-many-items", parameters);
+    }
+    if (NAME.equals(input.getType())) {
+      throw new ParameterisedException("Bulk messages may not be nested", "iobc:bulk-nested", parameters);
+    }
+    Class<?> itemClass = items.get(0).getClass();
+    for (MessageInput item : items) {
+      if (item.getClass() != itemClass) {
+        parameters.put("expected", itemClass.getName());
+        parameters.put("actual", item.getClass().getName());
+        throw new ParameterisedException("Operations in a bulk message must all be of the same type", "iobc:bulk-mixed-items", parameters);
+      }
+    }
+  }
+
+
+  @Override
+  public ChainBrand getBrandSupported() {
+    return ChainBrand.NONE;
+  }
+
+
+  private CompletableFuture<Void> perform(Input input, int index, Item[] results) {
+    CompletableFuture<MessageContent> result;
+    try {
+      result = delegates.getObject().invoke(input.getType(), input.getItems().get(index));
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    return result.handle((content, thrown) -> {
+      if (thrown == null) {
+        results[index] = Item.builder().pass(true).result(content).build();
+      } else {
+        log.debug("Bulk operation {} of {} failed", index, input.getType(), thrown);
+        ParameterisedException parameterised = ExceptionTranslator.convert(thrown);
+        ErrorDetails details = ErrorDetails.builder()
+            .message(parameterised.getMessage())
+            .code(parameterised.getTemplate())
+            .parameters(parameterised.getParameters())
+            .build();
+        results[index] = Item.builder().pass(false).errorDetails(details).build();
+      }
+      return null;
+    });
+  }
+
+
+  /**
+   * Perform groups of operations until none remain.
+   *
+   * @param input   the bulk input
+   * @param groups  the groups yet to be performed
+   * @param results the results
+   *
+   * @return a future which completes when there are no more groups
+   */
+  private CompletableFuture<Void> runLane(Input input, ConcurrentLinkedQueue<Group> groups, Item[] results) {
+    Group group = groups.poll();
+    if (group == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+    for (int index : group.indexes) {
+      chain = chain.thenComposeAsync(v -> perform(input, index, results), executor);
+    }
+    return chain.thenComposeAsync(v -> runLane(input, groups, results), executor);
+  }
+
+}
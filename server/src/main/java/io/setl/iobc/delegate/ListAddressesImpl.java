@@ -1,5 +1,6 @@
 package io.setl.iobc.delegate;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +9,11 @@ import org.springframework.stereotype.Service;
 import io.setl.iobc.config.ChainConfiguration;
 import io.setl.iobc.model.ChainBrand;
 import io.setl.iobc.model.address.ListAddresses;
+import io.setl.iobc.model.address.SetlAddress;
 import io.setl.iobc.table.AddressTable;
 
 /**
- * List all the addresses in a wallet.
+ * List the addresses in a wallet. Large wallets can be listed a page at a time.
  *
  * @author Simon Greatrix on 18/11/2021.
  */
@@ -31,8 +33,20 @@ public class ListAddressesImpl implements ListAddresses {
   @Override
   public CompletableFuture<Output> apply(ChainConfiguration ignored, Input input) {
     int id = input.getWalletId();
+    int limit = input.getLimit();
+    Map<String, SetlAddress> addresses = addressTable.getWalletAddresses(id, input.getAfter(), limit);
+
+    // If the page is full, there may be more addresses after it
+    String next = null;
+    if (limit > 0 && addresses.size() == limit) {
+      for (String a : addresses.keySet()) {
+        next = a;
+      }
+    }
+
     Output output = Output.builder()
-        .addresses(addressTable.getAllAddresses(id))
+        .addresses(addresses)
+        .next(next)
         .walletId(id)
         .build();
     return CompletableFuture.completedFuture(output);
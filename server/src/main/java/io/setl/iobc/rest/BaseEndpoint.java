@@ -1,20 +1,38 @@
 package io.setl.iobc.rest;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 
+import io.setl.common.ParameterisedException;
 import io.setl.common.StringUtils;
 import io.setl.iobc.DelegateMatcher;
 import io.setl.iobc.authenticate.MessageContent;
 import io.setl.iobc.model.MessageInput;
 import io.setl.iobc.util.SerdeSupport;
+import io.setl.json.CJObject;
 import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Base endpoint for classes.
  *
+ * <p>Endpoints return the pending result of their operation, rather than waiting for it, so the request thread is released while the operation is in
+ * progress. Delegates are invoked on the "restExecutorService" threads, as some do their work before they return. If the operation does not complete within
+ * its configured timeout, the request fails. A transaction which times out may still succeed later.</p>
+ *
+ * <p>Endpoints which wait for their result invoke the delegate on the request thread instead, so that work it does before it returns is within the
+ * endpoint's transaction.</p>
+ *
  * @author Simon Greatrix on 27/01/2022.
  */
 @Slf4j
@@ -22,15 +40,80 @@ public abstract class BaseEndpoint {
 
   protected DelegateMatcher delegateMatcher;
 
+  protected ExecutorService executor;
+
+  protected RestTimeouts restTimeouts;
 
+
+  /**
+   * Apply the timeout to an operation which has already been invoked, and convert any failure to a web exception.
+   *
+   * @param operation the operation
+   * @param input     the operation's input
+   * @param result    the operation's pending result
+   * @param <T>       the result type
+   *
+   * @return the pending result
+   */
   @SuppressWarnings("unchecked")
-  protected <T extends MessageContent> T handle(String operation, MessageInput input) throws ParameterisedWebException, InterruptedException {
+  protected <T extends MessageContent> CompletableFuture<T> complete(String operation, MessageInput input, CompletableFuture<MessageContent> result) {
+    Duration timeout = restTimeouts.getTimeout(operation);
+    // Time out a copy, so the delegate's own future is left alone
+    return result.copy()
+        .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+        .handle((output, thrown) -> {
+          if (thrown == null) {
+            return (T) output;
+          }
+          if (thrown instanceof CompletionException && thrown.getCause() != null) {
+            thrown = thrown.getCause();
+          }
+          if (thrown instanceof TimeoutException) {
+            log.error("Timed out after {} waiting for delegate for {} with input:{}",
+                timeout, operation, StringUtils.logSafe(SerdeSupport.getPrettyJson(input))
+            );
+            CJObject cjObject = new CJObject();
+            cjObject.put("operation", operation);
+            cjObject.put("timeout", timeout.toString());
+            cjObject.put("httpStatus", HttpStatus.GATEWAY_TIMEOUT.value());
+            thrown = new ParameterisedException("Timed out waiting for " + operation, "iobc:rest-timeout", cjObject, thrown);
+          } else {
+            log.error("Error during execution of delegate for {} with input:{}", operation, StringUtils.logSafe(SerdeSupport.getPrettyJson(input)), thrown);
+          }
+          throw new CompletionException(WebExceptionTranslator.convert(thrown));
+        });
+  }
+
+
+  protected <T extends MessageContent> CompletableFuture<T> handle(String operation, MessageInput input) {
+    CompletableFuture<MessageContent> result = CompletableFuture.supplyAsync(() -> delegateMatcher.invoke(operation, input), executor)
+        .thenCompose(Function.identity());
+    return complete(operation, input, result);
+  }
+
+
+  /**
+   * Invoke an operation on the calling thread and wait for its result. This is only for endpoints which must complete the operation before they return, such
+   * as those which are transactional. As the delegate runs on the calling thread, the work it does before it returns joins the caller's transaction.
+   *
+   * @param operation the operation
+   * @param input     the operation's input
+   * @param <T>       the result type
+   *
+   * @return the result
+   */
+  protected <T extends MessageContent> T handleAndWait(String operation, MessageInput input) throws ParameterisedWebException, InterruptedException {
     try {
-      return (T) delegateMatcher.invoke(operation, input).get();
+      CompletableFuture<MessageContent> result;
+      try {
+        result = delegateMatcher.invoke(operation, input);
+      } catch (RuntimeException e) {
+        result = CompletableFuture.failedFuture(e);
+      }
+      return this.<T>complete(operation, input, result).get();
     } catch (ExecutionException e) {
-      log.error("Error during execution of delegate for {} with input:{}", operation, StringUtils.logSafe(SerdeSupport.getPrettyJson(input)), e);
-      Throwable throwable = e.getCause();
-      throw WebExceptionTranslator.convert(throwable != null ? throwable : e);
+      // The failure has already been logged and converted to a web exception
+      throw WebExceptionTranslator.convert(e.getCause() != null ? e.getCause() : e);
     }
   }
 
@@ -40,4 +123,16 @@ public abstract class BaseEndpoint {
     this.delegateMatcher = delegateMatcher;
   }
 
+
+  @Autowired
+  public final void setExecutor(@Qualifier("restExecutorService") ExecutorService executor) {
+    this.executor = executor;
+  }
+
+
+  @Autowired
+  public final void setRestTimeouts(RestTimeouts restTimeouts) {
+    this.restTimeouts = restTimeouts;
+  }
+
 }
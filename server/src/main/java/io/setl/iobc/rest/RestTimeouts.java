@@ -0,0 +1,41 @@
+package io.setl.iobc.rest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * How long a REST request may wait for its operation to complete. Each operation may have its own timeout, otherwise the default applies. The default is
+ * longer than a Fabric transaction's commit timeout, so a transaction which will succeed is not reported as timed out whilst its outcome is still awaited.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Configuration
+@ConfigurationProperties("setl.iobc.rest")
+@Getter
+@Setter
+public class RestTimeouts {
+
+  private Duration defaultTimeout = Duration.ofMinutes(6);
+
+  /** Timeouts by operation name, such as "TOKEN.TRANSFER". */
+  private Map<String, Duration> operationTimeouts = new HashMap<>();
+
+
+  /**
+   * Get the timeout for an operation.
+   *
+   * @param operation the operation's name
+   *
+   * @return the timeout
+   */
+  public Duration getTimeout(String operation) {
+    return operationTimeouts.getOrDefault(operation, defaultTimeout);
+  }
+
+}
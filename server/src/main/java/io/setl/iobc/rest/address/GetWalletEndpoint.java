@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.address;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.address.GetWallet;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the contents of a wallet.
@@ -43,7 +43,7 @@ public class GetWalletEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetWallet.Output handle(@RequestBody @Valid GetWallet.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetWallet.Output> handle(@RequestBody @Valid GetWallet.Input input) {
     return handle(GetWallet.NAME, input);
   }
 
@@ -58,13 +58,13 @@ public class GetWalletEndpoint extends BaseEndpoint {
       summary = "Get the contents of a wallet",
       description = "Get a list of the addresses contained in a wallet."
   )
-  public GetWallet.Output handle(
+  public CompletableFuture<GetWallet.Output> handle(
       @NotEmpty
       @RequestParam("walletId")
       @QueryParam("walletId")
       @Parameter(description = "The ID of the wallet to retrieve.", required = true)
           int walletId
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetWallet.Input input = GetWallet.Input.builder()
         .walletId(walletId)
         .build();
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.address;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -24,7 +25,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.address.GetWallet;
 import io.setl.iobc.model.address.ListAddresses;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * List the addresses in a wallet.
@@ -43,7 +43,7 @@ public class ListAddressesEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public ListAddresses.Output handle(@RequestBody @Valid ListAddresses.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<ListAddresses.Output> handle(@RequestBody @Valid ListAddresses.Input input) {
     return handle(ListAddresses.NAME, input);
   }
 
@@ -58,14 +58,24 @@ public class ListAddressesEndpoint extends BaseEndpoint {
       summary = "Get the detailed contents of a wallet",
       description = "Get a detailed list of the addresses contained in a wallet."
   )
-  public ListAddresses.Output handle(
+  public CompletableFuture<ListAddresses.Output> handle(
       @NotEmpty
       @QueryParam("walletId")
       @RequestParam("walletId")
       @Parameter(description = "The ID of the wallet to retrieve.", required = true)
-          int walletId
-  ) throws ParameterisedWebException, InterruptedException {
+          int walletId,
+      @QueryParam("after")
+      @RequestParam(value = "after", required = false)
+      @Parameter(description = "List only addresses after this one. Use the 'next' value from the previous page. (optional)")
+          String after,
+      @QueryParam("limit")
+      @RequestParam(value = "limit", required = false)
+      @Parameter(description = "The maximum number of addresses to list. (optional)")
+          Integer limit
+  ) {
     ListAddresses.Input input = ListAddresses.Input.builder()
+        .after(after)
+        .limit(limit != null ? limit : 0)
         .walletId(walletId)
         .build();
     return handle(ListAddresses.NAME, input);
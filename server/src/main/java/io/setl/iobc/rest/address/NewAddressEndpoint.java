@@ -44,7 +44,8 @@ public class NewAddressEndpoint extends BaseEndpoint {
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
   @Transactional
   public NewAddress.Output handle(@RequestBody @Valid NewAddress.Input input) throws ParameterisedWebException, InterruptedException {
-    return handle(NewAddress.NAME, input);
+    // The delegate stores the new address on this thread, within this transaction, so this waits for the result.
+    return handleAndWait(NewAddress.NAME, input);
   }
 
 }
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -17,7 +18,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.TransactionResult;
 import io.setl.iobc.model.tokens.ControllerTransfer;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Endpoint for controller transfer requests.
@@ -38,7 +38,7 @@ public class ControllerTransferTokenEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public TransactionResult handle(@RequestBody @Valid ControllerTransfer.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<TransactionResult> handle(@RequestBody @Valid ControllerTransfer.Input input) {
     return handle(ControllerTransfer.NAME, input);
   }
 
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -13,7 +14,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetAllTokens;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Endpoint to retrieve all known tokes.
@@ -35,7 +35,7 @@ public class GetAllTokensEndpoint extends BaseEndpoint {
       summary = "Get the specifications of all known tokens",
       description = "Get the specifications of all tokens known to the system"
   )
-  public GetAllTokens.Output handle() throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetAllTokens.Output> handle() {
     return handle(GetAllTokens.NAME, null);
   }
 
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetAllowance;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Endpoint for retrieving ERC-20 allowances or SETL encumbrances.
@@ -42,7 +42,7 @@ public class GetAllowanceEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetAllowance.Output handle(@RequestBody @Valid GetAllowance.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetAllowance.Output> handle(@RequestBody @Valid GetAllowance.Input input) {
     return handle(GetAllowance.NAME, input);
   }
 
@@ -57,14 +57,14 @@ public class GetAllowanceEndpoint extends BaseEndpoint {
       summary = "Get the current transfer allowance",
       description = "Get the current transfer allowance for a given token owner and given spender"
   )
-  public GetAllowance.Output handle(
+  public CompletableFuture<GetAllowance.Output> handle(
       @Parameter(description = "The owner of the tokens that may be transferred.", required = true)
       @NotEmpty @RequestParam("owner") @QueryParam("owner") String owner,
       @Parameter(description = "The address may performing the token transfer.", required = true)
       @NotEmpty @RequestParam("spender") @QueryParam("spender") String spender,
       @Parameter(description = "The symbol that identifies the tokens.", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetAllowance.Input input = GetAllowance.Input.builder()
         .owner(owner)
         .spender(spender)
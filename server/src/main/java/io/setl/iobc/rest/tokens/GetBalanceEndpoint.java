@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -25,7 +26,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetBalance;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Retrieve an addresses balance for a token.
@@ -45,7 +45,7 @@ public class GetBalanceEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetBalance.Output handle(@RequestBody @Valid GetBalance.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetBalance.Output> handle(@RequestBody @Valid GetBalance.Input input) {
     return handle(GetBalance.NAME, input);
   }
 
@@ -60,14 +60,14 @@ public class GetBalanceEndpoint extends BaseEndpoint {
       summary = "Get the number of tokens held by an address",
       description = "Get the number of tokens held by an address now, or at some historic block"
   )
-  public GetBalance.Output handle(
+  public CompletableFuture<GetBalance.Output> handle(
       @Parameter(description = "The address that holds the tokens", required = true)
       @NotEmpty @RequestParam("address") @QueryParam("address") String address,
       @Parameter(description = "The symbol that identifies the token", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol,
       @Parameter(description = "The block to query. (optional)")
       @RequestParam(value = "block", required = false) @QueryParam("block") Integer block
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetBalance.Input.InputBuilder builder = GetBalance.Input.builder()
         .address(address)
         .symbol(symbol);
@@ -3,6 +3,7 @@ package io.setl.iobc.rest.tokens;
 import java.math.BigInteger;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -22,11 +23,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import io.setl.iobc.model.address.GetWallet;
-import io.setl.iobc.model.tokens.GetBalance;
-import io.setl.iobc.model.tokens.GetLocked;
+import io.setl.iobc.model.tokens.GetWalletBalances;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the balances for all the addresses in a wallet.
@@ -71,36 +69,22 @@ public class GetBalancesForWalletEndpoint extends BaseEndpoint {
           )
       }
   )
-  public Map<String, Balance> handle(
+  public CompletableFuture<Map<String, Balance>> handle(
       @Parameter(description = "The ID of the wallet whose addresses to query", required = true)
       @NotEmpty @RequestParam("walletId") @QueryParam("walletId") int walletId,
       @Parameter(description = "The symbol identifying the token whose balances to query", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol
-  ) throws ParameterisedWebException, InterruptedException {
-    TreeMap<String, Balance> map = new TreeMap<>();
-
-    GetWallet.Input input1 = GetWallet.Input.builder()
+  ) {
+    // The balances are all fetched by one operation, so they are consistent with each other.
+    GetWalletBalances.Input input = GetWalletBalances.Input.builder()
+        .symbol(symbol)
         .walletId(walletId)
         .build();
-    GetWallet.Output output1 = handle(GetWallet.NAME, input1);
-
-    for (String address : output1.getAddresses()) {
-      GetBalance.Input input2 = GetBalance.Input.builder()
-          .address(address)
-          .symbol(symbol)
-          .build();
-      BigInteger balance = ((GetBalance.Output) handle(GetBalance.NAME, input2)).getAmount();
-
-      GetLocked.Input input3 = GetLocked.Input.builder()
-          .address(address)
-          .symbol(symbol)
-          .build();
-      BigInteger locked = ((GetLocked.Output) handle(GetLocked.NAME, input3)).getAmount();
-
-      map.put(address, new Balance(balance, locked));
-    }
-
-    return map;
+    return this.<GetWalletBalances.Output>handle(GetWalletBalances.NAME, input).thenApply(output -> {
+      TreeMap<String, Balance> map = new TreeMap<>();
+      output.getBalances().forEach((address, b) -> map.put(address, new Balance(b.getBalance(), b.getLocked())));
+      return map;
+    });
   }
 
 }
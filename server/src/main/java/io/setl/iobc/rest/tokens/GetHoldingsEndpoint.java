@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.GET;
@@ -22,7 +23,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetHoldings;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the holding of a token.
@@ -40,7 +40,7 @@ public class GetHoldingsEndpoint extends BaseEndpoint {
   @Secured("ROLE_USER")
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-  public GetHoldings.Output handle(@RequestBody @Valid GetHoldings.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetHoldings.Output> handle(@RequestBody @Valid GetHoldings.Input input) {
     return handle(GetHoldings.NAME, input);
   }
 
@@ -56,7 +56,7 @@ public class GetHoldingsEndpoint extends BaseEndpoint {
       description = "Get all the addresses who hold some of a token and how much of that token they hold. For tokens held by large numbers of addresses, "
           + "specific range of addresses can be requested."
   )
-  public GetHoldings.Output handle(
+  public CompletableFuture<GetHoldings.Output> handle(
       @Parameter(description = "The token's identifying symbol", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol,
       @Parameter(description = "The index of the first address holding to return")
@@ -65,7 +65,7 @@ public class GetHoldingsEndpoint extends BaseEndpoint {
       @RequestParam(value = "end", required = false) @QueryParam("end") Integer end,
       @Parameter(description = "The block height at which to query the block chain.")
       @RequestParam(value = "block", required = false) @QueryParam("block") Integer block
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetHoldings.Input.InputBuilder builder = GetHoldings.Input.builder()
         .symbol(symbol);
     if (start != null) {
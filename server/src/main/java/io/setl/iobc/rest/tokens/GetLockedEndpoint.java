@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetLocked;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Handle requests for the amount of tokens currently locked.
@@ -42,7 +42,7 @@ public class GetLockedEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetLocked.Output handle(@RequestBody @Valid GetLocked.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetLocked.Output> handle(@RequestBody @Valid GetLocked.Input input) {
     return handle(GetLocked.NAME, input);
   }
 
@@ -55,12 +55,12 @@ public class GetLockedEndpoint extends BaseEndpoint {
   @Operation(operationId = "tokens/locked",
       summary = "Get the number of tokens held by an address that are locked against transfer.",
       description = "Get the number of tokens held by an address that are locked against transfer.")
-  public GetLocked.Output handle(
+  public CompletableFuture<GetLocked.Output> handle(
       @Parameter(description = "The address that holds the tokens.", required = true)
       @NotEmpty @RequestParam("address") @QueryParam("address") String address,
       @Parameter(description = "The symbol that identifies the tokens.", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetLocked.Input input = GetLocked.Input.builder()
         .address(address)
         .symbol(symbol)
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -24,7 +25,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.TokenId;
 import io.setl.iobc.model.tokens.GetName;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Retrieve a token's name.
@@ -43,7 +43,7 @@ public class GetNameEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetName.Output handle(@RequestBody @Valid TokenId input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetName.Output> handle(@RequestBody @Valid TokenId input) {
     return handle(GetName.NAME, input);
   }
 
@@ -58,10 +58,10 @@ public class GetNameEndpoint extends BaseEndpoint {
       summary = "Get the name of the token",
       description = "Get the name of the token"
   )
-  public GetName.Output handle(
+  public CompletableFuture<GetName.Output> handle(
       @Parameter(description = "The symbol that identifies the token", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     TokenId input = TokenId.builder()
         .symbol(symbol)
         .build();
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.Consumes;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tokens.GetTotalSupply;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the available supply for a token.
@@ -42,7 +42,7 @@ public class GetTotalSupplyEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetTotalSupply.Output handle(@RequestBody @Valid GetTotalSupply.Input input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetTotalSupply.Output> handle(@RequestBody @Valid GetTotalSupply.Input input) {
     return handle(GetTotalSupply.NAME, input);
   }
 
@@ -57,12 +57,12 @@ public class GetTotalSupplyEndpoint extends BaseEndpoint {
       summary = "Get the total number of tokens in existence",
       description = "Get the total number of tokens in existence. Optionally, a specific chain block may be specified to query"
   )
-  public GetTotalSupply.Output handle(
+  public CompletableFuture<GetTotalSupply.Output> handle(
       @Parameter(description = "The symbol that identifies the token", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol,
       @Parameter(description = "The block to query (optional).")
       @RequestParam(value = "block", required = false) @QueryParam("block") Long block
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetTotalSupply.Input.InputBuilder input = GetTotalSupply.Input.builder()
         .symbol(symbol);
     if (block != null) {
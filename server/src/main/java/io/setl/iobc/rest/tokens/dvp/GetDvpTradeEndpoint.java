@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tokens.dvp;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -17,7 +18,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.tokens.dvp.DvpId;
 import io.setl.iobc.model.tokens.dvp.GetDvpTrade;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the details of a DVP trade.
@@ -35,9 +35,6 @@ public class GetDvpTradeEndpoint extends BaseEndpoint {
    * @param input the input
    *
    * @return the transaction result
-   *
-   * @throws ParameterisedWebException on failure
-   * @throws InterruptedException      if interrupted whilst waiting for transaction to complete
    */
   @Hidden
   @POST
@@ -45,7 +42,7 @@ public class GetDvpTradeEndpoint extends BaseEndpoint {
   @Produces(MediaType.APPLICATION_JSON_VALUE)
   @Consumes(MediaType.APPLICATION_JSON_VALUE)
   @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-  public GetDvpTrade.Output handle(@RequestBody @Valid DvpId input) throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetDvpTrade.Output> handle(@RequestBody @Valid DvpId input) {
     return handle(GetDvpTrade.NAME, input);
   }
 
@@ -1,6 +1,7 @@
 package io.setl.iobc.rest.tx;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import javax.json.JsonValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -44,7 +45,7 @@ public class GetBlockForTimeEndpoint extends BaseEndpoint {
       description = "Get the block height the corresponds to a specific epoch-second or ISO-8601 instant. Specify only the epoch-second or the ISO-8601 "
           + "instant, not both."
   )
-  public GetBlockForTime.Output handle(
+  public CompletableFuture<GetBlockForTime.Output> handle(
       @Parameter(description = "The symbol that identifies the token", required = true)
       @RequestParam(value = "symbol") @QueryParam("symbol") String symbol,
       @Parameter(name = "dateTime", in = ParameterIn.QUERY, description = "The ISO-8601 instant to match to a block",
@@ -52,7 +53,7 @@ public class GetBlockForTimeEndpoint extends BaseEndpoint {
       @RequestParam(value = "dateTime", required = false) Instant dateTime,
       @Parameter(description = "The epoch-second to match to a block")
       @RequestParam(value = "epochSecond", required = false) @QueryParam("epochSecond") Long epochSecond
-  ) throws ParameterisedWebException, InterruptedException {
+  ) throws ParameterisedWebException {
     if (((dateTime != null) == (epochSecond != null))) {
       throw new ParameterisedWebException(HttpStatus.BAD_REQUEST, "iobc:missing-parameter", JsonValue.EMPTY_JSON_OBJECT);
     }
@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tx;
 
+import java.util.concurrent.CompletableFuture;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
@@ -13,7 +14,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import io.setl.iobc.model.tx.GetBlockNumber;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Endpoint to retrieve the latest block number.
@@ -35,7 +35,7 @@ public class GetBlockNumberEndpoint extends BaseEndpoint {
       summary = "Get the current block number.",
       description = "Get the current block number."
   )
-  public GetBlockNumber.Output handle() throws ParameterisedWebException, InterruptedException {
+  public CompletableFuture<GetBlockNumber.Output> handle() {
     return handle(GetBlockNumber.NAME, null);
   }
 
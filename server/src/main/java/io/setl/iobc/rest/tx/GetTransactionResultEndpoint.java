@@ -1,6 +1,7 @@
 package io.setl.iobc.rest.tx;
 
 import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -19,7 +20,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.TransactionResult;
 import io.setl.iobc.model.tx.GetTransactionResult;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Get the result of a transaction.
@@ -39,12 +39,12 @@ public class GetTransactionResultEndpoint extends BaseEndpoint {
   @Operation(operationId = "tx/transactionResult",
       summary = "Get the outcome of a transaction",
       description = "Get the outcome of a transaction")
-  public TransactionResult handle(
+  public CompletableFuture<TransactionResult> handle(
       @Parameter(description = "The ID of the transaction, typically its hash.", required = true)
       @NotEmpty @RequestParam("id") @QueryParam("id") String txHash,
       @Parameter(description = "The earliest block to look in for a matching transaction (optional).")
       @RequestParam(value = "block", required = false) @QueryParam("block") BigInteger blockNumber
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     GetTransactionResult.Input input = GetTransactionResult.Input.builder()
         .transactionId(txHash)
         .blockNumber(blockNumber)
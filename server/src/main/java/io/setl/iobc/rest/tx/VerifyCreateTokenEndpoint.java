@@ -1,5 +1,6 @@
 package io.setl.iobc.rest.tx;
 
+import java.util.concurrent.CompletableFuture;
 import javax.validation.constraints.NotEmpty;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -18,7 +19,6 @@ import org.springframework.web.bind.annotation.RestController;
 import io.setl.iobc.model.TokenId;
 import io.setl.iobc.model.tx.VerifyCreateToken;
 import io.setl.iobc.rest.BaseEndpoint;
-import io.setl.pychain.rest.ParameterisedWebException;
 
 /**
  * Verify if a token creation succeeded.
@@ -40,10 +40,10 @@ public class VerifyCreateTokenEndpoint extends BaseEndpoint {
       summary = "Check if a token has been created",
       description = "Check what stage of the process to create a token has been reached."
   )
-  public VerifyCreateToken.Output handle(
+  public CompletableFuture<VerifyCreateToken.Output> handle(
       @Parameter(description = "The symbol that identifies the token", required = true)
       @NotEmpty @RequestParam("symbol") @QueryParam("symbol") String symbol
-  ) throws ParameterisedWebException, InterruptedException {
+  ) {
     TokenId input = TokenId.builder().symbol(symbol).build();
     return handle(VerifyCreateToken.NAME, input);
   }
@@ -0,0 +1,114 @@
+package io.setl.iobc.valid;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.setl.iobc.authenticate.AuthenticatedMessage;
+import io.setl.iobc.model.ErrorDetails;
+import io.setl.json.CJObject;
+
+/**
+ * Guard against replayed messages. A message is accepted only if its creation time is within the acceptance window and no other message from the same user with
+ * the same ID has been accepted.
+ *
+ * <p>Accepted messages are remembered in a persistent Kafka Streams window store, keyed by user and message ID at the message's creation time. The store is
+ * changelogged and moves with its stream task, so a replay is detected after a restart or a rebalance, and by any server instance. The inbound records are
+ * partitioned by user, so every message from a user is checked against the same store. Entries are dropped once they are older than the acceptance window.</p>
+ *
+ * @author Simon Greatrix on 07/03/2022.
+ */
+@Component
+public class ReplayGuard {
+
+  /** Name of the state store that holds the accepted message IDs. */
+  public static final String STORE = "iobc-replay-guard";
+
+
+  /** The maximum time by which a message's creation time may be in the future, in milliseconds. */
+  private final long maxClockSkew;
+
+  /** The maximum age of a message, in milliseconds. */
+  private final long maxAge;
+
+
+  /**
+   * New instance.
+   *
+   * @param window    the maximum age of an acceptable message
+   * @param clockSkew the maximum time by which an acceptable message's creation time may be in the future
+   */
+  @Autowired
+  public ReplayGuard(
+      @Value("${setl.iobc.replay.window:PT5M}") Duration window,
+      @Value("${setl.iobc.replay.clockSkew:PT30S}") Duration clockSkew
+  ) {
+    if (window.isNegative() || clockSkew.isNegative()) {
+      throw new IllegalArgumentException("Replay window and clock skew must not be negative");
+    }
+    maxAge = window.toMillis();
+    maxClockSkew = clockSkew.toMillis();
+  }
+
+
+  /**
+   * Check if a message is a replay. If it is not, it is recorded so that any later replay of it will be detected. Only messages with a valid signature should
+   * be checked, so that a forged message cannot block the genuine one. This must be called on the stream thread that owns the store.
+   *
+   * @param store   the store of accepted message IDs
+   * @param message the message
+   *
+   * @return null if the message is acceptable, otherwise details of why it is not
+   */
+  public ErrorDetails check(WindowStore<String, Long> store, AuthenticatedMessage message) {
+    long now = System.currentTimeMillis();
+    long createTime = message.getCreateTime();
+    if (createTime < now - maxAge || createTime > now + maxClockSkew) {
+      return error("iobc:stale-message", "Message creation time is outside the acceptance window", message);
+    }
+
+    // A zero character cannot appear in either ID, so the boundary is unambiguous.
+    String key = message.getUserId() + '\u0000' + message.getMessageId();
+    try (WindowStoreIterator<Long> iterator = store.fetch(key, Instant.ofEpochMilli(now - maxAge), Instant.ofEpochMilli(now + maxClockSkew))) {
+      if (iterator.hasNext()) {
+        return error("iobc:duplicate-message", "Message ID has already been used", message);
+      }
+    }
+    store.put(key, createTime, createTime);
+    return null;
+  }
+
+
+  private ErrorDetails error(String code, String text, AuthenticatedMessage message) {
+    CJObject parameters = new CJObject();
+    parameters.put("userId", message.getUserId());
+    parameters.put("messageId", message.getMessageId());
+    parameters.put("createTime", message.getCreateTime());
+    return ErrorDetails.builder().code(code).message(text).parameters(parameters).build();
+  }
+
+
+  /**
+   * Create the builder for the store of accepted message IDs. The store retains an entry for as long as a message with its creation time could be accepted,
+   * allowing for the clock skew between the record timestamps that drive the store's retention and the message creation times.
+   *
+   * @return the store builder
+   */
+  public StoreBuilder<WindowStore<String, Long>> storeBuilder() {
+    Duration retention = Duration.ofMillis(maxAge + 2 * maxClockSkew);
+    return Stores.windowStoreBuilder(
+        Stores.persistentWindowStore(STORE, retention, Duration.ofMillis(1), false),
+        Serdes.String(),
+        Serdes.Long()
+    );
+  }
+
+}
@@ -1,10 +1,15 @@
 package io.setl.iobc.table;
 
 import java.security.GeneralSecurityException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
@@ -52,6 +57,25 @@ public interface AddressTable {
   }
 
 
+  /**
+   * Get the SETL address records for many IDs at once.
+   *
+   * @param addressIds the SETL address IDs
+   *
+   * @return the SETL address instances by their IDs. IDs which do not exist are omitted.
+   */
+  default Map<String, SetlAddress> getAddresses(Collection<String> addressIds) {
+    Map<String, SetlAddress> map = new HashMap<>();
+    for (String a : addressIds) {
+      SetlAddress address = getAddress(a);
+      if (address != null) {
+        map.put(a, address);
+      }
+    }
+    return map;
+  }
+
+
   /**
    * Get all the addresses in a wallet.
    *
@@ -65,15 +89,7 @@ public interface AddressTable {
     if (wallet == null) {
       return null;
     }
-    Set<String> addresses = wallet.getAddresses();
-    Map<String, SetlAddress> map = new HashMap<>();
-    for (String a : addresses) {
-      SetlAddress address = getAddress(a);
-      if (address != null) {
-        map.put(a, address);
-      }
-    }
-    return map;
+    return getAddresses(wallet.getAddresses());
   }
 
 
@@ -87,6 +103,38 @@ public interface AddressTable {
   Wallet getWallet(Integer id);
 
 
+  /**
+   * Get a page of the addresses in a wallet. The addresses are ordered by their IDs, so the next page follows on from the last ID in this one.
+   *
+   * @param id    the wallet's ID
+   * @param after the ID the page starts after, or null to start at the beginning
+   * @param limit the maximum number of addresses to return, or zero for no limit
+   *
+   * @return the addresses in order. The map is empty if the wallet does not exist.
+   */
+  default Map<String, SetlAddress> getWalletAddresses(Integer id, @Nullable String after, int limit) {
+    Wallet wallet = getWallet(id);
+    if (wallet == null) {
+      return Map.of();
+    }
+    NavigableSet<String> ids = new TreeSet<>(wallet.getAddresses());
+    if (after != null) {
+      ids = ids.tailSet(after, false);
+    }
+    List<String> page = ids.stream().limit(limit > 0 ? limit : Long.MAX_VALUE).collect(Collectors.toList());
+
+    Map<String, SetlAddress> found = getAddresses(page);
+    Map<String, SetlAddress> map = new LinkedHashMap<>();
+    for (String a : page) {
+      SetlAddress address = found.get(a);
+      if (address != null) {
+        map.put(a, address);
+      }
+    }
+    return map;
+  }
+
+
   /**
    * Insert a new address into this table. Some persistence mechanisms may take a few moments to work.
    *
@@ -0,0 +1,136 @@
+package io.setl.iobc.table;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import io.setl.iobc.model.address.SetlAddress;
+import io.setl.iobc.model.address.SetlAddressBuilder;
+import io.setl.iobc.model.address.Wallet;
+
+/**
+ * Address table which caches the addresses held in another table. Caching an address also avoids unwrapping its private key every time it is used. Wallets are
+ * not cached, as their contents change whenever an address is added, but the addresses loaded with a wallet are.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "setl.iobc.persistence.nature", havingValue = "sql")
+public class CachingAddressTable implements AddressTable {
+
+  /** Cache of SETL addresses by ID. */
+  private final TableCache<SetlAddress> addresses;
+
+  /** Cache of SETL address IDs by block-chain address. */
+  private final TableCache<String> chainAddresses;
+
+  private final AddressTable table;
+
+
+  /**
+   * New instance.
+   *
+   * @param table         the table holding the addresses
+   * @param maxSize       the maximum number of cached addresses
+   * @param timeToLive    the time an address is cached for
+   * @param meterRegistry the registry for the cache's metrics, if there is one
+   */
+  @Autowired
+  public CachingAddressTable(
+      @Qualifier("sqlAddressTable") AddressTable table,
+      @Value("${setl.iobc.persistence.cache.maxSize:10000}") int maxSize,
+      @Value("${setl.iobc.persistence.cache.timeToLive:PT10M}") Duration timeToLive,
+      ObjectProvider<MeterRegistry> meterRegistry
+  ) {
+    this.table = table;
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    addresses = new TableCache<>("address", maxSize, timeToLive, registry);
+    chainAddresses = new TableCache<>("chainAddress", maxSize, timeToLive, registry);
+  }
+
+
+  @Override
+  public SetlAddress getAddress(String addressId) {
+    return addresses.get(addressId, table::getAddress);
+  }
+
+
+  @Override
+  public Map<String, SetlAddress> getAddresses(Collection<String> addressIds) {
+    Map<String, SetlAddress> map = new HashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String a : addressIds) {
+      SetlAddress address = addresses.getIfPresent(a);
+      if (address != null) {
+        map.put(a, address);
+      } else {
+        missing.add(a);
+      }
+    }
+    if (!missing.isEmpty()) {
+      long generation = addresses.getGeneration();
+      Map<String, SetlAddress> loaded = table.getAddresses(missing);
+      loaded.forEach((addressId, address) -> addresses.put(addressId, address, generation));
+      map.putAll(loaded);
+    }
+    return map;
+  }
+
+
+  @Override
+  public Map<String, SetlAddress> getAllAddresses(Integer id) {
+    long generation = addresses.getGeneration();
+    Map<String, SetlAddress> map = table.getAllAddresses(id);
+    if (map != null) {
+      map.forEach((addressId, address) -> addresses.put(addressId, address, generation));
+    }
+    return map;
+  }
+
+
+  @Override
+  public Wallet getWallet(Integer id) {
+    return table.getWallet(id);
+  }
+
+
+  @Override
+  public Map<String, SetlAddress> getWalletAddresses(Integer id, String after, int limit) {
+    long generation = addresses.getGeneration();
+    Map<String, SetlAddress> map = table.getWalletAddresses(id, after, limit);
+    map.forEach((addressId, address) -> addresses.put(addressId, address, generation));
+    return map;
+  }
+
+
+  @Override
+  public CompletableFuture<SetlAddress> insert(SetlAddressBuilder builder) throws GeneralSecurityException {
+    return table.insert(builder).thenApply(address -> {
+      addresses.invalidate(address.getAddress());
+      chainAddresses.invalidate(address.getChainAddress());
+      return address;
+    });
+  }
+
+
+  @Override
+  public String lookupAddress(String chainAddress) {
+    return chainAddresses.get(chainAddress, table::lookupAddress);
+  }
+
+}
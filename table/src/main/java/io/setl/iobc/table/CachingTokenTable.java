@@ -0,0 +1,99 @@
+package io.setl.iobc.table;
+
+import java.time.Duration;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import io.setl.common.ParameterisedException;
+import io.setl.iobc.model.TokenSpecification;
+
+/**
+ * Token table which caches the token specifications held in another table. Every change made through this table invalidates the cached specification.
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "setl.iobc.persistence.nature", havingValue = "sql", matchIfMissing = true)
+public class CachingTokenTable implements TokenTable {
+
+  private final TableCache<TokenSpecification> cache;
+
+  private final TokenTable table;
+
+
+  /**
+   * New instance.
+   *
+   * @param table         the table holding the tokens
+   * @param maxSize       the maximum number of cached specifications
+   * @param timeToLive    the time a specification is cached for
+   * @param meterRegistry the registry for the cache's metrics, if there is one
+   */
+  @Autowired
+  public CachingTokenTable(
+      @Qualifier("sqlTokenTable") TokenTable table,
+      @Value("${setl.iobc.persistence.cache.maxSize:10000}") int maxSize,
+      @Value("${setl.iobc.persistence.cache.timeToLive:PT10M}") Duration timeToLive,
+      ObjectProvider<MeterRegistry> meterRegistry
+  ) {
+    this.table = table;
+    cache = new TableCache<>("token", maxSize, timeToLive, meterRegistry.getIfAvailable());
+  }
+
+
+  @Override
+  public void deleteToken(String tokenId) {
+    try {
+      table.deleteToken(tokenId);
+    } finally {
+      cache.invalidate(tokenId);
+    }
+  }
+
+
+  @Override
+  public Map<String, TokenSpecification> getAllTokens() throws ParameterisedException {
+    long generation = cache.getGeneration();
+    Map<String, TokenSpecification> tokens = table.getAllTokens();
+    tokens.forEach((tokenId, specification) -> cache.put(tokenId, specification, generation));
+    return tokens;
+  }
+
+
+  @Override
+  public TokenSpecification getTokenSpecification(String tokenId) throws ParameterisedException {
+    return cache.get(tokenId, table::getTokenSpecification);
+  }
+
+
+  @Override
+  public void insertToken(String tokenId, TokenSpecification data) throws ParameterisedException {
+    try {
+      table.insertToken(tokenId, data);
+    } finally {
+      cache.invalidate(tokenId);
+      cache.invalidate(data.getSymbol());
+    }
+  }
+
+
+  @Override
+  public void updateToken(String tokenId, TokenSpecification newData) throws ParameterisedException {
+    try {
+      table.updateToken(tokenId, newData);
+    } finally {
+      cache.invalidate(tokenId);
+      cache.invalidate(newData.getSymbol());
+    }
+  }
+
+}
@@ -0,0 +1,261 @@
+package io.setl.iobc.table;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A read-through cache of table records. Records are held for a fixed time after they are loaded. When the cache is full, the tenth of the records that were
+ * loaded longest ago are evicted. Missing records are not cached, as another server may create them.
+ *
+ * @param <V> the record type
+ *
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public class TableCache<V> {
+
+  /**
+   * Loader of records which are not in the cache.
+   *
+   * @param <V> the record type
+   * @param <E> the exception thrown if a record cannot be loaded
+   */
+  public interface Loader<V, E extends Exception> {
+
+    /**
+     * Load a record.
+     *
+     * @param key the record's key
+     *
+     * @return the record, or null if it does not exist
+     *
+     * @throws E if the record cannot be loaded
+     */
+    V load(String key) throws E;
+
+  }
+
+
+
+  /** A cached record. */
+  private static class Entry<V> {
+
+    /** Time at which this expires, from System.nanoTime(). */
+    final long expires;
+
+    final V value;
+
+
+    Entry(V value, long expires) {
+      this.value = value;
+      this.expires = expires;
+    }
+
+  }
+
+
+
+  private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  /** Incremented on every invalidation, so that a load which overlaps an invalidation does not cache the old record. */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private final AtomicBoolean isEvicting = new AtomicBoolean(false);
+
+  private final int maxSize;
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /** Time to live, in nanoseconds. */
+  private final long timeToLive;
+
+
+  /**
+   * New instance.
+   *
+   * @param name          the cache's name, used to tag its metrics
+   * @param maxSize       the maximum number of records held
+   * @param timeToLive    the time a record is held for after it is loaded
+   * @param meterRegistry the registry for the cache's metrics, or null
+   */
+  public TableCache(String name, int maxSize, Duration timeToLive, MeterRegistry meterRegistry) {
+    if (maxSize < 1 || timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Cache size and time to live must be positive");
+    }
+    this.maxSize = maxSize;
+    this.timeToLive = timeToLive.toNanos();
+
+    if (meterRegistry != null) {
+      FunctionCounter.builder("iobc.table.cache.gets", hits, AtomicLong::get)
+          .description("Table cache look ups")
+          .tag("cache", name)
+          .tag("result", "hit")
+          .register(meterRegistry);
+      FunctionCounter.builder("iobc.table.cache.gets", misses, AtomicLong::get)
+          .description("Table cache look ups")
+          .tag("cache", name)
+          .tag("result", "miss")
+          .register(meterRegistry);
+      FunctionCounter.builder("iobc.table.cache.evictions", evictions, AtomicLong::get)
+          .description("Records evicted from a table cache because it was full")
+          .tag("cache", name)
+          .register(meterRegistry);
+      Gauge.builder("iobc.table.cache.size", entries, ConcurrentHashMap::size)
+          .description("Records held in a table cache")
+          .tag("cache", name)
+          .register(meterRegistry);
+    }
+  }
+
+
+  private void evict() {
+    if (!isEvicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+      if (excess <= 0) {
+        return;
+      }
+
+      // Find the expiry time below which records will be evicted.
+      long[] expiries = new long[entries.size()];
+      int count = 0;
+      for (Entry<V> entry : entries.values()) {
+        if (count == expiries.length) {
+          break;
+        }
+        expiries[count++] = entry.expires;
+      }
+      if (count == 0) {
+        return;
+      }
+      Arrays.sort(expiries, 0, count);
+      long threshold = expiries[Math.min(excess, count) - 1];
+
+      Iterator<Entry<V>> iterator = entries.values().iterator();
+      while (iterator.hasNext() && excess > 0) {
+        if (iterator.next().expires - threshold <= 0) {
+          iterator.remove();
+          evictions.incrementAndGet();
+          excess--;
+        }
+      }
+    } finally {
+      isEvicting.set(false);
+    }
+  }
+
+
+  /**
+   * Get a record, loading it if it is not cached.
+   *
+   * @param key    the record's key
+   * @param loader loader for the record
+   * @param <E>    the exception thrown if the record cannot be loaded
+   *
+   * @return the record, or null if it does not exist
+   *
+   * @throws E if the record cannot be loaded
+   */
+  public <E extends Exception> V get(String key, Loader<V, E> loader) throws E {
+    if (key == null) {
+      return loader.load(null);
+    }
+    long now = System.nanoTime();
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.expires - now > 0) {
+      hits.incrementAndGet();
+      return entry.value;
+    }
+
+    misses.incrementAndGet();
+    long generation = invalidations.get();
+    V value = loader.load(key);
+    if (value != null) {
+      put(key, value, generation);
+    }
+    return value;
+  }
+
+
+  /**
+   * Get the current generation of the cache. Capture this before loading records which will be added with {@link #put(String, Object, long)}.
+   *
+   * @return the generation
+   */
+  public long getGeneration() {
+    return invalidations.get();
+  }
+
+
+  /**
+   * Get a record if it is cached.
+   *
+   * @param key the record's key
+   *
+   * @return the record, or null if it is not cached
+   */
+  public V getIfPresent(String key) {
+    Entry<V> entry = entries.get(key);
+    if (entry != null && entry.expires - System.nanoTime() > 0) {
+      hits.incrementAndGet();
+      return entry.value;
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+
+  /**
+   * Remove a record from the cache.
+   *
+   * @param key the record's key
+   */
+  public void invalidate(String key) {
+    if (key != null) {
+      invalidations.incrementAndGet();
+      entries.remove(key);
+    }
+  }
+
+
+  /** Remove every record from the cache. */
+  public void invalidateAll() {
+    invalidations.incrementAndGet();
+    entries.clear();
+  }
+
+
+  /**
+   * Add a freshly loaded record to the cache. The record is not cached if there has been an invalidation since the generation was captured, as it may be out of
+   * date.
+   *
+   * @param key        the record's key
+   * @param value      the record
+   * @param generation the cache's generation from before the record was loaded
+   */
+  public void put(String key, V value, long generation) {
+    entries.put(key, new Entry<>(value, System.nanoTime() + timeToLive));
+    if (invalidations.get() != generation) {
+      // An invalidation happened whilst the record was being loaded, so it may be out of date.
+      entries.remove(key);
+      return;
+    }
+    if (entries.size() > maxSize) {
+      evict();
+    }
+  }
+
+}
@@ -21,13 +21,21 @@ import io.setl.iobc.model.address.SetlAddressBuilder;
  */
 public class AddressMapper implements RowMapper<SetlAddress>, PreparedStatementCreator {
 
-  public static final String SELECT_BY_ADDRESS = "SELECT "
+  /** Selection of all the columns of the address table, to which a WHERE clause may be added. */
+  public static final String SELECT = "SELECT "
       + "wallet_id, address_type, setl_address, chain_address, chain_brand, chain_id, key_type, public_key, wrap_id, private_key "
-      + "FROM iobc.ADDRESS WHERE setl_address=?";
+      + "FROM iobc.ADDRESS";
+
+  public static final String SELECT_BY_ADDRESS = SELECT + " WHERE setl_address=?";
 
   private String address;
 
 
+  /**
+   * New instance.
+   *
+   * @param address the address to load, or null if the mapper is used for a query which returns many addresses
+   */
   public AddressMapper(String address) {
     this.address = address;
   }
@@ -44,6 +52,7 @@ public class AddressMapper implements RowMapper<SetlAddress>, PreparedStatementC
   @Override
   public SetlAddress mapRow(ResultSet rs, int rowNum) throws SQLException {
     String rsAddress = rs.getString("setl_address");
+    String expected = (address != null) ? address : rsAddress;
     SetlAddressBuilder builder = new SetlAddressBuilder()
         .walletId(rs.getInt("wallet_id"))
         .type(AddressType.get(rs.getInt("address_type")))
@@ -57,8 +66,8 @@ public class AddressMapper implements RowMapper<SetlAddress>, PreparedStatementC
 
     try {
       SetlAddressSql setlAddress = new SetlAddressSql(builder.build(), builder.getChainAddress(), builder.getChainBrand(), builder.getChainId());
-      if (!(address.equals(setlAddress.getAddress()) && address.equals(rsAddress))) {
-        throw new SQLException("Invalid address. Expected " + address + ", but was " + setlAddress.getAddress() + " @ " + rsAddress);
+      if (!(expected.equals(setlAddress.getAddress()) && expected.equals(rsAddress))) {
+        throw new SQLException("Invalid address. Expected " + expected + ", but was " + setlAddress.getAddress() + " @ " + rsAddress);
       }
       return setlAddress;
     } catch (GeneralSecurityException e) {
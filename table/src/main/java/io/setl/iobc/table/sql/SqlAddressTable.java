@@ -2,7 +2,13 @@ package io.setl.iobc.table.sql;
 
 import java.security.GeneralSecurityException;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import javax.sql.DataSource;
 
@@ -27,6 +33,9 @@ import io.setl.iobc.table.AddressTable;
 @Slf4j
 public class SqlAddressTable implements AddressTable {
 
+  /** Maximum number of IDs in one "IN" clause. */
+  private static final int MAX_IN_LIST = 500;
+
   private final JdbcTemplate template;
 
 
@@ -43,10 +52,35 @@ public class SqlAddressTable implements AddressTable {
   }
 
 
+  @Override
+  public Map<String, SetlAddress> getAddresses(Collection<String> addressIds) {
+    List<String> ids = new ArrayList<>(new HashSet<>(addressIds));
+    Map<String, SetlAddress> map = new HashMap<>();
+    AddressMapper mapper = new AddressMapper(null);
+    for (int i = 0; i < ids.size(); i += MAX_IN_LIST) {
+      List<String> batch = ids.subList(i, Math.min(ids.size(), i + MAX_IN_LIST));
+      String sql = AddressMapper.SELECT + " WHERE setl_address IN (" + "?,".repeat(batch.size() - 1) + "?)";
+      template.query(sql, rs -> {
+        SetlAddress address = mapper.mapRow(rs, 0);
+        map.put(address.getAddress(), address);
+      }, batch.toArray());
+    }
+    return map;
+  }
+
+
+  @Override
+  public Map<String, SetlAddress> getAllAddresses(Integer id) {
+    Map<String, SetlAddress> map = getWalletAddresses(id, null, 0);
+    // A wallet only exists if it contains an address
+    return map.isEmpty() ? null : map;
+  }
+
+
   @Override
   public Wallet getWallet(Integer id) {
     PreparedStatementCreator creator = conn -> {
-      PreparedStatement statement = conn.prepareStatement("SELECT setl_address FROM iobc.ADDRESS WHERE walletId = ?");
+      PreparedStatement statement = conn.prepareStatement("SELECT setl_address FROM iobc.ADDRESS WHERE wallet_id = ?");
       statement.setInt(1, id);
       return statement;
     };
@@ -64,6 +98,32 @@ public class SqlAddressTable implements AddressTable {
   }
 
 
+  @Override
+  public Map<String, SetlAddress> getWalletAddresses(Integer id, String after, int limit) {
+    // The "i_address_wallet" index covers the wallet ID and the address, so this is a range scan of the index.
+    StringBuilder sql = new StringBuilder(AddressMapper.SELECT).append(" WHERE wallet_id = ?");
+    List<Object> args = new ArrayList<>(3);
+    args.add(id);
+    if (after != null) {
+      sql.append(" AND setl_address > ?");
+      args.add(after);
+    }
+    sql.append(" ORDER BY setl_address");
+    if (limit > 0) {
+      sql.append(" LIMIT ?");
+      args.add(limit);
+    }
+
+    Map<String, SetlAddress> map = new LinkedHashMap<>();
+    AddressMapper mapper = new AddressMapper(null);
+    template.query(sql.toString(), rs -> {
+      SetlAddress address = mapper.mapRow(rs, 0);
+      map.put(address.getAddress(), address);
+    }, args.toArray());
+    return map;
+  }
+
+
   @Override
   public CompletableFuture<SetlAddress> insert(SetlAddressBuilder builder) throws GeneralSecurityException {
     AddressInsertCreator creator = new AddressInsertCreator(builder);
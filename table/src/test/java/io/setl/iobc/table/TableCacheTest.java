@@ -0,0 +1,94 @@
+package io.setl.iobc.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author Simon Greatrix on 08/03/2022.
+ */
+public class TableCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+
+  private String load(String key) {
+    loads.incrementAndGet();
+    return "value-" + key;
+  }
+
+
+  @Test
+  public void evictsOldestWhenFull() throws InterruptedException {
+    TableCache<String> cache = new TableCache<>("test", 10, Duration.ofMinutes(1), null);
+    for (int i = 0; i <= 10; i++) {
+      cache.put("k" + i, "v" + i, cache.getGeneration());
+      // distinct expiry times, so the eviction order is certain
+      Thread.sleep(2);
+    }
+
+    // Eleven records is one too many, so the excess and a tenth of the size are evicted.
+    assertNull(cache.getIfPresent("k0"));
+    assertNull(cache.getIfPresent("k1"));
+    for (int i = 2; i <= 10; i++) {
+      assertEquals("v" + i, cache.getIfPresent("k" + i));
+    }
+  }
+
+
+  @Test
+  public void expiresAfterTimeToLive() throws InterruptedException {
+    TableCache<String> cache = new TableCache<>("test", 10, Duration.ofMillis(50), null);
+    assertEquals("value-a", cache.get("a", this::load));
+    assertEquals("value-a", cache.get("a", this::load));
+    assertEquals(1, loads.get());
+
+    Thread.sleep(100);
+    assertNull(cache.getIfPresent("a"));
+    assertEquals("value-a", cache.get("a", this::load));
+    assertEquals(2, loads.get());
+  }
+
+
+  @Test
+  public void invalidationDuringLoadIsNotCached() {
+    TableCache<String> cache = new TableCache<>("test", 10, Duration.ofMinutes(1), null);
+    String value = cache.get("a", key -> {
+      // another thread changes the record whilst it is being loaded
+      cache.invalidate(key);
+      return load(key);
+    });
+    assertEquals("value-a", value);
+    assertNull(cache.getIfPresent("a"));
+  }
+
+
+  @Test
+  public void missingIsNotCached() {
+    TableCache<String> cache = new TableCache<>("test", 10, Duration.ofMinutes(1), null);
+    assertNull(cache.get("a", key -> {
+      loads.incrementAndGet();
+      return null;
+    }));
+    assertEquals("value-a", cache.get("a", this::load));
+    assertEquals(2, loads.get());
+  }
+
+
+  @Test
+  public void putWithStaleGenerationIsNotCached() {
+    TableCache<String> cache = new TableCache<>("test", 10, Duration.ofMinutes(1), null);
+    long generation = cache.getGeneration();
+    cache.invalidateAll();
+    cache.put("a", "old", generation);
+    assertNull(cache.getIfPresent("a"));
+
+    cache.put("a", "new", cache.getGeneration());
+    assertEquals("new", cache.getIfPresent("a"));
+  }
+
+}